@@ -3,22 +3,28 @@ package com.vibecode.ai_generation.clients;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import com.vibecode.ai_generation.dto.UpdateProjectFilesRequest;
 
 @FeignClient(name = "project-service")
 public interface ProjectServiceClient {
 
+    // view=metadata returns paths and hashes without file contents
     @GetMapping("/projects/{projectId}/files")
     Object getProjectFiles(
             @PathVariable String projectId,
+            @RequestParam("view") String view,
             @RequestHeader("Authorization") String token
     );
 
-    @PostMapping("/projects/{projectId}/files")
+    @PutMapping("/projects/{projectId}/files")
     Object updateProjectFiles(
             @PathVariable String projectId,
-            Object request,
+            @RequestBody UpdateProjectFilesRequest request,
             @RequestHeader("Authorization") String token
     );
 
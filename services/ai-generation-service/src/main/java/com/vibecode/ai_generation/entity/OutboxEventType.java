@@ -0,0 +1,6 @@
+package com.vibecode.ai_generation.entity;
+
+public enum OutboxEventType {
+    PROJECT_FILES_UPDATE,
+    USAGE_INCREMENT
+}
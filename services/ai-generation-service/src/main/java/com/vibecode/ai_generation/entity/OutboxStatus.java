@@ -0,0 +1,7 @@
+package com.vibecode.ai_generation.entity;
+
+public enum OutboxStatus {
+    PENDING,
+    DELIVERED,
+    FAILED
+}
@@ -0,0 +1,32 @@
+package com.vibecode.ai_generation.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.vibecode.ai_generation.entity.OutboxEvent;
+import com.vibecode.ai_generation.entity.OutboxEventType;
+import com.vibecode.ai_generation.entity.OutboxStatus;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    List<OutboxEvent> findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+            OutboxStatus status,
+            LocalDateTime now,
+            Pageable pageable
+    );
+
+    // an earlier undelivered event for the same aggregate, e.g. one in backoff
+    boolean existsByTypeAndAggregateIdAndStatusAndIdLessThan(
+            OutboxEventType type,
+            String aggregateId,
+            OutboxStatus status,
+            Long id
+    );
+
+    @Transactional
+    long deleteByStatusAndDeliveredAtBefore(OutboxStatus status, LocalDateTime cutoff);
+}
@@ -0,0 +1,60 @@
+package com.vibecode.ai_generation.security;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
+import org.springframework.stereotype.Component;
+
+import com.nimbusds.jose.jwk.source.ImmutableSecret;
+
+/**
+ * Issues short-lived tokens for calls this service makes on a user's behalf
+ * after the user's request has ended, such as outbox deliveries. They are
+ * signed with the key shared by all services and carry the user as subject,
+ * so downstream access checks are unchanged; a fresh one is issued per call,
+ * so nothing long-lived is stored and a retry never runs into an expired
+ * user token.
+ */
+@Component
+public class ServiceTokenIssuer {
+
+    private static final String SERVICE_NAME = "ai-generation-service";
+
+    private final JwtEncoder encoder;
+    private final Duration ttl;
+
+    public ServiceTokenIssuer(
+            @Value("${jwt.secret}") String secret,
+            @Value("${outbox.service-token-ttl-ms:300000}") long ttlMs
+    ) {
+        SecretKey key = new SecretKeySpec(secret.getBytes(), "HmacSHA256");
+        this.encoder = new NimbusJwtEncoder(new ImmutableSecret<>(key));
+        this.ttl = Duration.ofMillis(ttlMs);
+    }
+
+    /** An Authorization header value acting for userId. */
+    public String authorizationFor(UUID userId) {
+        Instant now = Instant.now();
+        JwtClaimsSet claims = JwtClaimsSet.builder()
+                .subject(userId.toString())
+                .issuer(SERVICE_NAME)
+                .claim("service", SERVICE_NAME)
+                .issuedAt(now)
+                .expiresAt(now.plus(ttl))
+                .build();
+
+        JwsHeader header = JwsHeader.with(MacAlgorithm.HS256).build();
+        return "Bearer " + encoder.encode(JwtEncoderParameters.from(header, claims)).getTokenValue();
+    }
+}
@@ -24,6 +24,7 @@ public class AiGenerationService {
     private final ProjectServiceClient projectClient;
     private final UserServiceClient userClient;
     private final OllamaClient ollamaClient;
+    private final OutboxService outboxService;
 
     public GenerateCodeResponse generate(
             GenerateCodeRequest request,
@@ -31,7 +32,7 @@ public class AiGenerationService {
             UUID userId) {
 
         // STEP 1 — check project access
-        projectClient.getProjectFiles(request.getProjectId(), authHeader);
+        projectClient.getProjectFiles(request.getProjectId(), "metadata", authHeader);
 
         // STEP 2 — check quota
         UserUsageResponse usage
@@ -48,16 +49,15 @@ public class AiGenerationService {
         String llmOutput = ollamaClient.generateCode(request.getPrompt());
         ProjectFile generatedFile = convertToProjectFile(llmOutput);
 
-        // STEP 4 — update project
-        projectClient.updateProjectFiles(
+        // STEP 4 — record project update and token deduction in the outbox;
+        // OutboxDispatcher delivers both in the background with retries
+        outboxService.recordGeneration(
                 request.getProjectId(),
                 buildUpdateRequest(generatedFile, request),
-                authHeader
+                userId,
+                requiredTokens
         );
 
-        // STEP 5 — deduct tokens
-        userClient.incrementUsage(userId, requiredTokens, authHeader);
-
         return GenerateCodeResponse.builder()
                 .projectId(request.getProjectId())
                 .success(true)
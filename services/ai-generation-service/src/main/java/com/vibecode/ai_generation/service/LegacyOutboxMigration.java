@@ -0,0 +1,72 @@
+package com.vibecode.ai_generation.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Removes user tokens stored by earlier versions of the outbox. Each pending
+ * event gets the user it acts for from its token's subject, then the token
+ * column is dropped. Runs before scheduling starts, once the schema update
+ * has added the user column.
+ */
+@Slf4j
+@Component
+@DependsOn("entityManagerFactory")
+@RequiredArgsConstructor
+public class LegacyOutboxMigration {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    @PostConstruct
+    void migrate() {
+        Integer legacy = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM INFORMATION_SCHEMA.COLUMNS
+                WHERE UPPER(TABLE_NAME) = 'OUTBOX_EVENTS' AND UPPER(COLUMN_NAME) = 'AUTH_HEADER'
+                """, Integer.class);
+        if (legacy == null || legacy == 0) {
+            return;
+        }
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, auth_header FROM outbox_events WHERE user_id IS NULL");
+        for (Map<String, Object> row : rows) {
+            UUID userId = subjectOf((String) row.get("auth_header"));
+            if (userId != null) {
+                jdbcTemplate.update("UPDATE outbox_events SET user_id = ? WHERE id = ?", userId, row.get("id"));
+            } else {
+                jdbcTemplate.update(
+                        "UPDATE outbox_events SET status = 'FAILED', last_error = ? WHERE id = ? AND status = 'PENDING'",
+                        "No user could be determined for this event", row.get("id"));
+            }
+        }
+
+        jdbcTemplate.execute("ALTER TABLE outbox_events DROP COLUMN auth_header");
+        log.info("Removed stored user tokens from {} outbox events", rows.size());
+    }
+
+    // The token was verified when the event was recorded; only its subject is read here
+    private UUID subjectOf(String authHeader) {
+        try {
+            String token = authHeader.startsWith("Bearer ") ? authHeader.substring(7) : authHeader;
+            byte[] payload = Base64.getUrlDecoder().decode(token.split("\\.")[1]);
+            String subject = objectMapper.readTree(new String(payload, StandardCharsets.UTF_8)).path("sub").asText(null);
+            return subject != null ? UUID.fromString(subject) : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
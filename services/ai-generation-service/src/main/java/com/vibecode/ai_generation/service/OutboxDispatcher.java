@@ -0,0 +1,189 @@
+package com.vibecode.ai_generation.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibecode.ai_generation.clients.ProjectServiceClient;
+import com.vibecode.ai_generation.clients.UserServiceClient;
+import com.vibecode.ai_generation.dto.UpdateProjectFilesRequest;
+import com.vibecode.ai_generation.entity.OutboxEvent;
+import com.vibecode.ai_generation.entity.OutboxEventType;
+import com.vibecode.ai_generation.entity.OutboxStatus;
+import com.vibecode.ai_generation.repository.OutboxEventRepository;
+import com.vibecode.ai_generation.security.ServiceTokenIssuer;
+
+import feign.FeignException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Delivers outbox events to project-service and user-service in batches.
+ * Project updates are sent in insertion order per project: an update is held
+ * back while an earlier one for the same project is still pending, including
+ * one waiting out its backoff, so a retry never overwrites newer code. Usage
+ * increments for the same user within a batch are coalesced into a single
+ * call. Each call authenticates with a fresh service token for the event's
+ * user. Failed deliveries are retried with exponential backoff until
+ * max-attempts, and client errors (other than 401/408/429) are treated as
+ * permanent.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository outboxRepository;
+    private final ProjectServiceClient projectClient;
+    private final UserServiceClient userClient;
+    private final ObjectMapper objectMapper;
+    private final ServiceTokenIssuer serviceTokenIssuer;
+
+    @Value("${outbox.batch-size:50}")
+    private int batchSize;
+
+    @Value("${outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${outbox.initial-backoff-ms:2000}")
+    private long initialBackoffMs;
+
+    @Value("${outbox.max-backoff-ms:300000}")
+    private long maxBackoffMs;
+
+    @Value("${outbox.delivered-retention-hours:24}")
+    private long deliveredRetentionHours;
+
+    @Scheduled(fixedDelayString = "${outbox.dispatch-interval-ms:1000}")
+    public void dispatch() {
+        LocalDateTime now = LocalDateTime.now();
+
+        List<OutboxEvent> due = outboxRepository.findByStatusAndNextAttemptAtLessThanEqualOrderByIdAsc(
+                OutboxStatus.PENDING, now, PageRequest.of(0, batchSize));
+
+        if (due.isEmpty()) {
+            return;
+        }
+
+        Map<String, List<OutboxEvent>> usageByUser = new LinkedHashMap<>();
+        Set<String> blockedProjects = new HashSet<>();
+        Set<String> seenProjects = new HashSet<>();
+
+        for (OutboxEvent event : due) {
+            if (event.getType() == OutboxEventType.USAGE_INCREMENT) {
+                usageByUser.computeIfAbsent(event.getAggregateId(), k -> new ArrayList<>()).add(event);
+                continue;
+            }
+
+            // keep per-project ordering: a failed update holds back later ones,
+            // in this batch and, while it waits out its backoff, in later ones
+            if (blockedProjects.contains(event.getAggregateId())) {
+                continue;
+            }
+            if (!seenProjects.contains(event.getAggregateId())
+                    && outboxRepository.existsByTypeAndAggregateIdAndStatusAndIdLessThan(
+                            OutboxEventType.PROJECT_FILES_UPDATE, event.getAggregateId(),
+                            OutboxStatus.PENDING, event.getId())) {
+                blockedProjects.add(event.getAggregateId());
+                continue;
+            }
+            seenProjects.add(event.getAggregateId());
+            if (!deliverProjectUpdate(event)) {
+                blockedProjects.add(event.getAggregateId());
+            }
+        }
+
+        usageByUser.values().forEach(this::deliverUsage);
+
+        outboxRepository.saveAll(due);
+        outboxRepository.deleteByStatusAndDeliveredAtBefore(
+                OutboxStatus.DELIVERED, now.minusHours(deliveredRetentionHours));
+    }
+
+    private boolean deliverProjectUpdate(OutboxEvent event) {
+        try {
+            UpdateProjectFilesRequest request = objectMapper.readValue(
+                    event.getPayload(), UpdateProjectFilesRequest.class);
+            projectClient.updateProjectFiles(
+                    event.getAggregateId(), request, serviceTokenIssuer.authorizationFor(event.getUserId()));
+            markDelivered(event);
+            return true;
+        } catch (Exception e) {
+            markFailed(event, e);
+            return false;
+        }
+    }
+
+    private void deliverUsage(List<OutboxEvent> events) {
+        OutboxEvent latest = events.get(events.size() - 1);
+        int totalTokens = events.stream().mapToInt(OutboxEvent::getTokens).sum();
+
+        try {
+            UUID userId = UUID.fromString(latest.getAggregateId());
+            userClient.incrementUsage(userId, totalTokens, serviceTokenIssuer.authorizationFor(userId));
+            events.forEach(this::markDelivered);
+        } catch (Exception e) {
+            events.forEach(event -> markFailed(event, e));
+        }
+    }
+
+    private void markDelivered(OutboxEvent event) {
+        event.setStatus(OutboxStatus.DELIVERED);
+        event.setDeliveredAt(LocalDateTime.now());
+        event.setLastError(null);
+    }
+
+    private void markFailed(OutboxEvent event, Exception e) {
+        int attempts = event.getAttempts() + 1;
+        event.setAttempts(attempts);
+        event.setLastError(truncate(e.getMessage()));
+
+        if (attempts >= maxAttempts || isPermanent(e)) {
+            event.setStatus(OutboxStatus.FAILED);
+            log.error("Outbox event {} ({}) failed permanently after {} attempts: {}",
+                    event.getId(), event.getType(), attempts, e.getMessage());
+            return;
+        }
+
+        long backoff = backoffMs(attempts, initialBackoffMs, maxBackoffMs);
+        event.setNextAttemptAt(LocalDateTime.now().plusNanos(backoff * 1_000_000));
+        log.warn("Outbox event {} ({}) delivery failed, retrying in {} ms: {}",
+                event.getId(), event.getType(), backoff, e.getMessage());
+    }
+
+    // 401 means our token was rejected, e.g. after a key rotation, not that
+    // the event is invalid, so it is retried like a server error
+    static boolean isPermanent(Exception e) {
+        if (e instanceof FeignException feignException) {
+            return isPermanentStatus(feignException.status());
+        }
+        return false;
+    }
+
+    static boolean isPermanentStatus(int status) {
+        return status >= 400 && status < 500 && status != 401 && status != 408 && status != 429;
+    }
+
+    /** Delay before the given attempt is retried: doubling from initial, capped at max. */
+    static long backoffMs(int attempts, long initialBackoffMs, long maxBackoffMs) {
+        return Math.min(maxBackoffMs, initialBackoffMs << Math.min(attempts - 1, 20));
+    }
+
+    private String truncate(String message) {
+        if (message == null) {
+            return null;
+        }
+        return message.length() > 1000 ? message.substring(0, 1000) : message;
+    }
+}
@@ -0,0 +1,71 @@
+package com.vibecode.ai_generation.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibecode.ai_generation.dto.UpdateProjectFilesRequest;
+import com.vibecode.ai_generation.entity.OutboxEvent;
+import com.vibecode.ai_generation.entity.OutboxEventType;
+import com.vibecode.ai_generation.entity.OutboxStatus;
+import com.vibecode.ai_generation.repository.OutboxEventRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Records post-generation side effects in the local outbox. Both events are
+ * written in one transaction, so once this returns the generated code and the
+ * usage charge are durable and {@link OutboxDispatcher} takes over delivery.
+ */
+@Service
+@RequiredArgsConstructor
+public class OutboxService {
+
+    private final OutboxEventRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional
+    public void recordGeneration(
+            String projectId,
+            UpdateProjectFilesRequest updateRequest,
+            UUID userId,
+            int tokens) {
+
+        LocalDateTime now = LocalDateTime.now();
+
+        OutboxEvent filesUpdate = OutboxEvent.builder()
+                .type(OutboxEventType.PROJECT_FILES_UPDATE)
+                .aggregateId(projectId)
+                .payload(toJson(updateRequest))
+                .userId(userId)
+                .status(OutboxStatus.PENDING)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build();
+
+        OutboxEvent usageIncrement = OutboxEvent.builder()
+                .type(OutboxEventType.USAGE_INCREMENT)
+                .aggregateId(userId.toString())
+                .tokens(tokens)
+                .userId(userId)
+                .status(OutboxStatus.PENDING)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build();
+
+        outboxRepository.saveAll(List.of(filesUpdate, usageIncrement));
+    }
+
+    private String toJson(UpdateProjectFilesRequest request) {
+        try {
+            return objectMapper.writeValueAsString(request);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize project update", e);
+        }
+    }
+}
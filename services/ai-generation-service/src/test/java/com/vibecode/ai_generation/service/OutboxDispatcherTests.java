@@ -0,0 +1,46 @@
+package com.vibecode.ai_generation.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class OutboxDispatcherTests {
+
+    @Test
+    void backoffDoublesFromInitialDelay() {
+        assertThat(OutboxDispatcher.backoffMs(1, 1000, 300_000)).isEqualTo(1000);
+        assertThat(OutboxDispatcher.backoffMs(2, 1000, 300_000)).isEqualTo(2000);
+        assertThat(OutboxDispatcher.backoffMs(5, 1000, 300_000)).isEqualTo(16_000);
+    }
+
+    @Test
+    void backoffIsCappedAtMaximum() {
+        assertThat(OutboxDispatcher.backoffMs(9, 1000, 300_000)).isEqualTo(256_000);
+        assertThat(OutboxDispatcher.backoffMs(10, 1000, 300_000)).isEqualTo(300_000);
+        // the shift is bounded, so very many attempts cannot overflow into a small delay
+        assertThat(OutboxDispatcher.backoffMs(200, 1000, 300_000)).isEqualTo(300_000);
+    }
+
+    @Test
+    void clientErrorsArePermanent() {
+        assertThat(OutboxDispatcher.isPermanentStatus(400)).isTrue();
+        assertThat(OutboxDispatcher.isPermanentStatus(403)).isTrue();
+        assertThat(OutboxDispatcher.isPermanentStatus(404)).isTrue();
+        assertThat(OutboxDispatcher.isPermanentStatus(409)).isTrue();
+    }
+
+    @Test
+    void authenticationTimeoutsAndThrottlingAreRetried() {
+        assertThat(OutboxDispatcher.isPermanentStatus(401)).isFalse();
+        assertThat(OutboxDispatcher.isPermanentStatus(408)).isFalse();
+        assertThat(OutboxDispatcher.isPermanentStatus(429)).isFalse();
+    }
+
+    @Test
+    void serverErrorsAndConnectionFailuresAreRetried() {
+        assertThat(OutboxDispatcher.isPermanentStatus(500)).isFalse();
+        assertThat(OutboxDispatcher.isPermanentStatus(503)).isFalse();
+        assertThat(OutboxDispatcher.isPermanentStatus(-1)).isFalse(); // no response at all
+        assertThat(OutboxDispatcher.isPermanent(new IllegalStateException("connection reset"))).isFalse();
+    }
+}
@@ -30,10 +30,20 @@ public class JwtAuthFilter implements GlobalFilter, Ordered {
             "/ai/health"
     );
 
+    // service-to-service endpoints; services call each other directly
+    private static final List<String> INTERNAL_PATHS = List.of(
+            "/projects/internal/"
+    );
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
         String path = exchange.getRequest().getURI().getPath();
 
+        if (INTERNAL_PATHS.stream().anyMatch(path::startsWith)) {
+            exchange.getResponse().setStatusCode(HttpStatus.NOT_FOUND);
+            return exchange.getResponse().setComplete();
+        }
+
         //allow public endpoints
         if (PUBLIC_PATHS.stream().anyMatch(path::startsWith)) {
             return chain.filter(exchange);
@@ -0,0 +1,44 @@
+package com.vibecode.project.controller;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.vibecode.project.dto.GalleryFacetsResponse;
+import com.vibecode.project.dto.ProjectPageResponse;
+import com.vibecode.project.service.GalleryService;
+
+import lombok.RequiredArgsConstructor;
+
+// Public projects for the landing page; no login required
+@RestController
+@RequestMapping("/projects/gallery")
+@RequiredArgsConstructor
+public class GalleryController {
+
+    private final GalleryService galleryService;
+
+    @GetMapping
+    public ResponseEntity<ProjectPageResponse> gallery(
+            @RequestParam(required = false) List<String> tag,
+            @RequestParam(required = false) List<String> techStack,
+            @RequestParam(required = false) List<String> language,
+            @RequestParam(defaultValue = "recent") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "24") int limit) {
+        return ResponseEntity.ok(galleryService.gallery(tag, techStack, language, sort, cursor, limit));
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity<GalleryFacetsResponse> facets(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(30)).cachePublic())
+                .body(galleryService.facets(limit));
+    }
+}
@@ -0,0 +1,34 @@
+package com.vibecode.project.controller;
+
+import java.util.UUID;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.vibecode.project.service.VersionRetentionService;
+
+import lombok.RequiredArgsConstructor;
+
+// Called by other services with a service token, not by clients; the
+// gateway does not route these paths
+@RestController
+@RequestMapping("/projects/internal")
+@RequiredArgsConstructor
+public class InternalProjectController {
+
+    private final VersionRetentionService versionRetentionService;
+
+    // user-service reports plan changes here; history retention follows the plan
+    @PutMapping("/owners/{ownerId}/plan")
+    public ResponseEntity<Void> setOwnerPlan(
+            @PathVariable UUID ownerId,
+            @RequestParam String plan) {
+
+        versionRetentionService.setOwnerPlan(ownerId, plan);
+        return ResponseEntity.ok().build();
+    }
+}
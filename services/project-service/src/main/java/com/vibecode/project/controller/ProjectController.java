@@ -1,22 +1,49 @@
 package com.vibecode.project.controller;
 
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.vibecode.project.dto.CreateProjectRequest;
+import com.vibecode.project.dto.PatchProjectFilesRequest;
+import com.vibecode.project.dto.ProjectAncestryResponse;
+import com.vibecode.project.dto.ProjectFileListResponse;
 import com.vibecode.project.dto.ProjectFilesResponse;
+import com.vibecode.project.dto.ProjectImportResponse;
+import com.vibecode.project.dto.ProjectPageResponse;
+import com.vibecode.project.dto.ProjectTreeResponse;
+import com.vibecode.project.dto.ProjectVersionResponse;
 import com.vibecode.project.dto.UpdateProjectFilesRequest;
+import com.vibecode.project.dto.VersionPageResponse;
 import com.vibecode.project.entity.Project;
+import com.vibecode.project.entity.ProjectFile;
+import com.vibecode.project.exception.InvalidRequestException;
+import com.vibecode.project.service.ForkLineageService;
+import com.vibecode.project.service.ProjectArchiveService;
+import com.vibecode.project.service.ProjectArchiveService.ProjectArchive;
+import com.vibecode.project.service.ProjectDiffService;
+import com.vibecode.project.service.ProjectImportService;
 import com.vibecode.project.service.ProjectService;
 
 import jakarta.validation.Valid;
@@ -28,6 +55,10 @@ import lombok.RequiredArgsConstructor;
 public class ProjectController {
 
     private final ProjectService projectService;
+    private final ProjectArchiveService projectArchiveService;
+    private final ProjectImportService projectImportService;
+    private final ProjectDiffService projectDiffService;
+    private final ForkLineageService forkLineageService;
 
     @PostMapping("/")
     public ResponseEntity<Project> createProject(@Valid @RequestBody CreateProjectRequest request,
@@ -37,11 +68,148 @@ public class ProjectController {
         return ResponseEntity.ok(projectService.createProject(request, ownerId));
     }
 
+    // Dashboard listing; pass nextCursor back to get the following page
+    @GetMapping
+    public ResponseEntity<ProjectPageResponse> listProjects(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @AuthenticationPrincipal Jwt jwt) {
+        UUID ownerId = UUID.fromString(jwt.getSubject());
+        return ResponseEntity.ok(projectService.listProjects(ownerId, cursor, limit));
+    }
+
     @GetMapping("/{projectId}/files")
     public ResponseEntity<ProjectFilesResponse> getProjectFile(@PathVariable String projectId,
+            @AuthenticationPrincipal Jwt jwt,
+            WebRequest request) {
+        UUID userId = UUID.fromString(jwt.getSubject());
+        ProjectFilesResponse files = projectService.getProjectFiles(projectId, userId);
+
+        // every write to the files bumps the revision, so it identifies the file list
+        String etag = "\"" + files.getRevision() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(files);
+    }
+
+    // Paths, sizes and content hashes only, for file trees and access checks
+    @GetMapping(value = "/{projectId}/files", params = "view=metadata")
+    public ResponseEntity<ProjectFileListResponse> listFileMetadata(@PathVariable String projectId,
+            @AuthenticationPrincipal Jwt jwt,
+            WebRequest request) {
+        UUID userId = UUID.fromString(jwt.getSubject());
+        ProjectFileListResponse files = projectService.listFileMetadata(projectId, userId);
+
+        String etag = "\"" + files.getRevision() + "-metadata\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(files);
+    }
+
+    // One directory at a time for file browsers; ?depth=N expands subdirectories up front
+    @GetMapping("/{projectId}/tree")
+    public ResponseEntity<ProjectTreeResponse> getTree(
+            @PathVariable String projectId,
+            @RequestParam(defaultValue = "") String path,
+            @RequestParam(defaultValue = "1") int depth,
+            @AuthenticationPrincipal Jwt jwt,
+            WebRequest request) {
+
+        UUID userId = UUID.fromString(jwt.getSubject());
+        ProjectTreeResponse tree = projectService.getTree(projectId, path, depth, userId);
+
+        String etag = "\"" + tree.getRevision() + "-tree\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(tree);
+    }
+
+    // The content hash is the ETag, so unchanged files answer 304 without
+    // loading the blob. Range requests are served by the Resource support.
+    @GetMapping("/{projectId}/files/content")
+    public ResponseEntity<Resource> getFileContent(
+            @PathVariable String projectId,
+            @RequestParam String path,
+            @AuthenticationPrincipal Jwt jwt,
+            WebRequest request) {
+
+        UUID userId = UUID.fromString(jwt.getSubject());
+        ProjectFile file = projectService.getFile(projectId, path, userId);
+
+        String etag = "\"" + file.getContentHash() + "\"";
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(projectService.openContent(file));
+    }
+
+    // Streams the current files, or those of ?version=N, as a zip or tar.gz download
+    @GetMapping("/{projectId}/archive")
+    public ResponseEntity<StreamingResponseBody> downloadArchive(
+            @PathVariable String projectId,
+            @RequestParam(required = false) Integer version,
+            @RequestParam(defaultValue = "zip") String format,
             @AuthenticationPrincipal Jwt jwt) {
+
+        UUID userId = UUID.fromString(jwt.getSubject());
+        ProjectArchive archive = projectArchiveService.prepare(projectId, version, format, userId);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(archive.filename()).build().toString())
+                .contentType(MediaType.parseMediaType(archive.contentType()))
+                .body(archive.body());
+    }
+
+    // Replaces the files with the contents of a zip or tarball sent as the raw request body
+    @PostMapping(value = "/{projectId}/import", consumes = {
+            "application/zip", "application/x-tar", "application/gzip", "application/x-gzip", "application/octet-stream"})
+    public ResponseEntity<ProjectImportResponse> importArchive(
+            @PathVariable String projectId,
+            @RequestParam(defaultValue = "zip") String format,
+            @RequestParam(required = false) String versionMessage,
+            @AuthenticationPrincipal Jwt jwt,
+            InputStream body) {
+
+        UUID requesterId = UUID.fromString(jwt.getSubject());
+
+        return ResponseEntity.ok(
+                projectImportService.importArchive(projectId, body, format, versionMessage, requesterId)
+        );
+    }
+
+    // Unified diff between two versions; both are immutable, so clients may keep the result
+    @GetMapping("/{projectId}/diff")
+    public ResponseEntity<StreamingResponseBody> diffVersions(
+            @PathVariable String projectId,
+            @RequestParam int from,
+            @RequestParam int to,
+            @RequestParam(defaultValue = "3") int context,
+            @AuthenticationPrincipal Jwt jwt) {
+
         UUID userId = UUID.fromString(jwt.getSubject());
-        return ResponseEntity.ok(projectService.getProjectFiles(projectId, userId));
+
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.DAYS).cachePrivate())
+                .contentType(new MediaType("text", "x-diff", StandardCharsets.UTF_8))
+                .body(projectDiffService.diff(projectId, from, to, context, userId));
     }
 
     @PostMapping("/{projectId}/fork")
@@ -56,6 +224,35 @@ public class ProjectController {
         );
     }
 
+    // depth=direct lists immediate forks, depth=all the whole subtree; pass nextCursor back for more
+    @GetMapping("/{projectId}/forks")
+    public ResponseEntity<ProjectPageResponse> listForks(
+            @PathVariable String projectId,
+            @RequestParam(defaultValue = "direct") String depth,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int limit,
+            @AuthenticationPrincipal Jwt jwt) {
+
+        boolean descendants = switch (depth) {
+            case "direct" -> false;
+            case "all" -> true;
+            default -> throw new InvalidRequestException("Unsupported depth: " + depth);
+        };
+        UUID userId = UUID.fromString(jwt.getSubject());
+
+        return ResponseEntity.ok(forkLineageService.getForks(projectId, descendants, cursor, limit, userId));
+    }
+
+    @GetMapping("/{projectId}/ancestors")
+    public ResponseEntity<ProjectAncestryResponse> getAncestors(
+            @PathVariable String projectId,
+            @AuthenticationPrincipal Jwt jwt) {
+
+        UUID userId = UUID.fromString(jwt.getSubject());
+
+        return ResponseEntity.ok(forkLineageService.getAncestry(projectId, userId));
+    }
+
     @PutMapping("/{projectId}/files")
     public ResponseEntity<Project> updateProjectFiles(
             @PathVariable String projectId,
@@ -69,9 +266,50 @@ public class ProjectController {
                         projectId,
                         request.getFiles(),
                         request.getVersionMessage(),
+                        request.getExpectedRevision(),
                         requesterId
                 )
         );
     }
 
+    @PatchMapping("/{projectId}/files")
+    public ResponseEntity<Project> patchProjectFiles(
+            @PathVariable String projectId,
+            @Valid @RequestBody PatchProjectFilesRequest request,
+            @AuthenticationPrincipal Jwt jwt) {
+
+        UUID requesterId = UUID.fromString(jwt.getSubject());
+
+        return ResponseEntity.ok(
+                projectService.patchProjectFiles(projectId, request, requesterId)
+        );
+    }
+
+    @GetMapping("/{projectId}/versions")
+    public ResponseEntity<VersionPageResponse> listVersions(
+            @PathVariable String projectId,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @AuthenticationPrincipal Jwt jwt) {
+
+        UUID userId = UUID.fromString(jwt.getSubject());
+
+        return ResponseEntity.ok(
+                projectService.listVersions(projectId, userId, page, size)
+        );
+    }
+
+    @GetMapping("/{projectId}/versions/{versionNumber}")
+    public ResponseEntity<ProjectVersionResponse> getVersion(
+            @PathVariable String projectId,
+            @PathVariable int versionNumber,
+            @AuthenticationPrincipal Jwt jwt) {
+
+        UUID userId = UUID.fromString(jwt.getSubject());
+
+        return ResponseEntity.ok(
+                projectService.getVersion(projectId, versionNumber, userId)
+        );
+    }
+
 }
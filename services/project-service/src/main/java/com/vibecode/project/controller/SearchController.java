@@ -0,0 +1,36 @@
+package com.vibecode.project.controller;
+
+import java.util.UUID;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.vibecode.project.dto.CodeSearchResponse;
+import com.vibecode.project.service.CodeSearchService;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/projects")
+@RequiredArgsConstructor
+public class SearchController {
+
+    private final CodeSearchService codeSearchService;
+
+    // Searches the caller's own projects and public ones, or a single project
+    @GetMapping("/search")
+    public ResponseEntity<CodeSearchResponse> search(@RequestParam("q") String query,
+            @RequestParam(defaultValue = "false") boolean regex,
+            @RequestParam(defaultValue = "false") boolean caseSensitive,
+            @RequestParam(required = false) String projectId,
+            @RequestParam(defaultValue = "50") int limit,
+            @AuthenticationPrincipal Jwt jwt) {
+        UUID userId = UUID.fromString(jwt.getSubject());
+        return ResponseEntity.ok(codeSearchService.search(query, regex, caseSensitive, projectId, limit, userId));
+    }
+}
@@ -0,0 +1,99 @@
+package com.vibecode.project.controller;
+
+import java.io.InputStream;
+import java.util.UUID;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.vibecode.project.dto.CreateUploadRequest;
+import com.vibecode.project.dto.UploadPartResponse;
+import com.vibecode.project.dto.UploadSessionResponse;
+import com.vibecode.project.entity.Project;
+import com.vibecode.project.service.ChunkedUploadService;
+
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+
+// Resumable uploads of single large files; see ChunkedUploadService
+@RestController
+@RequestMapping("/projects/{projectId}/uploads")
+@RequiredArgsConstructor
+public class UploadController {
+
+    private final ChunkedUploadService chunkedUploadService;
+
+    @PostMapping
+    public ResponseEntity<UploadSessionResponse> startUpload(
+            @PathVariable String projectId,
+            @Valid @RequestBody CreateUploadRequest request,
+            @AuthenticationPrincipal Jwt jwt) {
+
+        UUID requesterId = UUID.fromString(jwt.getSubject());
+
+        return ResponseEntity.ok(chunkedUploadService.start(projectId, request, requesterId));
+    }
+
+    // Lists the parts received so far, so an interrupted client resends only the rest
+    @GetMapping("/{uploadId}")
+    public ResponseEntity<UploadSessionResponse> getUpload(
+            @PathVariable String projectId,
+            @PathVariable String uploadId,
+            @AuthenticationPrincipal Jwt jwt) {
+
+        UUID requesterId = UUID.fromString(jwt.getSubject());
+
+        return ResponseEntity.ok(chunkedUploadService.get(projectId, uploadId, requesterId));
+    }
+
+    // Sending the same part again replaces it
+    @PutMapping(value = "/{uploadId}/parts/{partNumber}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<UploadPartResponse> putPart(
+            @PathVariable String projectId,
+            @PathVariable String uploadId,
+            @PathVariable int partNumber,
+            @RequestHeader(value = "X-Content-SHA256", required = false) String sha256,
+            @AuthenticationPrincipal Jwt jwt,
+            InputStream body) {
+
+        UUID requesterId = UUID.fromString(jwt.getSubject());
+
+        return ResponseEntity.ok(
+                chunkedUploadService.putPart(projectId, uploadId, partNumber, body, sha256, requesterId)
+        );
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ResponseEntity<Project> completeUpload(
+            @PathVariable String projectId,
+            @PathVariable String uploadId,
+            @AuthenticationPrincipal Jwt jwt) {
+
+        UUID requesterId = UUID.fromString(jwt.getSubject());
+
+        return ResponseEntity.ok(chunkedUploadService.complete(projectId, uploadId, requesterId));
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Void> abortUpload(
+            @PathVariable String projectId,
+            @PathVariable String uploadId,
+            @AuthenticationPrincipal Jwt jwt) {
+
+        UUID requesterId = UUID.fromString(jwt.getSubject());
+
+        chunkedUploadService.abort(projectId, uploadId, requesterId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,184 @@
+package com.vibecode.project.diff;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Line-based diff using Myers' O(ND) algorithm in its linear-space form: the
+ * middle snake of the edit graph is found by searching forwards and backwards
+ * at the same time, and the two halves are diffed recursively. Memory stays
+ * O(N + M) regardless of how different the inputs are.
+ */
+public final class LineDiff {
+
+    private LineDiff() {
+    }
+
+    /**
+     * A changed region: lines [aStart, aEnd) of the old text are replaced by
+     * lines [bStart, bEnd) of the new text. Regions are ordered and disjoint.
+     */
+    public record Region(int aStart, int aEnd, int bStart, int bEnd) {
+    }
+
+    /** Splits text into lines that keep their terminators, so joining them restores the input. */
+    public static List<String> splitLines(String text) {
+        List<String> lines = new ArrayList<>();
+        int start = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) == '\n') {
+                lines.add(text.substring(start, i + 1));
+                start = i + 1;
+            }
+        }
+        if (start < text.length()) {
+            lines.add(text.substring(start));
+        }
+        return lines;
+    }
+
+    public static List<Region> diff(List<String> a, List<String> b) {
+        // compare interned ids instead of strings in the inner loops
+        Map<String, Integer> ids = new HashMap<>();
+        int[] x = intern(a, ids);
+        int[] y = intern(b, ids);
+
+        List<Region> regions = new ArrayList<>();
+        diff(x, 0, x.length, y, 0, y.length, regions);
+        return merge(regions);
+    }
+
+    private static int[] intern(List<String> lines, Map<String, Integer> ids) {
+        int[] result = new int[lines.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = ids.computeIfAbsent(lines.get(i), k -> ids.size());
+        }
+        return result;
+    }
+
+    private static void diff(int[] a, int aLo, int aHi, int[] b, int bLo, int bHi, List<Region> out) {
+        while (aLo < aHi && bLo < bHi && a[aLo] == b[bLo]) {
+            aLo++;
+            bLo++;
+        }
+        while (aLo < aHi && bLo < bHi && a[aHi - 1] == b[bHi - 1]) {
+            aHi--;
+            bHi--;
+        }
+        if (aLo == aHi || bLo == bHi) {
+            if (aLo < aHi || bLo < bHi) {
+                out.add(new Region(aLo, aHi, bLo, bHi));
+            }
+            return;
+        }
+
+        int[] split = middleSnake(a, aLo, aHi, b, bLo, bHi);
+        if (split == null) {
+            out.add(new Region(aLo, aHi, bLo, bHi));
+            return;
+        }
+        diff(a, aLo, split[0], b, bLo, split[1], out);
+        diff(a, split[0], aHi, b, split[1], bHi, out);
+    }
+
+    /**
+     * Returns a point {x, y} on an optimal edit path, or null when the ranges
+     * share no lines at all.
+     */
+    private static int[] middleSnake(int[] a, int aLo, int aHi, int[] b, int bLo, int bHi) {
+        int n = aHi - aLo;
+        int m = bHi - bLo;
+        int maxD = (n + m + 1) / 2;
+        int offset = maxD;
+        int length = 2 * maxD + 2;
+
+        int[] forward = new int[length];
+        int[] reverse = new int[length];
+        Arrays.fill(forward, -1);
+        Arrays.fill(reverse, -1);
+        forward[offset + 1] = 0;
+        reverse[offset + 1] = 0;
+
+        int delta = n - m;
+        boolean odd = (delta & 1) != 0;
+        int kForwardStart = 0;
+        int kForwardEnd = 0;
+        int kReverseStart = 0;
+        int kReverseEnd = 0;
+
+        for (int d = 0; d < maxD; d++) {
+            for (int k = -d + kForwardStart; k <= d - kForwardEnd; k += 2) {
+                int kOffset = offset + k;
+                int x = (k == -d || (k != d && forward[kOffset - 1] < forward[kOffset + 1]))
+                        ? forward[kOffset + 1]
+                        : forward[kOffset - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a[aLo + x] == b[bLo + y]) {
+                    x++;
+                    y++;
+                }
+                forward[kOffset] = x;
+
+                if (x > n) {
+                    kForwardEnd += 2;
+                } else if (y > m) {
+                    kForwardStart += 2;
+                } else if (odd) {
+                    int rOffset = offset + delta - k;
+                    if (rOffset >= 0 && rOffset < length && reverse[rOffset] != -1) {
+                        if (x >= n - reverse[rOffset]) {
+                            return new int[]{aLo + x, bLo + y};
+                        }
+                    }
+                }
+            }
+
+            for (int k = -d + kReverseStart; k <= d - kReverseEnd; k += 2) {
+                int kOffset = offset + k;
+                int x = (k == -d || (k != d && reverse[kOffset - 1] < reverse[kOffset + 1]))
+                        ? reverse[kOffset + 1]
+                        : reverse[kOffset - 1] + 1;
+                int y = x - k;
+                while (x < n && y < m && a[aHi - x - 1] == b[bHi - y - 1]) {
+                    x++;
+                    y++;
+                }
+                reverse[kOffset] = x;
+
+                if (x > n) {
+                    kReverseEnd += 2;
+                } else if (y > m) {
+                    kReverseStart += 2;
+                } else if (!odd) {
+                    int fOffset = offset + delta - k;
+                    if (fOffset >= 0 && fOffset < length && forward[fOffset] != -1) {
+                        int fx = forward[fOffset];
+                        int fy = offset + fx - fOffset;
+                        if (fx >= n - x) {
+                            return new int[]{aLo + fx, bLo + fy};
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private static List<Region> merge(List<Region> regions) {
+        List<Region> merged = new ArrayList<>(regions.size());
+        for (Region region : regions) {
+            if (!merged.isEmpty()) {
+                Region last = merged.get(merged.size() - 1);
+                if (last.aEnd() == region.aStart() && last.bEnd() == region.bStart()) {
+                    merged.set(merged.size() - 1, new Region(last.aStart(), region.aEnd(), last.bStart(), region.bEnd()));
+                    continue;
+                }
+            }
+            merged.add(region);
+        }
+        return merged;
+    }
+}
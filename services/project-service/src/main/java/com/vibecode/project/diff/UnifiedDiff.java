@@ -0,0 +1,73 @@
+package com.vibecode.project.diff;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.vibecode.project.diff.LineDiff.Region;
+
+/** Formats {@link LineDiff} regions as unified diff hunks, as produced by diff -u. */
+public final class UnifiedDiff {
+
+    private UnifiedDiff() {
+    }
+
+    /**
+     * Writes the hunks for lines a and b (split by {@link LineDiff#splitLines}),
+     * with the given number of context lines around each change. Regions
+     * whose context would touch or overlap are joined into one hunk.
+     */
+    public static void writeHunks(List<String> a, List<String> b, List<Region> regions, int context, Appendable out)
+            throws IOException {
+        int first = 0;
+        while (first < regions.size()) {
+            int last = first;
+            while (last + 1 < regions.size()
+                    && regions.get(last + 1).aStart() - regions.get(last).aEnd() <= 2 * context) {
+                last++;
+            }
+
+            Region head = regions.get(first);
+            Region tail = regions.get(last);
+            int aStart = Math.max(0, head.aStart() - context);
+            int aEnd = Math.min(a.size(), tail.aEnd() + context);
+            // lines outside the regions are equal, so both sides share the offsets
+            int bStart = head.bStart() - (head.aStart() - aStart);
+            int bEnd = tail.bEnd() + (aEnd - tail.aEnd());
+
+            out.append("@@ -").append(range(aStart, aEnd - aStart))
+                    .append(" +").append(range(bStart, bEnd - bStart))
+                    .append(" @@\n");
+
+            int cursor = aStart;
+            for (int i = first; i <= last; i++) {
+                Region region = regions.get(i);
+                writeLines(' ', a, cursor, region.aStart(), out);
+                writeLines('-', a, region.aStart(), region.aEnd(), out);
+                writeLines('+', b, region.bStart(), region.bEnd(), out);
+                cursor = region.aEnd();
+            }
+            writeLines(' ', a, cursor, aEnd, out);
+
+            first = last + 1;
+        }
+    }
+
+    // 1-based start line; an empty range names the line before it
+    private static String range(int start, int length) {
+        if (length == 0) {
+            return start + ",0";
+        }
+        return length == 1 ? String.valueOf(start + 1) : (start + 1) + "," + length;
+    }
+
+    private static void writeLines(char prefix, List<String> lines, int from, int to, Appendable out)
+            throws IOException {
+        for (int i = from; i < to; i++) {
+            String line = lines.get(i);
+            out.append(prefix).append(line);
+            if (!line.endsWith("\n")) {
+                out.append("\n\\ No newline at end of file\n");
+            }
+        }
+    }
+}
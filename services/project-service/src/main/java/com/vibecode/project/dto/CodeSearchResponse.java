@@ -0,0 +1,16 @@
+package com.vibecode.project.dto;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class CodeSearchResponse {
+
+    private String query;
+    private List<CodeSearchResult> results;
+    private boolean truncated; // limit or time budget reached before all candidates were checked
+    private long tookMs;
+}
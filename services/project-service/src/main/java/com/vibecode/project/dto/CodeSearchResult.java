@@ -0,0 +1,15 @@
+package com.vibecode.project.dto;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class CodeSearchResult {
+
+    private String projectId;
+    private String path;
+    private List<SearchMatch> matches;
+}
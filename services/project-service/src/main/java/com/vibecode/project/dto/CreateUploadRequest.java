@@ -0,0 +1,17 @@
+package com.vibecode.project.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class CreateUploadRequest {
+
+    @NotBlank
+    private String path;
+
+    private String language; // taken from the extension when absent
+    private Long size; // total bytes, checked on completion when given
+    private String versionMessage;
+}
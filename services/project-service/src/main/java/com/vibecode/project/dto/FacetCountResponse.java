@@ -0,0 +1,12 @@
+package com.vibecode.project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class FacetCountResponse {
+
+    private String value;
+    private long count;
+}
@@ -0,0 +1,18 @@
+package com.vibecode.project.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class FileMetadataResponse {
+
+    private String path;
+    private String filename;
+    private String language;
+    private String contentHash; // also the ETag of the content endpoint
+    private Long size;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,26 @@
+package com.vibecode.project.dto;
+
+import java.util.List;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class FileOperation {
+
+    @NotNull
+    private FileOperationType op;
+
+    @NotBlank
+    private String path;
+
+    private String newPath; // RENAME, MOVE_DIRECTORY
+
+    private String content; // ADD
+    private String language; // ADD
+
+    private List<TextEdit> edits; // EDIT, non-overlapping, against the content before this operation
+}
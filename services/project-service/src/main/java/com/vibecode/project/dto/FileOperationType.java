@@ -0,0 +1,10 @@
+package com.vibecode.project.dto;
+
+public enum FileOperationType {
+    ADD,
+    DELETE,
+    RENAME,
+    EDIT,
+    MOVE_DIRECTORY, // path and newPath are directories; everything beneath moves
+    DELETE_DIRECTORY
+}
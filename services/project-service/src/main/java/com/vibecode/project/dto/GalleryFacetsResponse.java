@@ -0,0 +1,15 @@
+package com.vibecode.project.dto;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class GalleryFacetsResponse {
+
+    private List<FacetCountResponse> tags;
+    private List<FacetCountResponse> techStack;
+    private List<FacetCountResponse> languages;
+}
@@ -0,0 +1,24 @@
+package com.vibecode.project.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class PatchProjectFilesRequest {
+
+    // applied in order, all or nothing
+    @NotEmpty
+    @Valid
+    private List<FileOperation> operations;
+
+    // used if this patch completes a version
+    private String versionMessage;
+
+    // optional; when set the patch fails with 409 if the project has changed since
+    private Long expectedRevision;
+}
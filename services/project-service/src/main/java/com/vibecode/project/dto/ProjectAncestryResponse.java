@@ -0,0 +1,18 @@
+package com.vibecode.project.dto;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class ProjectAncestryResponse {
+
+    private String projectId;
+    private String rootProjectId;
+    private int depth; // 0 for a project that is not a fork
+    private Integer forkCount;
+    private Integer descendantCount;
+    private List<ProjectSummaryResponse> ancestors; // root first; projects the caller cannot read only carry their id
+}
@@ -0,0 +1,15 @@
+package com.vibecode.project.dto;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class ProjectFileListResponse {
+
+    private String projectId;
+    private Long revision;
+    private List<FileMetadataResponse> files;
+}
@@ -12,5 +12,6 @@ import lombok.Getter;
 public class ProjectFilesResponse {
 
     private String projectId;
+    private Long revision;
     private List<ProjectFile> files;
 }
@@ -0,0 +1,16 @@
+package com.vibecode.project.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class ProjectImportResponse {
+
+    private String projectId;
+    private Integer versionNumber;
+    private Long revision;
+    private int importedFiles;
+    private int ignoredFiles; // matched an ignore rule, e.g. node_modules
+    private int skippedFiles; // binary or larger than the per-file limit
+}
@@ -0,0 +1,14 @@
+package com.vibecode.project.dto;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class ProjectPageResponse {
+
+    private List<ProjectSummaryResponse> projects;
+    private String nextCursor; // null on the last page
+}
@@ -0,0 +1,28 @@
+package com.vibecode.project.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.vibecode.project.entity.ProjectStats;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class ProjectSummaryResponse {
+
+    private String id;
+    private String name;
+    private String description;
+    private List<String> techStack;
+    private List<String> tags;
+    private List<String> languages;
+    private String visibility;
+    private Integer currentVersion;
+    private String parentProjectId;
+    private Integer forkCount;
+    private Integer descendantCount;
+    private ProjectStats stats;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,18 @@
+package com.vibecode.project.dto;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class ProjectTreeResponse {
+
+    private String projectId;
+    private Long revision;
+    private String path; // empty for the root
+    private int fileCount; // beneath path, at any depth
+    private long size;
+    private List<TreeEntryResponse> entries;
+}
@@ -0,0 +1,20 @@
+package com.vibecode.project.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.vibecode.project.entity.ProjectFile;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class ProjectVersionResponse {
+
+    private String projectId;
+    private Integer versionNumber;
+    private String message;
+    private LocalDateTime createdAt;
+    private List<ProjectFile> files;
+}
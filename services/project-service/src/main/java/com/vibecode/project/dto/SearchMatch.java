@@ -0,0 +1,12 @@
+package com.vibecode.project.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class SearchMatch {
+
+    private int line; // 1-based
+    private String text;
+}
@@ -0,0 +1,18 @@
+package com.vibecode.project.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Replaces the characters in [start, end) with text. Offsets are UTF-16 code
+ * unit indexes into the current content, as used by JavaScript strings and
+ * most editors.
+ */
+@Getter
+@Setter
+public class TextEdit {
+
+    private int start;
+    private int end;
+    private String text;
+}
@@ -0,0 +1,27 @@
+package com.vibecode.project.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class TreeEntryResponse {
+
+    public static final String DIRECTORY = "directory";
+    public static final String FILE = "file";
+
+    private String name;
+    private String path;
+    private String type; // "directory" or "file"
+
+    private Integer fileCount; // directories: files beneath, at any depth
+    private Long size; // bytes; for directories the total beneath
+    private List<TreeEntryResponse> entries; // directories expanded within the requested depth
+
+    private String language; // files only
+    private String contentHash;
+    private LocalDateTime updatedAt;
+}
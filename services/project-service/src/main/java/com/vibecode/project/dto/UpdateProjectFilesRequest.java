@@ -15,4 +15,7 @@ public class UpdateProjectFilesRequest {
     @NotEmpty
     private List<ProjectFile> files;
     private String versionMessage = "Updated project files";
+
+    // optional; when set the update fails with 409 if the project has changed since
+    private Long expectedRevision;
 }
@@ -0,0 +1,13 @@
+package com.vibecode.project.dto;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class UploadPartResponse {
+
+    private int partNumber;
+    private long size;
+    private String sha256;
+}
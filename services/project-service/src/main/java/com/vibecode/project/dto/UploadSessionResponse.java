@@ -0,0 +1,22 @@
+package com.vibecode.project.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class UploadSessionResponse {
+
+    private String uploadId;
+    private String projectId;
+    private String path;
+    private long partSize; // largest part accepted
+    private long maxSize;
+    private Long size;
+    private long receivedBytes;
+    private List<UploadPartResponse> parts; // ordered by part number; resend only what is missing
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,18 @@
+package com.vibecode.project.dto;
+
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class VersionPageResponse {
+
+    private String projectId;
+    private List<VersionSummaryResponse> versions;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+}
@@ -0,0 +1,16 @@
+package com.vibecode.project.dto;
+
+import java.time.LocalDateTime;
+
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+public class VersionSummaryResponse {
+
+    private Integer versionNumber;
+    private String message;
+    private Integer squashedCount; // earlier versions folded into this one by retention
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,7 @@
+package com.vibecode.project.entity;
+
+public enum ChangeType {
+    ADDED,
+    MODIFIED,
+    DELETED
+}
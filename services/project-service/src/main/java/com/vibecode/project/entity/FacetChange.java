@@ -0,0 +1,29 @@
+package com.vibecode.project.entity;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A change of a project's facet keys that gallery_facets may not reflect
+ * yet. It is stored with the new keys in one write and removed once every
+ * count has been adjusted, so an interrupted update can be completed later.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FacetChange {
+
+    // ObjectId hex, so the string order is the order of creation; marks the
+    // counts already adjusted by this change
+    private String ref;
+
+    private List<String> added;
+    private List<String> removed;
+}
@@ -0,0 +1,42 @@
+package com.vibecode.project.entity;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * File content stored once, keyed by its SHA-256. Project files and version
+ * snapshots refer to it through {@link ProjectFile#getContentHash()}.
+ */
+@Document(collection = "file_blobs")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FileBlob {
+
+    @Id
+    private String hash; // hex SHA-256 of the UTF-8 content
+
+    // exactly one of these holds the stored bytes
+    private String content; // uncompressed, small contents
+    private byte[] data; // compressed
+    private String gridFsId; // large contents, compressed or not
+
+    private String codec; // null when stored uncompressed
+    private Long dictionaryId; // zstd dictionary used, if any
+
+    private Long size; // logical UTF-8 bytes
+    private Long storedSize; // bytes after compression
+
+    private LocalDateTime createdAt;
+    private LocalDateTime lastUsedAt; // refreshed when new files reuse the blob, so a sweep in progress keeps it
+}
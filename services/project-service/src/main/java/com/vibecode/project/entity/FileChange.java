@@ -0,0 +1,21 @@
+package com.vibecode.project.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class FileChange {
+
+    private String path;
+    private ChangeType type;
+
+    // new file reference, absent for DELETED
+    private ProjectFile file;
+}
@@ -0,0 +1,37 @@
+package com.vibecode.project.entity;
+
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Number of public projects with one tag, tech stack entry or language.
+ * Counts are adjusted as projects change instead of aggregated per request.
+ */
+@Document(collection = "gallery_facets")
+@CompoundIndex(name = "facet_count_idx", def = "{'field': 1, 'count': -1}")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class GalleryFacet {
+
+    @Id
+    private String id; // "<field>:<value>"
+
+    private String field; // tag, techStack or language
+    private String value;
+    private long count;
+
+    // refs of the FacetChanges counted here whose projects still list them
+    private List<String> applied;
+}
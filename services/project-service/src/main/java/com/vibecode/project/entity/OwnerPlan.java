@@ -0,0 +1,33 @@
+package com.vibecode.project.entity;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * An owner's plan as last reported by user-service. Owners without one are
+ * treated as being on the default plan.
+ */
+@Document(collection = "owner_plans")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OwnerPlan {
+
+    @Id
+    private UUID ownerId;
+
+    private String plan; // FREE, PRO or ENTERPRISE
+
+    private LocalDateTime updatedAt;
+}
@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.UUID;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import jakarta.validation.constraints.NotNull;
@@ -15,6 +16,18 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Document(collection = "projects")
+@CompoundIndex(name = "pending_changes_idx", def = "{'pendingChanges': 1, 'lastVersionAt': 1}")
+@CompoundIndex(name = "owner_updated_idx", def = "{'ownerId': 1, 'updatedAt': -1, '_id': -1}")
+@CompoundIndex(name = "gallery_recent_idx", def = "{'visibility': 1, 'updatedAt': -1, '_id': -1}")
+@CompoundIndex(name = "gallery_forks_idx", def = "{'visibility': 1, 'forkCount': -1, '_id': -1}")
+@CompoundIndex(name = "gallery_tags_idx", def = "{'visibility': 1, 'tags': 1, 'updatedAt': -1, '_id': -1}")
+@CompoundIndex(name = "gallery_tech_idx", def = "{'visibility': 1, 'techStack': 1, 'updatedAt': -1, '_id': -1}")
+@CompoundIndex(name = "forks_idx", def = "{'parentProjectId': 1, '_id': -1}")
+@CompoundIndex(name = "descendants_idx", def = "{'ancestors': 1, '_id': -1}")
+@CompoundIndex(name = "fork_base_idx", def = "{'baseProjectId': 1, 'baseVersion': 1}", sparse = true)
+@CompoundIndex(name = "retention_idx", def = "{'compactedAt': 1}")
+@CompoundIndex(name = "gallery_languages_idx", def = "{'visibility': 1, 'languages': 1, 'updatedAt': -1, '_id': -1}")
+@CompoundIndex(name = "facet_changes_idx", def = "{'facetChanges.ref': 1}", sparse = true)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -26,6 +39,12 @@ public class Project {
     @Id
     private String id;
 
+    // Bumped only by writes that change the files, for compare-and-set
+    // updates. Deliberately not a @Version: that would bump it on every
+    // metadata update too (facets, fork counters, retention claims) and fail
+    // the owner's next expectedRevision for nothing.
+    private Long revision;
+
     private UUID ownerId;
     private String name;
     private String description;
@@ -33,14 +52,40 @@ public class Project {
     private List<String> tags;
 
     private List<ProjectFile> files;
-    private List<ProjectVersion> versions;
     private List<PromptRecord> prompts;
 
+    private Integer currentVersion; // history lives in the project_versions collection
+
+    // PATCH edits not yet captured in a version; they are versioned in batches
+    private Integer pendingChanges;
+    private LocalDateTime lastVersionAt;
+
     @NotNull
     private String visibility = "private"; // default to private
     private String parentProjectId;
     private UUID forkedFromUserId;
 
+    // Forks share the parent's history up to baseVersion and have no files of
+    // their own until the first write
+    private String baseProjectId;
+    private Integer baseVersion;
+
+    // Fork ancestry, root first, copied from the parent on fork so forks and
+    // descendants are found with one index lookup instead of a recursive walk
+    private List<String> ancestors;
+    private Integer forkCount; // direct forks
+    private Integer descendantCount; // forks at any depth
+
+    // Gallery filters: languages of the current files, and the facet keys
+    // this project is currently counted under in gallery_facets
+    private List<String> languages;
+    private List<String> facets;
+    private List<FacetChange> facetChanges; // not yet applied to gallery_facets
+
+    private ProjectStats stats; // maintained on every write, see ProjectStatsService
+
+    private LocalDateTime compactedAt; // last time version retention was applied
+
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 }
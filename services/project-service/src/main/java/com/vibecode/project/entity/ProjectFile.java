@@ -18,7 +18,8 @@ public class ProjectFile {
     private String path;
     private String filename;
     private String language;
-    private String content;
+    private String content; // only set in API payloads; stored files reference a FileBlob
+    private String contentHash;
 
     private Long size;
 
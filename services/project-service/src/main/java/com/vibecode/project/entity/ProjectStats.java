@@ -0,0 +1,46 @@
+package com.vibecode.project.entity;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Totals over a project's current files and its stored versions. Every write
+ * updates them along with the files, so reading them never touches files.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ProjectStats {
+
+    private Integer fileCount;
+    private Long totalBytes; // UTF-8 bytes of the current contents
+
+    // by lower-case language, "other" for files without one
+    private Map<String, Long> languageBytes;
+
+    // versions stored for this project; a fork's shared history is counted on its parent
+    private Integer versionCount;
+
+    // when the totals started being maintained; writes before that are not in them
+    private LocalDateTime since;
+
+    // Incremental updates leave a language at zero once its last file is
+    // gone; those entries are stored but not reported
+    public Map<String, Long> getLanguageBytes() {
+        if (languageBytes == null) {
+            return null;
+        }
+        return languageBytes.entrySet().stream()
+                .filter(entry -> entry.getValue() != null && entry.getValue() != 0)
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+}
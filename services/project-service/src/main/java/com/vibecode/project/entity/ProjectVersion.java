@@ -3,12 +3,18 @@ package com.vibecode.project.entity;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+@Document(collection = "project_versions")
+@CompoundIndex(name = "project_version_idx", def = "{'projectId': 1, 'versionNumber': -1}", unique = true)
 @Getter
 @Setter
 @NoArgsConstructor
@@ -16,8 +22,25 @@ import lombok.Setter;
 @Builder
 public class ProjectVersion {
 
+    @Id
+    private String id;
+
+    private String projectId;
     private Integer versionNumber;
     private String message;
+
+    // keyframes hold the full file list; other versions only hold the
+    // changes made since baseVersionNumber
     private List<ProjectFile> filesSnapshot;
+    private Integer baseVersionNumber;
+    private List<FileChange> changes;
+
+    // earlier versions folded into this one by retention, null if none
+    private Integer squashedCount;
+
     private LocalDateTime createdAt;
+
+    public boolean isKeyframe() {
+        return filesSnapshot != null;
+    }
 }
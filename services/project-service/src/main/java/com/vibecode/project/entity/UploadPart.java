@@ -0,0 +1,19 @@
+package com.vibecode.project.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadPart {
+
+    private String gridFsId;
+    private Long size;
+    private String sha256; // hex, lets clients skip parts already received
+}
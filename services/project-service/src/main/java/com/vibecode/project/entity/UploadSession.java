@@ -0,0 +1,52 @@
+package com.vibecode.project.entity;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A resumable upload of one large file. Parts are kept in GridFS until the
+ * upload completes and becomes a single blob, or expires.
+ */
+@Document(collection = "upload_sessions")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UploadSession {
+
+    public enum Status {
+        OPEN,
+        COMPLETING
+    }
+
+    @Id
+    private String id;
+
+    private String projectId;
+    private UUID ownerId;
+
+    private String path;
+    private String language;
+    private Long size; // declared by the client, checked on completion when set
+    private String versionMessage;
+
+    private Status status;
+    private Map<String, UploadPart> parts; // keyed by part number
+
+    private LocalDateTime createdAt;
+
+    @Indexed
+    private LocalDateTime expiresAt; // pushed back by every part received
+}
@@ -0,0 +1,155 @@
+package com.vibecode.project.exception;
+
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import com.mongodb.MongoException;
+import com.mongodb.MongoSocketException;
+import com.mongodb.MongoTimeoutException;
+import com.vibecode.project.dto.ErrorResponse;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@RestControllerAdvice
+public class GlobalExceptionHandler {
+
+    @ExceptionHandler(ProjectConflictException.class)
+    public ResponseEntity<ErrorResponse> handleConflict(
+            ProjectConflictException ex,
+            HttpServletRequest request) {
+        return buildResponse(
+                HttpStatus.CONFLICT,
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+    }
+
+    @ExceptionHandler(InvalidRequestException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidRequest(
+            InvalidRequestException ex,
+            HttpServletRequest request) {
+        return buildResponse(
+                HttpStatus.BAD_REQUEST,
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+    }
+
+    @ExceptionHandler(ProjectNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleNotFound(
+            ProjectNotFoundException ex,
+            HttpServletRequest request) {
+        return buildResponse(
+                HttpStatus.NOT_FOUND,
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+    }
+
+    @ExceptionHandler(ProjectAccessDeniedException.class)
+    public ResponseEntity<ErrorResponse> handleAccessDenied(
+            ProjectAccessDeniedException ex,
+            HttpServletRequest request) {
+        return buildResponse(
+                HttpStatus.FORBIDDEN,
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+    }
+
+    // Callers such as the generation outbox retry on 5xx but treat 4xx as
+    // permanent, so storage failures must never fall through to 400 below.
+    // Outages surface as resource failures, which are not "transient".
+    @ExceptionHandler({
+            TransientDataAccessException.class,
+            DataAccessResourceFailureException.class,
+            MongoSocketException.class,
+            MongoTimeoutException.class
+    })
+    public ResponseEntity<ErrorResponse> handleStorageUnavailable(
+            RuntimeException ex,
+            HttpServletRequest request) {
+        return buildResponse(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                "Storage temporarily unavailable",
+                request.getRequestURI()
+        );
+    }
+
+    // Any other storage error, including driver errors from direct GridFS use
+    @ExceptionHandler({DataAccessException.class, MongoException.class})
+    public ResponseEntity<ErrorResponse> handleStorageError(
+            RuntimeException ex,
+            HttpServletRequest request) {
+        return buildResponse(
+                HttpStatus.INTERNAL_SERVER_ERROR,
+                "Storage error",
+                request.getRequestURI()
+        );
+    }
+
+    @ExceptionHandler(TypeMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleTypeMismatch(
+            TypeMismatchException ex,
+            HttpServletRequest request) {
+        return buildResponse(
+                HttpStatus.BAD_REQUEST,
+                "Invalid value for " + ex.getPropertyName(),
+                request.getRequestURI()
+        );
+    }
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResponse> handleUnreadableBody(
+            HttpMessageNotReadableException ex,
+            HttpServletRequest request) {
+        return buildResponse(
+                HttpStatus.BAD_REQUEST,
+                "Malformed request body",
+                request.getRequestURI()
+        );
+    }
+
+    // Anything else is a fault on this side. Its message may describe
+    // internals and it may well succeed when retried, so it is never a 4xx.
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorResponse> handleGeneric(
+            Exception ex,
+            HttpServletRequest request) {
+        // Spring's own request errors (missing parameters, invalid bodies,
+        // ResponseStatusException) carry their status and a safe message
+        if (ex instanceof org.springframework.web.ErrorResponse error) {
+            HttpStatus status = HttpStatus.resolve(error.getStatusCode().value());
+            if (status != null) {
+                return buildResponse(status, error.getBody().getDetail(), request.getRequestURI());
+            }
+        }
+        log.error("Request {} failed", request.getRequestURI(), ex);
+        return buildResponse(
+                HttpStatus.INTERNAL_SERVER_ERROR,
+                "An unexpected error occurred",
+                request.getRequestURI()
+        );
+    }
+
+    private ResponseEntity<ErrorResponse> buildResponse(HttpStatus status, String message, String path) {
+        ErrorResponse errorResponse = ErrorResponse.builder()
+                .timestamp(java.time.LocalDateTime.now())
+                .status(status.value())
+                .error(status.getReasonPhrase())
+                .message(message)
+                .path(path)
+                .build();
+        return new ResponseEntity<>(errorResponse, status);
+
+    }
+}
@@ -0,0 +1,9 @@
+package com.vibecode.project.exception;
+
+/** The request itself is invalid; retrying it unchanged cannot succeed. */
+public class InvalidRequestException extends RuntimeException {
+
+    public InvalidRequestException(String message) {
+        super(message);
+    }
+}
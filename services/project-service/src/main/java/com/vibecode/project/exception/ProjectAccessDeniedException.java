@@ -0,0 +1,9 @@
+package com.vibecode.project.exception;
+
+/** The requester may not read or write the project. */
+public class ProjectAccessDeniedException extends RuntimeException {
+
+    public ProjectAccessDeniedException(String message) {
+        super(message);
+    }
+}
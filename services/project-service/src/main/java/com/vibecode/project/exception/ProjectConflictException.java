@@ -0,0 +1,9 @@
+package com.vibecode.project.exception;
+
+/** The project changed since the revision the client based its update on. */
+public class ProjectConflictException extends RuntimeException {
+
+    public ProjectConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.vibecode.project.exception;
+
+/** A project, or a version, file or upload within one, does not exist. */
+public class ProjectNotFoundException extends RuntimeException {
+
+    public ProjectNotFoundException(String message) {
+        super(message);
+    }
+}
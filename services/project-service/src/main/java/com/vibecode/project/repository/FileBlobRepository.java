@@ -0,0 +1,20 @@
+package com.vibecode.project.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import com.vibecode.project.entity.FileBlob;
+
+public interface FileBlobRepository extends MongoRepository<FileBlob, String> {
+
+    // only the ids, so checking for existing blobs never transfers content
+    @Query(value = "{ '_id': { '$in': ?0 } }", fields = "{ '_id': 1 }")
+    List<FileBlob> findIdsByHashIn(Collection<String> hashes);
+
+    @Query(value = "{ '_id': { '$in': ?0 } }", fields = "{ '_id': 1, 'size': 1 }")
+    List<FileBlob> findSizesByHashIn(Collection<String> hashes);
+
+}
@@ -0,0 +1,13 @@
+package com.vibecode.project.repository;
+
+import java.util.UUID;
+
+/** The fields needed for an access check; nothing else is read from Mongo. */
+public interface ProjectAccessView {
+
+    String getId();
+
+    UUID getOwnerId();
+
+    String getVisibility();
+}
@@ -0,0 +1,19 @@
+package com.vibecode.project.repository;
+
+import java.util.List;
+
+import com.vibecode.project.entity.ProjectFile;
+import com.vibecode.project.entity.ProjectStats;
+
+/** Access fields plus the current file references, without prompts or metadata. */
+public interface ProjectFilesView extends ProjectAccessView {
+
+    // null for a fork that has not written its own files yet
+    List<ProjectFile> getFiles();
+
+    Integer getCurrentVersion();
+
+    Long getRevision();
+
+    ProjectStats getStats();
+}
@@ -0,0 +1,11 @@
+package com.vibecode.project.repository;
+
+/** Where a fork's history up to its fork point is stored. */
+public interface ProjectLineageView {
+
+    String getId();
+
+    String getBaseProjectId();
+
+    Integer getBaseVersion();
+}
@@ -0,0 +1,41 @@
+package com.vibecode.project.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import com.vibecode.project.entity.ProjectStats;
+
+/** Everything except files and prompts. */
+public interface ProjectMetadataView extends ProjectAccessView {
+
+    String getName();
+
+    String getDescription();
+
+    List<String> getTechStack();
+
+    List<String> getTags();
+
+    String getParentProjectId();
+
+    List<String> getAncestors();
+
+    UUID getForkedFromUserId();
+
+    String getBaseProjectId();
+
+    Integer getBaseVersion();
+
+    Integer getCurrentVersion();
+
+    Long getRevision();
+
+    Integer getPendingChanges();
+
+    ProjectStats getStats();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
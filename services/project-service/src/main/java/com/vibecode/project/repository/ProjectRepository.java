@@ -1,15 +1,15 @@
 package com.vibecode.project.repository;
 
-import java.util.List;
-import java.util.UUID;
+import java.util.Optional;
 
 import org.springframework.data.mongodb.repository.MongoRepository;
 
 import com.vibecode.project.entity.Project;
 
 
-public interface ProjectRepository extends MongoRepository<Project, String> {
+public interface ProjectRepository extends MongoRepository<Project, String>, ProjectRepositoryCustom {
 
-    List<Project> findByOwnerId(UUID ownerId);
+    // Reads only the fields of the given projection interface
+    <T> Optional<T> findProjectedById(String id, Class<T> type);
 
 }
@@ -0,0 +1,104 @@
+package com.vibecode.project.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import com.vibecode.project.entity.FacetChange;
+import com.vibecode.project.entity.Project;
+import com.vibecode.project.entity.ProjectFile;
+import com.vibecode.project.entity.ProjectStats;
+
+public interface ProjectRepositoryCustom {
+
+    /**
+     * Replaces the current files and their totals, and increments the version
+     * counter and revision in one atomic update. When expectedRevision is
+     * given the update only applies if the project is still at that revision.
+     * Returns the updated project without its prompt history, or null if
+     * nothing matched.
+     */
+    Project updateFiles(String projectId, List<ProjectFile> files, ProjectStats stats, Long expectedRevision,
+            LocalDateTime updatedAt);
+
+    /**
+     * Replaces the current files if the project is still at expectedRevision,
+     * adding statsDelta to the file totals and counting the write as a
+     * pending change instead of creating a version. Returns null if the
+     * revision no longer matches.
+     */
+    Project applyFiles(String projectId, List<ProjectFile> files, ProjectStats statsDelta, long expectedRevision,
+            LocalDateTime updatedAt);
+
+    /**
+     * Takes the next version number for the project's pending changes and
+     * resets the count. Returns the project as of the claim, without prompts,
+     * or null if nothing was pending.
+     */
+    Project claimPendingVersion(String projectId, LocalDateTime now);
+
+    List<String> findIdsWithPendingChanges(LocalDateTime lastVersionBefore, int limit);
+
+    /**
+     * Access fields plus the single current file at path, or null when the
+     * project has no stored file there (including forks without own files).
+     */
+    Project findWithFile(String projectId, String path);
+
+    /**
+     * Summary fields of an owner's projects, most recently updated first,
+     * starting after the given (updatedAt, id) position. Served from the
+     * owner/updatedAt index, so the cost does not grow with the page number.
+     */
+    List<Project> findOwnerPage(UUID ownerId, LocalDateTime updatedBefore, String idBefore, int limit);
+
+    /**
+     * Public projects matching all given tags, tech stack entries and
+     * languages (null or empty lists do not filter), newest first or by fork
+     * count. after/afterId continue from the last project of the previous page.
+     */
+    List<Project> findGalleryPage(List<String> tags, List<String> techStack, List<String> languages,
+            boolean byForkCount, Object after, String afterId, int limit);
+
+    /**
+     * Stores the languages and counted facet keys of a project if it is still
+     * at revision and its facets are still currentFacets (null when never
+     * counted), and records change (if any) as pending on the project.
+     * Returns false if either changed in the meantime.
+     */
+    boolean updateFacets(String projectId, Long revision, List<String> currentFacets,
+            List<String> languages, List<String> facets, FacetChange change);
+
+    /** Drops a facet change once gallery_facets reflects it. */
+    void removeFacetChange(String projectId, String ref);
+
+    /** Counts a new fork on its parent and, as a descendant, on all of its ancestors. */
+    void recordFork(String parentProjectId, List<String> ancestors);
+
+    /**
+     * Forks of a project, newest first, that the user may see: public ones
+     * and the user's own. Direct forks only, or all descendants.
+     */
+    List<Project> findForkPage(String projectId, boolean descendants, UUID userId, String afterId, int limit);
+
+    /**
+     * Claims the project retention was applied to longest ago, provided that
+     * was before dueBefore, by stamping it with now. Returns the fields
+     * retention needs, or null when no project is due.
+     */
+    Project claimForRetention(LocalDateTime dueBefore, LocalDateTime now);
+
+    long countDueForRetention(LocalDateTime dueBefore);
+
+    /** Versions of a project that forks were made from; their history depends on them. */
+    List<Integer> findForkPoints(String projectId);
+
+    void incrementVersionCount(String projectId, int delta);
+
+    /**
+     * Stores statistics computed for a project that has none yet, with its
+     * files when given, if it is still at revision. Returns false otherwise.
+     */
+    boolean fillStats(String projectId, Long revision, List<ProjectFile> files, ProjectStats stats);
+
+}
@@ -0,0 +1,305 @@
+package com.vibecode.project.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.vibecode.project.entity.FacetChange;
+import com.vibecode.project.entity.Project;
+import com.vibecode.project.entity.ProjectFile;
+import com.vibecode.project.entity.ProjectStats;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class ProjectRepositoryImpl implements ProjectRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Project updateFiles(String projectId, List<ProjectFile> files, ProjectStats stats, Long expectedRevision,
+            LocalDateTime updatedAt) {
+        Query query = new Query(revisionCriteria(projectId, expectedRevision));
+        query.fields().exclude("prompts");
+
+        Update update = new Update()
+                .set("files", files)
+                .set("stats.fileCount", stats.getFileCount())
+                .set("stats.totalBytes", stats.getTotalBytes())
+                .set("stats.languageBytes", stats.getLanguageBytes())
+                .set("updatedAt", updatedAt)
+                .set("pendingChanges", 0)
+                .set("lastVersionAt", updatedAt)
+                .inc("stats.versionCount", 1)
+                .inc("currentVersion", 1)
+                .inc("revision", 1);
+
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Project.class);
+    }
+
+    @Override
+    public Project applyFiles(String projectId, List<ProjectFile> files, ProjectStats statsDelta, long expectedRevision,
+            LocalDateTime updatedAt) {
+        Query query = new Query(revisionCriteria(projectId, expectedRevision));
+        query.fields().exclude("prompts");
+
+        Update update = new Update()
+                .set("files", files)
+                .set("updatedAt", updatedAt)
+                .inc("stats.fileCount", statsDelta.getFileCount())
+                .inc("stats.totalBytes", statsDelta.getTotalBytes())
+                .inc("pendingChanges", 1)
+                .inc("revision", 1);
+        // only the languages of changed files are touched
+        statsDelta.getLanguageBytes().forEach((language, bytes) -> update.inc("stats.languageBytes." + language, bytes));
+
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Project.class);
+    }
+
+    @Override
+    public Project claimPendingVersion(String projectId, LocalDateTime now) {
+        // files are not touched, so the returned document is exactly the state being versioned
+        Query query = new Query(Criteria.where("_id").is(projectId).and("pendingChanges").gt(0));
+        query.fields().exclude("prompts");
+
+        Update update = new Update()
+                .set("pendingChanges", 0)
+                .set("lastVersionAt", now)
+                .inc("stats.versionCount", 1)
+                .inc("currentVersion", 1);
+
+        return mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Project.class);
+    }
+
+    @Override
+    public List<String> findIdsWithPendingChanges(LocalDateTime lastVersionBefore, int limit) {
+        Query query = new Query(new Criteria().andOperator(
+                Criteria.where("pendingChanges").gt(0),
+                new Criteria().orOperator(
+                        Criteria.where("lastVersionAt").lt(lastVersionBefore),
+                        Criteria.where("lastVersionAt").exists(false))))
+                .limit(limit);
+        query.fields().include("_id");
+
+        return mongoTemplate.find(query, Document.class, "projects").stream()
+                .map(document -> document.getObjectId("_id").toHexString())
+                .toList();
+    }
+
+    @Override
+    public Project findWithFile(String projectId, String path) {
+        Query query = new Query(Criteria.where("_id").is(projectId).and("files.path").is(path));
+        query.fields()
+                .include("ownerId")
+                .include("visibility")
+                .elemMatch("files", Criteria.where("path").is(path));
+
+        return mongoTemplate.findOne(query, Project.class);
+    }
+
+    @Override
+    public List<Project> findOwnerPage(UUID ownerId, LocalDateTime updatedBefore, String idBefore, int limit) {
+        Criteria criteria = Criteria.where("ownerId").is(ownerId);
+        if (updatedBefore != null) {
+            criteria.orOperator(
+                    Criteria.where("updatedAt").lt(updatedBefore),
+                    Criteria.where("updatedAt").is(updatedBefore).and("_id").lt(new ObjectId(idBefore)));
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "updatedAt", "_id"))
+                .limit(limit);
+        query.fields()
+                .include("name")
+                .include("description")
+                .include("techStack")
+                .include("tags")
+                .include("languages")
+                .include("visibility")
+                .include("currentVersion")
+                .include("parentProjectId")
+                .include("forkCount")
+                .include("stats")
+                .include("updatedAt");
+
+        return mongoTemplate.find(query, Project.class);
+    }
+
+    @Override
+    public List<Project> findGalleryPage(List<String> tags, List<String> techStack, List<String> languages,
+            boolean byForkCount, Object after, String afterId, int limit) {
+        Criteria criteria = Criteria.where("visibility").is("public");
+        if (tags != null && !tags.isEmpty()) {
+            criteria.and("tags").all(tags);
+        }
+        if (techStack != null && !techStack.isEmpty()) {
+            criteria.and("techStack").all(techStack);
+        }
+        if (languages != null && !languages.isEmpty()) {
+            criteria.and("languages").all(languages);
+        }
+
+        String sortField = byForkCount ? "forkCount" : "updatedAt";
+        if (after != null) {
+            criteria.orOperator(
+                    Criteria.where(sortField).lt(after),
+                    Criteria.where(sortField).is(after).and("_id").lt(new ObjectId(afterId)));
+        }
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, sortField, "_id"))
+                .limit(limit);
+        query.fields()
+                .include("name")
+                .include("description")
+                .include("techStack")
+                .include("tags")
+                .include("languages")
+                .include("visibility")
+                .include("currentVersion")
+                .include("parentProjectId")
+                .include("forkCount")
+                .include("stats")
+                .include("updatedAt");
+
+        return mongoTemplate.find(query, Project.class);
+    }
+
+    @Override
+    public boolean updateFacets(String projectId, Long revision, List<String> currentFacets,
+            List<String> languages, List<String> facets, FacetChange change) {
+        Criteria criteria = revisionCriteria(projectId, revision != null ? revision : 0L);
+        Query query = new Query(currentFacets == null
+                ? new Criteria().andOperator(criteria, Criteria.where("facets").exists(false))
+                : new Criteria().andOperator(criteria, Criteria.where("facets").is(currentFacets)));
+
+        Update update = new Update()
+                .set("languages", languages)
+                .set("facets", facets);
+        if (change != null) {
+            update.push("facetChanges", change);
+        }
+
+        return mongoTemplate.updateFirst(query, update, Project.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public void removeFacetChange(String projectId, String ref) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(projectId)),
+                new Update().pull("facetChanges", new Document("ref", ref)),
+                Project.class);
+    }
+
+    @Override
+    public void recordFork(String parentProjectId, List<String> ancestors) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(parentProjectId)),
+                new Update().inc("forkCount", 1),
+                Project.class);
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("_id").in(ancestors)),
+                new Update().inc("descendantCount", 1),
+                Project.class);
+    }
+
+    @Override
+    public List<Project> findForkPage(String projectId, boolean descendants, UUID userId, String afterId, int limit) {
+        Criteria criteria = Criteria.where(descendants ? "ancestors" : "parentProjectId").is(projectId);
+        if (afterId != null) {
+            criteria.and("_id").lt(new ObjectId(afterId));
+        }
+        criteria.orOperator(
+                Criteria.where("visibility").is("public"),
+                Criteria.where("ownerId").is(userId));
+
+        Query query = new Query(criteria)
+                .with(Sort.by(Sort.Direction.DESC, "_id"))
+                .limit(limit);
+        query.fields()
+                .include("name")
+                .include("description")
+                .include("techStack")
+                .include("tags")
+                .include("visibility")
+                .include("currentVersion")
+                .include("parentProjectId")
+                .include("forkCount")
+                .include("descendantCount")
+                .include("stats")
+                .include("updatedAt");
+
+        return mongoTemplate.find(query, Project.class);
+    }
+
+    @Override
+    public Project claimForRetention(LocalDateTime dueBefore, LocalDateTime now) {
+        Query query = new Query(Criteria.where("compactedAt").not().gte(dueBefore))
+                .with(Sort.by(Sort.Direction.ASC, "compactedAt"));
+        query.fields()
+                .include("ownerId")
+                .include("currentVersion")
+                .include("baseProjectId")
+                .include("baseVersion");
+
+        return mongoTemplate.findAndModify(query, new Update().set("compactedAt", now), Project.class);
+    }
+
+    @Override
+    public long countDueForRetention(LocalDateTime dueBefore) {
+        return mongoTemplate.count(new Query(Criteria.where("compactedAt").not().gte(dueBefore)), Project.class);
+    }
+
+    @Override
+    public List<Integer> findForkPoints(String projectId) {
+        return mongoTemplate.findDistinct(
+                new Query(Criteria.where("baseProjectId").is(projectId)),
+                "baseVersion", Project.class, Integer.class);
+    }
+
+    @Override
+    public void incrementVersionCount(String projectId, int delta) {
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(projectId)),
+                new Update().inc("stats.versionCount", delta),
+                Project.class);
+    }
+
+    @Override
+    public boolean fillStats(String projectId, Long revision, List<ProjectFile> files, ProjectStats stats) {
+        Query query = new Query(revisionCriteria(projectId, revision != null ? revision : 0L)
+                .and("stats.since").exists(false));
+
+        // replaces whatever writes before the backfill added; the files keep
+        // their contents, so the revision is left as it is
+        Update update = new Update().set("stats", stats);
+        if (files != null) {
+            update.set("files", files);
+        }
+        return mongoTemplate.updateFirst(query, update, Project.class).getMatchedCount() > 0;
+    }
+
+    // Documents written before revisions existed count as revision 0
+    private static Criteria revisionCriteria(String projectId, Long expectedRevision) {
+        Criteria criteria = Criteria.where("_id").is(projectId);
+        if (expectedRevision == null) {
+            return criteria;
+        }
+        if (expectedRevision == 0) {
+            return criteria.orOperator(
+                    Criteria.where("revision").is(0L),
+                    Criteria.where("revision").exists(false));
+        }
+        return criteria.and("revision").is(expectedRevision);
+    }
+}
@@ -0,0 +1,19 @@
+package com.vibecode.project.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import com.vibecode.project.entity.ProjectVersion;
+
+public interface ProjectVersionRepository extends MongoRepository<ProjectVersion, String> {
+
+    Optional<ProjectVersion> findByProjectIdAndVersionNumber(String projectId, Integer versionNumber);
+
+    // inclusive on both ends, used to load a delta chain in one round trip
+    @Query("{ 'projectId': ?0, 'versionNumber': { '$gte': ?1, '$lte': ?2 } }")
+    List<ProjectVersion> findVersionRange(String projectId, int from, int to);
+
+}
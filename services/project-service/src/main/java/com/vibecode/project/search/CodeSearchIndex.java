@@ -0,0 +1,429 @@
+package com.vibecode.project.search;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Trigram inverted index over file contents, keyed by content hash so a
+ * content shared by many files, versions or forks is indexed once.
+ *
+ * <p>Postings live in immutable memory-mapped segment files plus a live
+ * in-memory segment for recent documents. A file table maps each project's
+ * paths to content hashes; it is rebuilt from Mongo on startup, which only
+ * reads file references, while the expensive tokenizing survives restarts in
+ * the segments. Segments are merged once there are too many, dropping
+ * contents no file refers to any more.
+ *
+ * <p>All writes come from {@link SearchIndexUpdater} on a single thread, so
+ * segment files are written without blocking searches and only swapped in
+ * under the write lock.
+ */
+@Slf4j
+@Component
+public class CodeSearchIndex {
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".idx";
+    private static final long MAX_MERGE_BYTES = 1L << 30; // the merged segment stays well inside one mapping
+
+    @Value("${project.search.index-dir:./data/search-index}")
+    private String indexDir;
+
+    @Value("${project.search.segment-max-docs:20000}")
+    private int segmentMaxDocs;
+
+    @Value("${project.search.max-segments:8}")
+    private int maxSegments;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<IndexSegment> segments = new ArrayList<>();
+    private LiveSegment live = new LiveSegment();
+    private final Set<String> indexedHashes = new HashSet<>();
+    private final Map<String, ProjectEntry> projects = new HashMap<>();
+    private final Map<String, Set<FileLocation>> locations = new HashMap<>();
+    private int nextSegmentNumber;
+    private volatile boolean ready;
+
+    public record FileLocation(String projectId, String path, String hash) {
+    }
+
+    public record ProjectEntry(UUID ownerId, boolean publicProject, Map<String, String> files) {
+    }
+
+    /** Opens the segments left by a previous run. */
+    void open() {
+        lock.writeLock().lock();
+        try (Stream<Path> files = Files.list(directory())) {
+            List<Path> paths = files
+                    .filter(path -> path.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()
+                    .toList();
+
+            for (Path path : paths) {
+                IndexSegment segment = IndexSegment.open(path);
+                segments.add(segment);
+                for (int doc = 0; doc < segment.docCount(); doc++) {
+                    indexedHashes.add(segment.hash(doc));
+                }
+                nextSegmentNumber = Math.max(nextSegmentNumber, segmentNumber(path) + 1);
+            }
+            log.info("Opened {} search index segments with {} documents", segments.size(), indexedHashes.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open search index in " + indexDir, e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    void markReady() {
+        ready = true;
+    }
+
+    boolean isIndexed(String hash) {
+        lock.readLock().lock();
+        try {
+            return indexedHashes.contains(hash);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Indexes a content; null content (too large to index) is only searchable by scanning. */
+    void addDocument(String hash, String content) {
+        int[] trigrams = content != null ? Trigrams.of(content) : new int[0];
+
+        lock.writeLock().lock();
+        try {
+            if (indexedHashes.add(hash)) {
+                live.add(hash, trigrams);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (live.docCount() >= segmentMaxDocs) {
+            flush();
+        }
+    }
+
+    void putProject(String projectId, UUID ownerId, boolean publicProject, Map<String, String> files) {
+        lock.writeLock().lock();
+        try {
+            removeLocations(projectId);
+            projects.put(projectId, new ProjectEntry(ownerId, publicProject, files));
+            files.forEach((path, hash) -> locations
+                    .computeIfAbsent(hash, h -> new LinkedHashSet<>())
+                    .add(new FileLocation(projectId, path, hash)));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void removeProject(String projectId) {
+        lock.writeLock().lock();
+        try {
+            removeLocations(projectId);
+            projects.remove(projectId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Files in scope that may match. With trigrams, candidates come from the
+     * posting lists; without (short queries, unsupported regexes) or when
+     * searching a single project, the files in scope are scanned.
+     */
+    public List<FileLocation> candidates(int[] trigrams, Predicate<ProjectEntry> scope, String projectId) {
+        lock.readLock().lock();
+        try {
+            List<FileLocation> result = new ArrayList<>();
+
+            if (projectId != null || trigrams.length == 0) {
+                projects.forEach((id, entry) -> {
+                    if ((projectId == null || projectId.equals(id)) && scope.test(entry)) {
+                        entry.files().forEach((path, hash) -> result.add(new FileLocation(id, path, hash)));
+                    }
+                });
+                return result;
+            }
+
+            for (IndexSegment segment : segments) {
+                for (int doc : intersect(trigrams, segment::postings)) {
+                    addInScope(segment.hash(doc), scope, result);
+                }
+            }
+            for (int doc : intersect(trigrams, live::postings)) {
+                addInScope(live.hash(doc), scope, result);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Writes the live segment to disk. */
+    void flush() {
+        if (live.docCount() == 0) {
+            return;
+        }
+        try {
+            Path path = segmentPath(nextSegmentNumber++);
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            live.writeTo(tmp);
+            Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+            IndexSegment segment = IndexSegment.open(path);
+
+            lock.writeLock().lock();
+            try {
+                segments.add(segment);
+                live = new LiveSegment();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write search index segment", e);
+        }
+    }
+
+    /**
+     * Merges the smallest segments into one when there are more than
+     * max-segments, dropping contents that no indexed file refers to. A merge
+     * takes segments up to 1GB in total, so large segments are left alone
+     * while new ones keep being merged. Postings are streamed trigram by
+     * trigram, so memory use does not grow with the index.
+     */
+    void compact() {
+        List<IndexSegment> merging;
+        List<List<String>> keptHashes = new ArrayList<>();
+        List<int[]> docMaps = new ArrayList<>();
+        List<String> mergedHashes = new ArrayList<>();
+        Set<String> dropped = new HashSet<>();
+
+        lock.readLock().lock();
+        try {
+            if (segments.size() <= maxSegments) {
+                return;
+            }
+            merging = smallestSegments();
+            if (merging.size() < 2) {
+                log.warn("Search index has {} segments, but no two fit in one merge", segments.size());
+                return;
+            }
+
+            // new doc ids follow segment order, so merged postings stay ascending
+            for (IndexSegment segment : merging) {
+                int[] docMap = new int[segment.docCount()];
+                for (int doc = 0; doc < segment.docCount(); doc++) {
+                    String hash = segment.hash(doc);
+                    if (locations.containsKey(hash)) {
+                        docMap[doc] = mergedHashes.size();
+                        mergedHashes.add(hash);
+                    } else {
+                        docMap[doc] = -1;
+                        dropped.add(hash);
+                    }
+                }
+                docMaps.add(docMap);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read search index segments", e);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        try {
+            Path path = segmentPath(nextSegmentNumber++);
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            writeMerged(tmp, merging, docMaps, mergedHashes);
+            Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE);
+            IndexSegment merged = IndexSegment.open(path);
+
+            lock.writeLock().lock();
+            try {
+                segments.removeAll(merging);
+                segments.add(0, merged);
+                indexedHashes.removeAll(dropped);
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            // mappings stay valid for searches still reading the old segments
+            for (IndexSegment segment : merging) {
+                Files.deleteIfExists(segment.path());
+            }
+            log.info("Merged {} search index segments, dropped {} unreferenced documents", merging.size(), dropped.size());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not merge search index segments", e);
+        }
+    }
+
+    // smallest first, as many as fit in one merge, kept in index order
+    private List<IndexSegment> smallestSegments() throws IOException {
+        Map<IndexSegment, Long> sizes = new HashMap<>();
+        for (IndexSegment segment : segments) {
+            sizes.put(segment, Files.size(segment.path()));
+        }
+        List<IndexSegment> bySize = new ArrayList<>(segments);
+        bySize.sort(Comparator.comparingLong(sizes::get));
+
+        Set<IndexSegment> chosen = new HashSet<>();
+        long bytes = 0;
+        for (IndexSegment segment : bySize) {
+            if (bytes + sizes.get(segment) > MAX_MERGE_BYTES) {
+                break;
+            }
+            bytes += sizes.get(segment);
+            chosen.add(segment);
+        }
+        return segments.stream().filter(chosen::contains).toList();
+    }
+
+    private static void writeMerged(Path path, List<IndexSegment> merging, List<int[]> docMaps,
+            List<String> hashes) throws IOException {
+        int[] cursors = new int[merging.size()];
+
+        try (SegmentWriter writer = new SegmentWriter(path, hashes)) {
+            while (true) {
+                // smallest trigram not yet written across all segments
+                int trigram = Integer.MAX_VALUE;
+                boolean any = false;
+                for (int s = 0; s < merging.size(); s++) {
+                    if (cursors[s] < merging.get(s).trigramCount()) {
+                        trigram = Math.min(trigram, merging.get(s).trigramAt(cursors[s]));
+                        any = true;
+                    }
+                }
+                if (!any) {
+                    break;
+                }
+
+                IntList postings = new IntList();
+                for (int s = 0; s < merging.size(); s++) {
+                    IndexSegment segment = merging.get(s);
+                    if (cursors[s] < segment.trigramCount() && segment.trigramAt(cursors[s]) == trigram) {
+                        for (int doc : segment.postingsAt(cursors[s])) {
+                            int mapped = docMaps.get(s)[doc];
+                            if (mapped >= 0) {
+                                postings.add(mapped);
+                            }
+                        }
+                        cursors[s]++;
+                    }
+                }
+                if (postings.size() > 0) {
+                    writer.addTrigram(trigram, postings.values(), postings.size());
+                }
+            }
+            writer.finish();
+        }
+    }
+
+    private void addInScope(String hash, Predicate<ProjectEntry> scope, List<FileLocation> result) {
+        Set<FileLocation> files = locations.get(hash);
+        if (files == null) {
+            return;
+        }
+        for (FileLocation file : files) {
+            if (scope.test(projects.get(file.projectId()))) {
+                result.add(file);
+            }
+        }
+    }
+
+    private void removeLocations(String projectId) {
+        ProjectEntry previous = projects.get(projectId);
+        if (previous == null) {
+            return;
+        }
+        previous.files().forEach((path, hash) -> {
+            Set<FileLocation> files = locations.get(hash);
+            if (files != null) {
+                files.remove(new FileLocation(projectId, path, hash));
+                if (files.isEmpty()) {
+                    locations.remove(hash);
+                }
+            }
+        });
+    }
+
+    // Intersects posting lists, starting from the shortest
+    private static int[] intersect(int[] trigrams, IntFunction<int[]> postings) {
+        int[][] lists = new int[trigrams.length][];
+        for (int i = 0; i < trigrams.length; i++) {
+            lists[i] = postings.apply(trigrams[i]);
+            if (lists[i].length == 0) {
+                return lists[i];
+            }
+        }
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+
+        int[] result = lists[0];
+        for (int i = 1; i < lists.length && result.length > 0; i++) {
+            result = intersect(result, lists[i]);
+        }
+        return result;
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int size = 0;
+        int j = 0;
+        for (int value : a) {
+            // gallop through the longer list
+            int step = 1;
+            while (j + step < b.length && b[j + step] < value) {
+                j += step;
+                step <<= 1;
+            }
+            while (j < b.length && b[j] < value) {
+                j++;
+            }
+            if (j < b.length && b[j] == value) {
+                result[size++] = value;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private Path directory() throws IOException {
+        return Files.createDirectories(Path.of(indexDir));
+    }
+
+    private Path segmentPath(int number) throws IOException {
+        return directory().resolve(String.format("%s%08d%s", SEGMENT_PREFIX, number, SEGMENT_SUFFIX));
+    }
+
+    private static int segmentNumber(Path path) {
+        String name = path.getFileName().toString();
+        return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+}
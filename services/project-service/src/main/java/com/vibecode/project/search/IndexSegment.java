@@ -0,0 +1,97 @@
+package com.vibecode.project.search;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HexFormat;
+
+/**
+ * Read-only view of a segment file written by {@link SegmentWriter}. The file
+ * is memory-mapped and only read with absolute gets, so one instance can be
+ * searched from many threads.
+ */
+final class IndexSegment {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final Path path;
+    private final MappedByteBuffer buffer;
+    private final int docCount;
+    private final int trigramCount;
+    private final long tableOffset;
+
+    private IndexSegment(Path path, MappedByteBuffer buffer) {
+        this.path = path;
+        this.buffer = buffer;
+        if (buffer.getInt(0) != SegmentWriter.MAGIC || buffer.getInt(4) != SegmentWriter.VERSION) {
+            throw new IllegalStateException("Not an index segment: " + path);
+        }
+        this.docCount = buffer.getInt(8);
+        this.trigramCount = buffer.getInt(12);
+        this.tableOffset = buffer.getLong(16);
+    }
+
+    static IndexSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new IndexSegment(path, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    int docCount() {
+        return docCount;
+    }
+
+    int trigramCount() {
+        return trigramCount;
+    }
+
+    String hash(int doc) {
+        byte[] bytes = new byte[SegmentWriter.HASH_BYTES];
+        buffer.get(SegmentWriter.HEADER_BYTES + doc * SegmentWriter.HASH_BYTES, bytes);
+        return HexFormat.of().formatHex(bytes);
+    }
+
+    /** Ascending doc ids containing the trigram. */
+    int[] postings(int trigram) {
+        int low = 0;
+        int high = trigramCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = trigramAt(mid);
+            if (value < trigram) {
+                low = mid + 1;
+            } else if (value > trigram) {
+                high = mid - 1;
+            } else {
+                return postingsAt(mid);
+            }
+        }
+        return EMPTY;
+    }
+
+    int trigramAt(int entry) {
+        return buffer.getInt(entryOffset(entry));
+    }
+
+    int[] postingsAt(int entry) {
+        int offset = entryOffset(entry);
+        int count = buffer.getInt(offset + 4);
+        int position = Math.toIntExact(buffer.getLong(offset + 8));
+
+        int[] postings = new int[count];
+        for (int i = 0; i < count; i++) {
+            postings[i] = buffer.getInt(position + 4 * i);
+        }
+        return postings;
+    }
+
+    private int entryOffset(int entry) {
+        return Math.toIntExact(tableOffset + (long) entry * SegmentWriter.TABLE_ENTRY_BYTES);
+    }
+}
@@ -0,0 +1,29 @@
+package com.vibecode.project.search;
+
+import java.util.Arrays;
+
+/** Growable int array, to keep posting lists unboxed. */
+final class IntList {
+
+    private int[] values = new int[4];
+    private int size;
+
+    void add(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    int[] values() {
+        return values;
+    }
+}
@@ -0,0 +1,52 @@
+package com.vibecode.project.search;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Documents indexed since the last flush, searched in memory until written as a segment. */
+final class LiveSegment {
+
+    private static final int[] EMPTY = new int[0];
+
+    private final List<String> hashes = new ArrayList<>();
+    private final Map<Integer, IntList> postings = new HashMap<>();
+
+    void add(String hash, int[] trigrams) {
+        int doc = hashes.size();
+        hashes.add(hash);
+        for (int trigram : trigrams) {
+            postings.computeIfAbsent(trigram, t -> new IntList()).add(doc);
+        }
+    }
+
+    int docCount() {
+        return hashes.size();
+    }
+
+    String hash(int doc) {
+        return hashes.get(doc);
+    }
+
+    int[] postings(int trigram) {
+        IntList list = postings.get(trigram);
+        return list != null ? list.toArray() : EMPTY;
+    }
+
+    void writeTo(Path path) throws IOException {
+        int[] trigrams = postings.keySet().stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(trigrams);
+
+        try (SegmentWriter writer = new SegmentWriter(path, hashes)) {
+            for (int trigram : trigrams) {
+                IntList list = postings.get(trigram);
+                writer.addTrigram(trigram, list.values(), list.size());
+            }
+            writer.finish();
+        }
+    }
+}
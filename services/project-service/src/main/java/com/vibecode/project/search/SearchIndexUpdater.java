@@ -0,0 +1,175 @@
+package com.vibecode.project.search;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.vibecode.project.entity.Project;
+import com.vibecode.project.entity.ProjectFile;
+import com.vibecode.project.service.BlobStoreService;
+import com.vibecode.project.service.ProjectChangedEvent;
+import com.vibecode.project.service.VersionHistoryService;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps {@link CodeSearchIndex} in step with the projects collection. On
+ * startup the file table is rebuilt from file references and only contents
+ * missing from the persisted segments are tokenized. Afterwards changed
+ * projects are collected from {@link ProjectChangedEvent}s and re-read in the
+ * background, so writes never wait for indexing.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SearchIndexUpdater {
+
+    private static final int CONTENT_BATCH_SIZE = 100;
+
+    private final CodeSearchIndex index;
+    private final MongoTemplate mongoTemplate;
+    private final BlobStoreService blobStoreService;
+    private final VersionHistoryService versionHistoryService;
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+
+    @Value("${project.search.enabled:true}")
+    private boolean enabled;
+
+    @Value("${project.search.max-file-bytes:1048576}")
+    private int maxFileBytes;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (enabled) {
+            Thread.ofPlatform().daemon().name("search-index-loader").start(this::load);
+        }
+    }
+
+    @EventListener
+    public void onProjectChanged(ProjectChangedEvent event) {
+        if (enabled) {
+            pending.add(event.projectId());
+        }
+    }
+
+    // ready is checked before taking the lock, which load() holds for the
+    // whole startup scan, so the shared scheduler thread is never blocked by it
+
+    @Scheduled(fixedDelayString = "${project.search.update-interval-ms:1000}")
+    public void applyPending() {
+        if (!index.isReady()) {
+            return; // changes made while loading stay pending
+        }
+        synchronized (this) {
+            for (Iterator<String> it = pending.iterator(); it.hasNext(); ) {
+                String projectId = it.next();
+                it.remove();
+                try {
+                    Project project = mongoTemplate.findOne(projectQuery(Criteria.where("_id").is(projectId)), Project.class);
+                    if (project == null) {
+                        index.removeProject(projectId);
+                    } else {
+                        indexProject(project);
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Could not update search index for project {}: {}", projectId, e.getMessage());
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${project.search.flush-interval-ms:60000}")
+    public void flush() {
+        if (!index.isReady()) {
+            return;
+        }
+        synchronized (this) {
+            index.flush();
+            index.compact();
+        }
+    }
+
+    synchronized void load() {
+        long start = System.currentTimeMillis();
+        index.open();
+
+        int count = 0;
+        try (Stream<Project> projects = mongoTemplate.stream(projectQuery(new Criteria()), Project.class)) {
+            for (Iterator<Project> it = projects.iterator(); it.hasNext(); ) {
+                Project project = it.next();
+                try {
+                    indexProject(project);
+                    count++;
+                } catch (RuntimeException e) {
+                    log.warn("Could not index project {}: {}", project.getId(), e.getMessage());
+                }
+            }
+        }
+
+        index.flush();
+        index.markReady();
+        log.info("Search index ready for {} projects in {} ms", count, System.currentTimeMillis() - start);
+    }
+
+    private void indexProject(Project project) {
+        List<ProjectFile> files = project.getFiles() != null
+                ? project.getFiles()
+                : versionHistoryService.getSnapshot(project.getId(), project.getCurrentVersion());
+
+        Map<String, String> hashes = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (ProjectFile file : files) {
+            String hash = file.getContentHash() != null
+                    ? file.getContentHash()
+                    : blobStoreService.put(file.getContent()); // legacy inline content
+            hashes.put(file.getPath(), hash);
+            if (!index.isIndexed(hash)) {
+                missing.add(hash);
+            }
+        }
+
+        for (int from = 0; from < missing.size(); from += CONTENT_BATCH_SIZE) {
+            List<String> batch = missing.subList(from, Math.min(from + CONTENT_BATCH_SIZE, missing.size()));
+            Map<String, String> contents = blobStoreService.getContents(batch);
+            for (String hash : batch) {
+                String content = contents.get(hash);
+                if (content != null) {
+                    index.addDocument(hash, content.length() <= maxFileBytes ? content : null);
+                }
+            }
+        }
+
+        index.putProject(
+                project.getId(),
+                project.getOwnerId(),
+                "public".equalsIgnoreCase(project.getVisibility()),
+                hashes
+        );
+    }
+
+    private static Query projectQuery(Criteria criteria) {
+        Query query = new Query(criteria);
+        query.fields()
+                .include("ownerId")
+                .include("visibility")
+                .include("files")
+                .include("currentVersion");
+        return query;
+    }
+}
@@ -0,0 +1,108 @@
+package com.vibecode.project.search;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+
+/**
+ * Writes an immutable index segment. Layout, big-endian:
+ *
+ * <pre>
+ * header   magic, version, docCount, trigramCount (ints), tableOffset (long)
+ * docs     docCount raw SHA-256 content hashes, 32 bytes each
+ * postings ascending doc ids per trigram, ints
+ * table    trigramCount entries of trigram, count (ints), postingsOffset (long),
+ *          sorted by trigram
+ * </pre>
+ *
+ * Trigrams must be added in ascending order, so segments can be merged by
+ * streaming without holding all postings in memory.
+ */
+final class SegmentWriter implements Closeable {
+
+    static final int MAGIC = 0x56435453; // "VCTS"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 24;
+    static final int HASH_BYTES = 32;
+    static final int TABLE_ENTRY_BYTES = 16;
+
+    private final Path path;
+    private final DataOutputStream out;
+    private final int docCount;
+    private final IntList tableTrigrams = new IntList();
+    private final IntList tableCounts = new IntList();
+    private long[] tableOffsets = new long[1024];
+    private long position;
+    private int lastTrigram = Integer.MIN_VALUE;
+
+    SegmentWriter(Path path, List<String> hashes) throws IOException {
+        this.path = path;
+        this.out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+        this.docCount = hashes.size();
+
+        out.write(new byte[HEADER_BYTES]); // patched in finish()
+        HexFormat hex = HexFormat.of();
+        for (String hash : hashes) {
+            out.write(hex.parseHex(hash));
+        }
+        position = HEADER_BYTES + (long) docCount * HASH_BYTES;
+    }
+
+    void addTrigram(int trigram, int[] postings, int length) throws IOException {
+        if (trigram <= lastTrigram) {
+            throw new IllegalStateException("Trigrams must be added in ascending order");
+        }
+        lastTrigram = trigram;
+
+        int entry = tableTrigrams.size();
+        if (entry == tableOffsets.length) {
+            tableOffsets = Arrays.copyOf(tableOffsets, entry * 2);
+        }
+        tableTrigrams.add(trigram);
+        tableCounts.add(length);
+        tableOffsets[entry] = position;
+
+        for (int i = 0; i < length; i++) {
+            out.writeInt(postings[i]);
+        }
+        position += 4L * length;
+    }
+
+    void finish() throws IOException {
+        long tableOffset = position;
+        int[] trigrams = tableTrigrams.values();
+        int[] counts = tableCounts.values();
+        for (int i = 0; i < tableTrigrams.size(); i++) {
+            out.writeInt(trigrams[i]);
+            out.writeInt(counts[i]);
+            out.writeLong(tableOffsets[i]);
+        }
+        out.close();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC)
+                .putInt(VERSION)
+                .putInt(docCount)
+                .putInt(tableTrigrams.size())
+                .putLong(tableOffset)
+                .flip();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+            channel.write(header, 0);
+            channel.force(true);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,165 @@
+package com.vibecode.project.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Case-insensitive trigram keys. ASCII trigrams map to distinct keys; others
+ * are hashed, which can only add candidates that verification then drops.
+ */
+public final class Trigrams {
+
+    private static final int HASHED = 1 << 30;
+
+    private Trigrams() {
+    }
+
+    static int key(char a, char b, char c) {
+        a = Character.toLowerCase(a);
+        b = Character.toLowerCase(b);
+        c = Character.toLowerCase(c);
+        if (a < 128 && b < 128 && c < 128) {
+            return (a << 14) | (b << 7) | c;
+        }
+        return HASHED | ((a * 961 + b * 31 + c) & (HASHED - 1));
+    }
+
+    /** Distinct trigram keys of a text, sorted. */
+    public static int[] of(CharSequence text) {
+        if (text.length() < 3) {
+            return new int[0];
+        }
+        int[] keys = new int[text.length() - 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = key(text.charAt(i), text.charAt(i + 1), text.charAt(i + 2));
+        }
+        return distinct(keys);
+    }
+
+    /** Trigrams every match of the regex must contain; empty when none can be derived. */
+    public static int[] forRegex(String regex) {
+        List<String> literals = requiredLiterals(regex);
+        int[][] parts = new int[literals.size()][];
+        int total = 0;
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = of(literals.get(i));
+            total += parts[i].length;
+        }
+
+        int[] keys = new int[total];
+        int offset = 0;
+        for (int[] part : parts) {
+            System.arraycopy(part, 0, keys, offset, part.length);
+            offset += part.length;
+        }
+        return distinct(keys);
+    }
+
+    /**
+     * Literal runs that must appear in any match. Deliberately conservative:
+     * alternation anywhere gives up, and nothing inside groups or character
+     * classes is used.
+     */
+    static List<String> requiredLiterals(String regex) {
+        List<String> literals = new ArrayList<>();
+        if (regex.indexOf('|') >= 0) {
+            return literals;
+        }
+
+        StringBuilder current = new StringBuilder();
+        int depth = 0;
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+
+            if (depth > 0) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == '(') {
+                    depth++;
+                } else if (c == ')') {
+                    depth--;
+                }
+                continue;
+            }
+
+            switch (c) {
+                case '\\' -> {
+                    char next = i + 1 < regex.length() ? regex.charAt(i + 1) : 0;
+                    i++;
+                    if (next != 0 && !Character.isLetterOrDigit(next)) {
+                        current.append(next); // escaped punctuation is literal
+                    } else {
+                        flush(current, literals); // \w, \d, \Q and friends
+                    }
+                }
+                case '?', '*' -> {
+                    dropLast(current); // the previous character is optional
+                    flush(current, literals);
+                }
+                case '{' -> {
+                    dropLast(current);
+                    flush(current, literals);
+                    int end = regex.indexOf('}', i);
+                    i = end < 0 ? regex.length() : end;
+                }
+                case '+' -> flush(current, literals);
+                case '[' -> {
+                    flush(current, literals);
+                    i = skipClass(regex, i);
+                }
+                case '(' -> {
+                    flush(current, literals);
+                    depth = 1;
+                }
+                case '.', '^', '$' -> flush(current, literals);
+                default -> current.append(c);
+            }
+        }
+        flush(current, literals);
+        return literals;
+    }
+
+    private static int[] distinct(int[] keys) {
+        Arrays.sort(keys);
+        int distinct = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (i == 0 || keys[i] != keys[i - 1]) {
+                keys[distinct++] = keys[i];
+            }
+        }
+        return Arrays.copyOf(keys, distinct);
+    }
+
+    private static int skipClass(String regex, int start) {
+        int i = start + 1;
+        if (i < regex.length() && regex.charAt(i) == '^') {
+            i++;
+        }
+        if (i < regex.length() && regex.charAt(i) == ']') {
+            i++;
+        }
+        for (; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == ']') {
+                return i;
+            }
+        }
+        return regex.length();
+    }
+
+    private static void dropLast(StringBuilder current) {
+        if (!current.isEmpty()) {
+            current.setLength(current.length() - 1);
+        }
+    }
+
+    private static void flush(StringBuilder current, List<String> literals) {
+        if (current.length() >= 3) {
+            literals.add(current.toString());
+        }
+        current.setLength(0);
+    }
+}
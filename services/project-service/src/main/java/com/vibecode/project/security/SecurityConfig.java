@@ -1,10 +1,17 @@
 package com.vibecode.project.security;
 
+import java.util.ArrayList;
+import java.util.Collection;
+
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.config.Customizer;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationConverter;
+import org.springframework.security.oauth2.server.resource.authentication.JwtGrantedAuthoritiesConverter;
 import org.springframework.security.web.SecurityFilterChain;
 
 @Configuration
@@ -17,13 +24,29 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
                 .requestMatchers("/projects/health").permitAll()
+                .requestMatchers("/projects/internal/**").hasRole("SERVICE")
+                .requestMatchers(HttpMethod.GET, "/projects/gallery", "/projects/gallery/facets").permitAll()
                 .requestMatchers("/actuator/health").permitAll()
-                .requestMatchers("/actuator/**").permitAll()
                 .anyRequest().authenticated() //all other endpoints require authentication
                 )
-                .oauth2ResourceServer(oauth -> oauth.jwt(Customizer.withDefaults())); //use JWT for authentication
+                .oauth2ResourceServer(oauth -> oauth.jwt(jwt -> jwt.jwtAuthenticationConverter(jwtAuthenticationConverter()))); //use JWT for authentication
 
         return http.build();
     }
 
+    // Tokens minted by another service carry a "service" claim; user tokens
+    // from auth-service never do
+    private static JwtAuthenticationConverter jwtAuthenticationConverter() {
+        JwtGrantedAuthoritiesConverter scopes = new JwtGrantedAuthoritiesConverter();
+        JwtAuthenticationConverter converter = new JwtAuthenticationConverter();
+        converter.setJwtGrantedAuthoritiesConverter(jwt -> {
+            Collection<GrantedAuthority> authorities = new ArrayList<>(scopes.convert(jwt));
+            if (jwt.hasClaim("service")) {
+                authorities.add(new SimpleGrantedAuthority("ROLE_SERVICE"));
+            }
+            return authorities;
+        });
+        return converter;
+    }
+
 }
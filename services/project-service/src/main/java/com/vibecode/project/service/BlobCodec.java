@@ -0,0 +1,216 @@
+package com.vibecode.project.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+import com.github.luben.zstd.ZstdInputStream;
+import com.github.luben.zstd.ZstdOutputStream;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * zstd compression of blob contents. Contents below the threshold, or that do
+ * not shrink enough, are stored as is. Optional dictionaries, one per
+ * language, are read from {@code <dictionary-dir>/<language>.dict}; a blob
+ * records the id of the dictionary it was compressed with, so a dictionary
+ * file must be kept for as long as blobs use it.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BlobCodec {
+
+    public static final String ZSTD = "zstd";
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${project.blobs.compression.enabled:true}")
+    private boolean enabled;
+
+    @Value("${project.blobs.compression.threshold-bytes:1024}")
+    private int thresholdBytes;
+
+    @Value("${project.blobs.compression.level:3}")
+    private int level;
+
+    // stored compressed only if it saves at least this fraction
+    @Value("${project.blobs.compression.min-savings:0.1}")
+    private double minSavings;
+
+    @Value("${project.blobs.compression.dictionary-dir:}")
+    private String dictionaryDir;
+
+    private final Map<String, CompressDictionary> compressDictionaries = new HashMap<>();
+    private final Map<Long, ZstdDictDecompress> decompressDictionaries = new HashMap<>();
+
+    private Counter logicalBytes;
+    private Counter storedBytes;
+    private DistributionSummary ratio;
+    private Timer compressTime;
+    private Timer decompressTime;
+
+    /** Stored form of a content; codec is null when it is kept uncompressed. */
+    public record Encoded(byte[] data, String codec, Long dictionaryId) {
+    }
+
+    /** Stream to write a content to; codec is null when it is passed through uncompressed. */
+    public record StreamEncoder(OutputStream out, String codec, Long dictionaryId) {
+    }
+
+    private record CompressDictionary(long id, ZstdDictCompress dictionary) {
+    }
+
+    @PostConstruct
+    void init() {
+        logicalBytes = Counter.builder("project.blobs.bytes").tag("form", "logical")
+                .description("Content bytes written to the blob store").register(meterRegistry);
+        storedBytes = Counter.builder("project.blobs.bytes").tag("form", "stored")
+                .description("Bytes actually stored after compression").register(meterRegistry);
+        ratio = DistributionSummary.builder("project.blobs.compression.ratio")
+                .description("Logical size divided by stored size of compressed blobs").register(meterRegistry);
+        compressTime = Timer.builder("project.blobs.codec.time").tag("operation", "compress").register(meterRegistry);
+        decompressTime = Timer.builder("project.blobs.codec.time").tag("operation", "decompress").register(meterRegistry);
+
+        if (!dictionaryDir.isBlank()) {
+            loadDictionaries(Path.of(dictionaryDir));
+        }
+    }
+
+    public Encoded encode(byte[] raw, String language) {
+        logicalBytes.increment(raw.length);
+        if (!enabled || raw.length < thresholdBytes) {
+            storedBytes.increment(raw.length);
+            return new Encoded(raw, null, null);
+        }
+
+        CompressDictionary dictionary = language != null
+                ? compressDictionaries.get(language.toLowerCase(Locale.ROOT))
+                : null;
+
+        long start = System.nanoTime();
+        byte[] compressed = dictionary != null
+                ? Zstd.compress(raw, dictionary.dictionary())
+                : Zstd.compress(raw, level);
+        compressTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (compressed.length > raw.length * (1 - minSavings)) {
+            storedBytes.increment(raw.length);
+            return new Encoded(raw, null, null);
+        }
+
+        storedBytes.increment(compressed.length);
+        ratio.record((double) raw.length / compressed.length);
+        return new Encoded(compressed, ZSTD, dictionary != null ? dictionary.id() : null);
+    }
+
+    /**
+     * Compresses what is written to the returned stream into out, for
+     * contents too large to hold in memory. Whether to compress is decided up
+     * front from the size, so unlike {@link #encode(byte[], String)} a content
+     * that barely shrinks is still stored compressed. Closing the returned
+     * stream closes out; report the stored size with {@link #recordStored}.
+     */
+    public StreamEncoder encode(OutputStream out, long size, String language) throws IOException {
+        logicalBytes.increment(size);
+        if (!enabled || size < thresholdBytes) {
+            return new StreamEncoder(out, null, null);
+        }
+
+        CompressDictionary dictionary = language != null
+                ? compressDictionaries.get(language.toLowerCase(Locale.ROOT))
+                : null;
+
+        ZstdOutputStream zstd = new ZstdOutputStream(out, level);
+        if (dictionary != null) {
+            zstd.setDict(dictionary.dictionary());
+        }
+        return new StreamEncoder(zstd, ZSTD, dictionary != null ? dictionary.id() : null);
+    }
+
+    public void recordStored(long size, long storedSize, String codec) {
+        storedBytes.increment(storedSize);
+        if (codec != null && storedSize > 0) {
+            ratio.record((double) size / storedSize);
+        }
+    }
+
+    public byte[] decode(byte[] data, String codec, Long dictionaryId, long size) {
+        if (codec == null) {
+            return data;
+        }
+        checkCodec(codec);
+
+        long start = System.nanoTime();
+        byte[] raw = dictionaryId != null
+                ? Zstd.decompress(data, dictionary(dictionaryId), Math.toIntExact(size))
+                : Zstd.decompress(data, Math.toIntExact(size));
+        decompressTime.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return raw;
+    }
+
+    /** Decompresses while the stream is read, for streaming and ranged responses. */
+    public InputStream decode(InputStream in, String codec, Long dictionaryId) throws IOException {
+        if (codec == null) {
+            return in;
+        }
+        checkCodec(codec);
+
+        ZstdInputStream zstd = new ZstdInputStream(in);
+        if (dictionaryId != null) {
+            zstd.setDict(dictionary(dictionaryId));
+        }
+        return zstd;
+    }
+
+    private ZstdDictDecompress dictionary(long dictionaryId) {
+        ZstdDictDecompress dictionary = decompressDictionaries.get(dictionaryId);
+        if (dictionary == null) {
+            throw new IllegalStateException("Compression dictionary " + dictionaryId + " is not loaded");
+        }
+        return dictionary;
+    }
+
+    private static void checkCodec(String codec) {
+        if (!ZSTD.equals(codec)) {
+            throw new IllegalStateException("Unknown blob codec " + codec);
+        }
+    }
+
+    private void loadDictionaries(Path dir) {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (Path file : files.filter(f -> f.getFileName().toString().endsWith(".dict")).toList()) {
+                String name = file.getFileName().toString();
+                String language = name.substring(0, name.length() - ".dict".length()).toLowerCase(Locale.ROOT);
+                byte[] bytes = Files.readAllBytes(file);
+
+                long id = Zstd.getDictIdFromDict(bytes);
+                compressDictionaries.put(language, new CompressDictionary(id, new ZstdDictCompress(bytes, level)));
+                decompressDictionaries.put(id, new ZstdDictDecompress(bytes));
+                log.info("Loaded zstd dictionary {} for {}", id, language);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not load compression dictionaries from " + dir, e);
+        }
+    }
+}
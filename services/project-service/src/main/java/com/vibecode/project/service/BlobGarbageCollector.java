@@ -0,0 +1,147 @@
+package com.vibecode.project.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.vibecode.project.entity.FileBlob;
+import com.vibecode.project.entity.FileChange;
+import com.vibecode.project.entity.Project;
+import com.vibecode.project.entity.ProjectFile;
+import com.vibecode.project.entity.ProjectVersion;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Deletes blobs that no project or version refers to any more, by mark and
+ * sweep. References are marked in a {@link HashMarks} filter while streaming
+ * projects and versions, so memory stays at a few bits per blob; a blob that
+ * is falsely marked is only kept until a later run, which uses another seed.
+ *
+ * <p>Blobs created or reused within the grace period before the run started
+ * are never deleted. Writers touch the blobs they reuse (see
+ * {@link BlobStoreService#touch}), which covers references written while
+ * the mark phase is under way.
+ */
+@Component
+@RequiredArgsConstructor
+public class BlobGarbageCollector {
+
+    /** What one run did. */
+    public record Sweep(long examined, long deleted, long freedBytes) {
+    }
+
+    private final MongoTemplate mongoTemplate;
+    private final BlobStoreService blobStoreService;
+
+    @Value("${project.retention.blob-grace-ms:86400000}")
+    private long graceMs;
+
+    @Value("${project.retention.gc-bits-per-blob:16}")
+    private int bitsPerBlob;
+
+    @Value("${project.retention.gc-batch-size:500}")
+    private int batchSize;
+
+    @Value("${project.retention.pause-ms:20}")
+    private long pauseMs;
+
+    public Sweep collect() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(graceMs, ChronoUnit.MILLIS);
+        HashMarks marks = new HashMarks(
+                mongoTemplate.estimatedCount(FileBlob.class), bitsPerBlob, ThreadLocalRandom.current().nextLong());
+
+        markProjects(marks);
+        markVersions(marks);
+        return sweep(marks, cutoff);
+    }
+
+    private void markProjects(HashMarks marks) {
+        Query query = new Query().cursorBatchSize(batchSize);
+        query.fields().include("files.contentHash");
+
+        try (Stream<Project> projects = mongoTemplate.stream(query, Project.class)) {
+            long seen = 0;
+            for (Project project : (Iterable<Project>) projects::iterator) {
+                mark(marks, project.getFiles());
+                throttle(++seen);
+            }
+        }
+    }
+
+    private void markVersions(HashMarks marks) {
+        Query query = new Query().cursorBatchSize(batchSize);
+        query.fields().include("filesSnapshot.contentHash").include("changes.file.contentHash");
+
+        try (Stream<ProjectVersion> versions = mongoTemplate.stream(query, ProjectVersion.class)) {
+            long seen = 0;
+            for (ProjectVersion version : (Iterable<ProjectVersion>) versions::iterator) {
+                mark(marks, version.getFilesSnapshot());
+                if (version.getChanges() != null) {
+                    for (FileChange change : version.getChanges()) {
+                        if (change.getFile() != null && change.getFile().getContentHash() != null) {
+                            marks.add(change.getFile().getContentHash());
+                        }
+                    }
+                }
+                throttle(++seen);
+            }
+        }
+    }
+
+    private Sweep sweep(HashMarks marks, LocalDateTime cutoff) {
+        Query query = new Query(Criteria.where("createdAt").not().gte(cutoff)).cursorBatchSize(batchSize);
+        query.fields().include("_id");
+
+        long examined = 0;
+        long deleted = 0;
+        long freedBytes = 0;
+        try (Stream<FileBlob> blobs = mongoTemplate.stream(query, FileBlob.class)) {
+            for (FileBlob blob : (Iterable<FileBlob>) blobs::iterator) {
+                examined++;
+                if (!marks.mightContain(blob.getHash())) {
+                    // re-checked on delete, in case the blob was reused since the mark phase
+                    FileBlob removed = blobStoreService.deleteUnusedSince(blob.getHash(), cutoff);
+                    if (removed != null) {
+                        deleted++;
+                        freedBytes += removed.getStoredSize() != null ? removed.getStoredSize() : 0;
+                    }
+                }
+                throttle(examined);
+            }
+        }
+        return new Sweep(examined, deleted, freedBytes);
+    }
+
+    private static void mark(HashMarks marks, List<ProjectFile> files) {
+        if (files == null) {
+            return;
+        }
+        for (ProjectFile file : files) {
+            if (file.getContentHash() != null) {
+                marks.add(file.getContentHash());
+            }
+        }
+    }
+
+    // Pauses once per batch so the scans never saturate the database
+    private void throttle(long processed) {
+        if (pauseMs <= 0 || processed % batchSize != 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Blob collection interrupted", e);
+        }
+    }
+}
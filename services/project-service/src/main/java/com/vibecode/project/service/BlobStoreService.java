@@ -0,0 +1,476 @@
+package com.vibecode.project.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Service;
+
+import com.mongodb.MongoGridFSException;
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.GridFSBuckets;
+import com.mongodb.client.gridfs.GridFSUploadStream;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import com.vibecode.project.entity.FileBlob;
+import com.vibecode.project.exception.InvalidRequestException;
+import com.vibecode.project.exception.ProjectNotFoundException;
+import com.vibecode.project.repository.FileBlobRepository;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Content-addressed storage for file contents. Identical content is stored
+ * once no matter how many files, versions or projects refer to it. Blobs above
+ * the GridFS threshold are kept in GridFS so they never approach the 16 MB
+ * document limit. Contents are compressed at rest by {@link BlobCodec} and
+ * decompressed only when read.
+ */
+@Service
+@RequiredArgsConstructor
+public class BlobStoreService {
+
+    private final FileBlobRepository blobRepository;
+    private final GridFsTemplate gridFsTemplate;
+    private final BlobCodec blobCodec;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${project.blobs.gridfs-threshold-bytes:1048576}")
+    private long gridFsThresholdBytes;
+
+    @Value("${project.retention.blob-grace-ms:86400000}")
+    private long blobGraceMs;
+
+    /**
+     * Stores each content and returns its hash, in the same order. Only
+     * contents not already present are written.
+     */
+    public List<String> putAll(List<String> contents) {
+        return putAll(contents, null);
+    }
+
+    /**
+     * As {@link #putAll(List)}, with the language of each content so a
+     * matching compression dictionary can be used.
+     */
+    public List<String> putAll(List<String> contents, List<String> languages) {
+        Map<String, String> byHash = new LinkedHashMap<>();
+        Map<String, String> languageByHash = new HashMap<>();
+        List<String> hashes = new ArrayList<>(contents.size());
+
+        for (int i = 0; i < contents.size(); i++) {
+            String value = contents.get(i) != null ? contents.get(i) : "";
+            String hash = sha256(value);
+            hashes.add(hash);
+            byHash.putIfAbsent(hash, value);
+            if (languages != null && languages.get(i) != null) {
+                languageByHash.putIfAbsent(hash, languages.get(i));
+            }
+        }
+
+        // touched before the lookup, so a blob found here cannot be swept before it is referenced
+        touch(byHash.keySet());
+        Set<String> existing = blobRepository.findIdsByHashIn(byHash.keySet())
+                .stream()
+                .map(FileBlob::getHash)
+                .collect(Collectors.toSet());
+
+        LocalDateTime now = LocalDateTime.now();
+        byHash.forEach((hash, content) -> {
+            if (!existing.contains(hash)) {
+                insert(hash, content, languageByHash.get(hash), now);
+            }
+        });
+
+        return hashes;
+    }
+
+    /**
+     * Marks blobs as in use now, so a garbage collection in progress keeps
+     * them. Blobs already marked within the last quarter of the grace period
+     * are not written again.
+     */
+    public void touch(Collection<String> hashes) {
+        if (hashes.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("_id").in(hashes)
+                        .and("lastUsedAt").not().gte(now.minus(blobGraceMs / 4, ChronoUnit.MILLIS))),
+                new Update().set("lastUsedAt", now),
+                FileBlob.class);
+    }
+
+    /**
+     * Deletes a blob unless it was created or used at or after the cutoff.
+     * Returns the deleted blob, or null when it was kept or already gone.
+     */
+    public FileBlob deleteUnusedSince(String hash, LocalDateTime cutoff) {
+        Query query = new Query(Criteria.where("_id").is(hash)
+                .and("createdAt").not().gte(cutoff)
+                .and("lastUsedAt").not().gte(cutoff));
+        query.fields().exclude("content").exclude("data");
+
+        FileBlob deleted = mongoTemplate.findAndRemove(query, FileBlob.class);
+        if (deleted != null && deleted.getGridFsId() != null) {
+            gridFsTemplate.delete(new Query(Criteria.where("_id").is(new ObjectId(deleted.getGridFsId()))));
+        }
+        return deleted;
+    }
+
+    public String put(String content) {
+        return putAll(List.of(content != null ? content : "")).get(0);
+    }
+
+    /** Contents by hash; unknown hashes are absent from the result. */
+    public Map<String, String> getContents(Collection<String> hashes) {
+        Map<String, String> contents = new HashMap<>();
+        if (hashes.isEmpty()) {
+            return contents;
+        }
+        for (FileBlob blob : blobRepository.findAllById(hashes)) {
+            contents.put(blob.getHash(), read(blob));
+        }
+        return contents;
+    }
+
+    /** Logical sizes by hash, without reading contents; unknown hashes are absent. */
+    public Map<String, Long> getSizes(Collection<String> hashes) {
+        Map<String, Long> sizes = new HashMap<>();
+        if (hashes.isEmpty()) {
+            return sizes;
+        }
+        for (FileBlob blob : blobRepository.findSizesByHashIn(hashes)) {
+            sizes.put(blob.getHash(), blob.getSize());
+        }
+        return sizes;
+    }
+
+    public String getContent(String hash) {
+        return blobRepository.findById(hash)
+                .map(this::read)
+                .orElseThrow(() -> new ProjectNotFoundException("File content not found"));
+    }
+
+    /**
+     * Content as a resource for streaming responses. GridFS contents are read
+     * lazily, so ranged requests do not load the whole blob into memory.
+     */
+    public Resource openContent(String hash) {
+        FileBlob blob = blobRepository.findById(hash)
+                .orElseThrow(() -> new ProjectNotFoundException("File content not found"));
+
+        if (blob.getContent() != null) {
+            return new ByteArrayResource(blob.getContent().getBytes(StandardCharsets.UTF_8));
+        }
+        return new AbstractResource() {
+            @Override
+            public boolean exists() {
+                return true;
+            }
+
+            @Override
+            public long contentLength() {
+                return blob.getSize();
+            }
+
+            @Override
+            public InputStream getInputStream() throws IOException {
+                return blobCodec.decode(openStored(blob), blob.getCodec(), blob.getDictionaryId());
+            }
+
+            @Override
+            public String getDescription() {
+                return "blob " + blob.getHash();
+            }
+        };
+    }
+
+    /** Opens the content from the start each time it is called. */
+    @FunctionalInterface
+    public interface ContentSource {
+        InputStream open() throws IOException;
+    }
+
+    public record StoredContent(String hash, long size) {
+    }
+
+    /**
+     * Stores a content of the given size read from a stream, such as an
+     * assembled chunked upload. Contents above the GridFS threshold are
+     * hashed, checked to be UTF-8 text and compressed in a single pass
+     * straight into GridFS, so they are never held in memory; smaller ones
+     * are read and stored like any other.
+     */
+    public StoredContent putStream(ContentSource source, long size, String language) throws IOException {
+        if (size <= gridFsThresholdBytes) {
+            byte[] bytes;
+            try (InputStream in = source.open()) {
+                bytes = in.readNBytes((int) size + 1);
+            }
+            if (bytes.length != size) {
+                throw new RuntimeException("Content size does not match");
+            }
+            TextCheck check = new TextCheck();
+            check.update(bytes, bytes.length);
+            check.finish();
+
+            String content = new String(bytes, StandardCharsets.UTF_8);
+            String hash = putAll(List.of(content), language != null ? List.of(language) : null).get(0);
+            return new StoredContent(hash, size);
+        }
+
+        GridFSBucket bucket = GridFSBuckets.create(mongoTemplate.getDb());
+        GridFSUploadStream upload = bucket.openUploadStream("pending");
+        CountingOutputStream stored = new CountingOutputStream(upload);
+        MessageDigest digest = sha256Digest();
+        BlobCodec.StreamEncoder encoder;
+        long read = 0;
+
+        try {
+            encoder = blobCodec.encode(stored, size, language);
+            TextCheck check = new TextCheck();
+            try (InputStream in = source.open(); OutputStream out = encoder.out()) {
+                byte[] buffer = new byte[TextCheck.BUFFER_BYTES];
+                for (int n; (n = in.read(buffer)) > 0; ) {
+                    read += n;
+                    if (read > size) {
+                        throw new RuntimeException("Content size does not match");
+                    }
+                    digest.update(buffer, 0, n);
+                    check.update(buffer, n);
+                    out.write(buffer, 0, n);
+                }
+                check.finish();
+            }
+            if (read != size) {
+                throw new RuntimeException("Content size does not match");
+            }
+        } catch (IOException | RuntimeException e) {
+            discard(bucket, upload);
+            throw e;
+        }
+
+        String hash = HexFormat.of().formatHex(digest.digest());
+        blobCodec.recordStored(size, stored.count, encoder.codec());
+
+        // same rule as putAll: touched before the lookup, so a found blob cannot be swept
+        touch(List.of(hash));
+        if (!blobRepository.findIdsByHashIn(List.of(hash)).isEmpty()) {
+            bucket.delete(upload.getObjectId());
+            return new StoredContent(hash, size);
+        }
+
+        bucket.rename(upload.getObjectId(), hash);
+        LocalDateTime now = LocalDateTime.now();
+        FileBlob blob = FileBlob.builder()
+                .hash(hash)
+                .codec(encoder.codec())
+                .dictionaryId(encoder.dictionaryId())
+                .gridFsId(upload.getObjectId().toHexString())
+                .size(size)
+                .storedSize(stored.count)
+                .createdAt(now)
+                .lastUsedAt(now)
+                .build();
+        try {
+            blobRepository.insert(blob);
+        } catch (DuplicateKeyException e) {
+            // another writer stored the same content concurrently
+            bucket.delete(upload.getObjectId());
+        }
+        return new StoredContent(hash, size);
+    }
+
+    public static String sha256(String content) {
+        return HexFormat.of().formatHex(sha256Digest().digest(content.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    static MessageDigest sha256Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private void insert(String hash, String content, String language, LocalDateTime now) {
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        BlobCodec.Encoded encoded = blobCodec.encode(bytes, language);
+
+        FileBlob blob = FileBlob.builder()
+                .hash(hash)
+                .codec(encoded.codec())
+                .dictionaryId(encoded.dictionaryId())
+                .size((long) bytes.length)
+                .storedSize((long) encoded.data().length)
+                .createdAt(now)
+                .lastUsedAt(now)
+                .build();
+
+        if (encoded.data().length > gridFsThresholdBytes) {
+            ObjectId id = gridFsTemplate.store(new ByteArrayInputStream(encoded.data()), hash);
+            blob.setGridFsId(id.toHexString());
+        } else if (encoded.codec() != null) {
+            blob.setData(encoded.data());
+        } else {
+            blob.setContent(content);
+        }
+
+        try {
+            blobRepository.insert(blob);
+        } catch (DuplicateKeyException e) {
+            // another writer stored the same content concurrently
+            if (blob.getGridFsId() != null) {
+                gridFsTemplate.delete(new Query(Criteria.where("_id").is(new ObjectId(blob.getGridFsId()))));
+            }
+        }
+    }
+
+    private String read(FileBlob blob) {
+        if (blob.getContent() != null) {
+            return blob.getContent();
+        }
+        if (blob.getData() != null) {
+            return new String(
+                    blobCodec.decode(blob.getData(), blob.getCodec(), blob.getDictionaryId(), blob.getSize()),
+                    StandardCharsets.UTF_8);
+        }
+        try (InputStream in = blobCodec.decode(openStored(blob), blob.getCodec(), blob.getDictionaryId())) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read file content", e);
+        }
+    }
+
+    // The stored bytes as they are, before decompression
+    private InputStream openStored(FileBlob blob) throws IOException {
+        if (blob.getData() != null) {
+            return new ByteArrayInputStream(blob.getData());
+        }
+        if (blob.getGridFsId() == null) {
+            // uncompressed inline content
+            return new ByteArrayInputStream(blob.getContent().getBytes(StandardCharsets.UTF_8));
+        }
+        GridFSFile file = gridFsTemplate.findOne(new Query(Criteria.where("_id").is(new ObjectId(blob.getGridFsId()))));
+        if (file == null) {
+            throw new ProjectNotFoundException("File content not found");
+        }
+        return gridFsTemplate.getResource(file).getInputStream();
+    }
+
+    // An upload stream that is still open is aborted; one already closed is deleted
+    private static void discard(GridFSBucket bucket, GridFSUploadStream upload) {
+        try {
+            upload.abort();
+        } catch (MongoGridFSException e) {
+            bucket.delete(upload.getObjectId());
+        }
+    }
+
+    /**
+     * Rejects content that is not UTF-8 text, checked chunk by chunk. Like
+     * archive imports, a NUL byte is taken as a sign of binary content.
+     */
+    static final class TextCheck {
+
+        static final int BUFFER_BYTES = 64 * 1024;
+
+        private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        private final ByteBuffer pending = ByteBuffer.allocate(BUFFER_BYTES + 8);
+        private final CharBuffer chars = CharBuffer.allocate(BUFFER_BYTES);
+
+        void update(byte[] bytes, int length) {
+            for (int offset = 0; offset < length; ) {
+                int n = Math.min(length - offset, pending.remaining());
+                for (int i = offset; i < offset + n; i++) {
+                    if (bytes[i] == 0) {
+                        throw new InvalidRequestException("File content is not UTF-8 text");
+                    }
+                }
+                pending.put(bytes, offset, n);
+                offset += n;
+                pending.flip();
+                decode(false);
+                pending.compact(); // keeps a sequence split across chunks
+            }
+        }
+
+        void finish() {
+            pending.flip();
+            decode(true);
+            chars.clear();
+            if (decoder.flush(chars).isError()) {
+                throw new InvalidRequestException("File content is not UTF-8 text");
+            }
+        }
+
+        private void decode(boolean endOfInput) {
+            while (true) {
+                CoderResult result = decoder.decode(pending, chars, endOfInput);
+                chars.clear();
+                if (result.isError()) {
+                    throw new InvalidRequestException("File content is not UTF-8 text");
+                }
+                if (result.isUnderflow()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
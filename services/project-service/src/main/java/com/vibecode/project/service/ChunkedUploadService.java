@@ -0,0 +1,377 @@
+package com.vibecode.project.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import org.bson.Document;
+import org.bson.types.ObjectId;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.mongodb.MongoGridFSException;
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.GridFSBuckets;
+import com.mongodb.client.gridfs.GridFSUploadStream;
+import com.mongodb.client.gridfs.model.GridFSUploadOptions;
+import com.mongodb.client.model.Filters;
+import com.vibecode.project.dto.CreateUploadRequest;
+import com.vibecode.project.dto.UploadPartResponse;
+import com.vibecode.project.dto.UploadSessionResponse;
+import com.vibecode.project.entity.Project;
+import com.vibecode.project.entity.ProjectFile;
+import com.vibecode.project.entity.UploadPart;
+import com.vibecode.project.entity.UploadSession;
+import com.vibecode.project.exception.InvalidRequestException;
+import com.vibecode.project.exception.ProjectAccessDeniedException;
+import com.vibecode.project.exception.ProjectConflictException;
+import com.vibecode.project.exception.ProjectNotFoundException;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Resumable uploads of large files. A client starts a session, sends the
+ * file in numbered parts in any order, and completes it; a part that failed
+ * is simply sent again and replaces the earlier attempt, so a dropped
+ * connection costs one part rather than the whole file. Parts are streamed
+ * to GridFS as they arrive and assembled into the blob store on completion,
+ * so no request ever holds a whole part or file in memory.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ChunkedUploadService {
+
+    private static final String PARTS_BUCKET = "upload_parts";
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final MongoTemplate mongoTemplate;
+    private final ProjectService projectService;
+    private final BlobStoreService blobStoreService;
+
+    @Value("${project.uploads.part-bytes:8388608}")
+    private long partBytes;
+
+    @Value("${project.uploads.max-file-bytes:104857600}")
+    private long maxFileBytes;
+
+    @Value("${project.uploads.ttl-ms:86400000}")
+    private long ttlMs;
+
+    public UploadSessionResponse start(String projectId, CreateUploadRequest request, UUID userId) {
+        projectService.checkWriteAccess(projectId, userId);
+
+        String path = ProjectArchiveService.entryPath(request.getPath());
+        if (path == null) {
+            throw new InvalidRequestException("Invalid path: " + request.getPath());
+        }
+        if (request.getSize() != null && (request.getSize() < 0 || request.getSize() > maxFileBytes)) {
+            throw new InvalidRequestException("File is larger than " + maxFileBytes + " bytes");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        UploadSession session = UploadSession.builder()
+                .projectId(projectId)
+                .ownerId(userId)
+                .path(path)
+                .language(request.getLanguage() != null
+                        ? request.getLanguage()
+                        : ProjectImportService.languageOf(path.substring(path.lastIndexOf('/') + 1)))
+                .size(request.getSize())
+                .versionMessage(request.getVersionMessage())
+                .status(UploadSession.Status.OPEN)
+                .parts(new HashMap<>())
+                .createdAt(now)
+                .expiresAt(now.plus(ttlMs, ChronoUnit.MILLIS))
+                .build();
+
+        return toResponse(mongoTemplate.insert(session));
+    }
+
+    public UploadSessionResponse get(String projectId, String uploadId, UUID userId) {
+        return toResponse(findSession(projectId, uploadId, userId));
+    }
+
+    /**
+     * Stores one part, replacing an earlier attempt at the same part. When
+     * the client sends the part's SHA-256, a part that arrived damaged is
+     * rejected here rather than when the file is assembled.
+     */
+    public UploadPartResponse putPart(
+            String projectId,
+            String uploadId,
+            int partNumber,
+            InputStream body,
+            String expectedSha256,
+            UUID userId
+    ) {
+        UploadSession session = findSession(projectId, uploadId, userId);
+        if (session.getStatus() != UploadSession.Status.OPEN) {
+            throw new ProjectConflictException("Upload is being completed");
+        }
+        if (partNumber < 1 || partNumber > maxParts()) {
+            throw new InvalidRequestException("Part number must be between 1 and " + maxParts());
+        }
+
+        GridFSBucket bucket = partsBucket();
+        UploadPart part = storePart(bucket, uploadId, partNumber, body);
+        if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(part.getSha256())) {
+            bucket.delete(new ObjectId(part.getGridFsId()));
+            throw new InvalidRequestException("Part " + partNumber + " does not match its checksum");
+        }
+
+        // only while the upload is open, so completion never reads a part being replaced
+        UploadSession previous = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(uploadId).and("status").is(UploadSession.Status.OPEN)),
+                new Update()
+                        .set("parts." + partNumber, part)
+                        .set("expiresAt", LocalDateTime.now().plus(ttlMs, ChronoUnit.MILLIS)),
+                UploadSession.class);
+        if (previous == null) {
+            bucket.delete(new ObjectId(part.getGridFsId()));
+            throw new ProjectConflictException("Upload is being completed");
+        }
+
+        UploadPart replaced = previous.getParts() != null ? previous.getParts().get(String.valueOf(partNumber)) : null;
+        if (replaced != null) {
+            deletePart(bucket, replaced.getGridFsId());
+        }
+
+        return UploadPartResponse.builder()
+                .partNumber(partNumber)
+                .size(part.getSize())
+                .sha256(part.getSha256())
+                .build();
+    }
+
+    /**
+     * Assembles the parts into one blob and adds or replaces the file with
+     * it, as a pending edit like a PATCH. Parts must be numbered from 1
+     * without gaps. If completion fails the upload stays open, so missing or
+     * damaged parts can be sent again.
+     */
+    public Project complete(String projectId, String uploadId, UUID userId) {
+        UploadSession session = mongoTemplate.findAndModify(
+                new Query(Criteria.where("_id").is(uploadId)
+                        .and("projectId").is(projectId)
+                        .and("ownerId").is(userId)
+                        .and("status").is(UploadSession.Status.OPEN)),
+                new Update()
+                        .set("status", UploadSession.Status.COMPLETING)
+                        .set("expiresAt", LocalDateTime.now().plus(ttlMs, ChronoUnit.MILLIS)),
+                FindAndModifyOptions.options().returnNew(true),
+                UploadSession.class);
+        if (session == null) {
+            findSession(projectId, uploadId, userId);
+            throw new ProjectConflictException("Upload is already being completed");
+        }
+
+        Project updated;
+        try {
+            List<UploadPart> parts = orderedParts(session);
+            long size = parts.stream().mapToLong(UploadPart::getSize).sum();
+            if (size > maxFileBytes) {
+                throw new InvalidRequestException("File is larger than " + maxFileBytes + " bytes");
+            }
+            if (session.getSize() != null && session.getSize() != size) {
+                throw new InvalidRequestException("Received " + size + " bytes, expected " + session.getSize());
+            }
+
+            GridFSBucket bucket = partsBucket();
+            BlobStoreService.StoredContent stored = blobStoreService.putStream(
+                    () -> concatenate(bucket, parts), size, session.getLanguage());
+
+            String path = session.getPath();
+            ProjectFile reference = ProjectFile.builder()
+                    .path(path)
+                    .filename(path.substring(path.lastIndexOf('/') + 1))
+                    .language(session.getLanguage())
+                    .contentHash(stored.hash())
+                    .size(stored.size())
+                    .build();
+            updated = projectService.putFileReference(projectId, reference, session.getVersionMessage(), userId);
+        } catch (IOException | RuntimeException e) {
+            mongoTemplate.updateFirst(
+                    new Query(Criteria.where("_id").is(uploadId)),
+                    new Update().set("status", UploadSession.Status.OPEN),
+                    UploadSession.class);
+            if (e instanceof IOException) {
+                throw new RuntimeException("Could not read upload " + uploadId, e);
+            }
+            throw (RuntimeException) e;
+        }
+
+        discard(session);
+        return updated;
+    }
+
+    public void abort(String projectId, String uploadId, UUID userId) {
+        discard(findSession(projectId, uploadId, userId));
+    }
+
+    // Drops uploads that were neither completed nor resumed within the TTL
+    @Scheduled(fixedDelayString = "${project.uploads.cleanup-interval-ms:600000}")
+    public void removeExpired() {
+        Query expired = new Query(Criteria.where("expiresAt").lt(LocalDateTime.now()));
+        expired.fields().include("_id");
+
+        int count = 0;
+        for (UploadSession session : mongoTemplate.find(expired, UploadSession.class)) {
+            discard(session);
+            count++;
+        }
+        if (count > 0) {
+            log.info("Removed {} expired uploads", count);
+        }
+    }
+
+    private UploadSession findSession(String projectId, String uploadId, UUID userId) {
+        UploadSession session = mongoTemplate.findById(uploadId, UploadSession.class);
+        if (session == null || !session.getProjectId().equals(projectId)) {
+            throw new ProjectNotFoundException("Upload not found");
+        }
+        if (!session.getOwnerId().equals(userId)) {
+            throw new ProjectAccessDeniedException("Access denied");
+        }
+        return session;
+    }
+
+    // Parts are found by upload id rather than from the session, which also catches parts stored after a replace
+    private void discard(UploadSession session) {
+        GridFSBucket bucket = partsBucket();
+        bucket.find(Filters.eq("metadata.uploadId", session.getId()))
+                .forEach(file -> deletePart(bucket, file.getObjectId().toHexString()));
+        mongoTemplate.remove(new Query(Criteria.where("_id").is(session.getId())), UploadSession.class);
+    }
+
+    private UploadPart storePart(GridFSBucket bucket, String uploadId, int partNumber, InputStream body) {
+        GridFSUploadOptions options = new GridFSUploadOptions()
+                .metadata(new Document("uploadId", uploadId).append("partNumber", partNumber));
+        GridFSUploadStream upload = bucket.openUploadStream(uploadId + "." + partNumber, options);
+        MessageDigest digest = BlobStoreService.sha256Digest();
+        long size = 0;
+
+        try (upload) {
+            byte[] buffer = new byte[BUFFER_BYTES];
+            for (int n; (n = body.read(buffer)) > 0; ) {
+                size += n;
+                if (size > partBytes) {
+                    throw new InvalidRequestException("Parts may be at most " + partBytes + " bytes");
+                }
+                digest.update(buffer, 0, n);
+                upload.write(buffer, 0, n);
+            }
+        } catch (IOException | RuntimeException e) {
+            try {
+                upload.abort();
+            } catch (MongoGridFSException closed) {
+                bucket.delete(upload.getObjectId());
+            }
+            if (e instanceof IOException) {
+                throw new RuntimeException("Could not read part " + partNumber, e);
+            }
+            throw (RuntimeException) e;
+        }
+
+        return UploadPart.builder()
+                .gridFsId(upload.getObjectId().toHexString())
+                .size(size)
+                .sha256(HexFormat.of().formatHex(digest.digest()))
+                .build();
+    }
+
+    private List<UploadPart> orderedParts(UploadSession session) {
+        Map<String, UploadPart> parts = session.getParts() != null ? session.getParts() : Map.of();
+        if (parts.isEmpty()) {
+            throw new InvalidRequestException("No parts have been uploaded");
+        }
+        for (int number = 1; number <= parts.size(); number++) {
+            if (!parts.containsKey(String.valueOf(number))) {
+                throw new InvalidRequestException("Part " + number + " is missing");
+            }
+        }
+        return parts.entrySet().stream()
+                .sorted(Comparator.comparingInt(entry -> Integer.parseInt(entry.getKey())))
+                .map(Map.Entry::getValue)
+                .toList();
+    }
+
+    // Opens each part only when the previous one has been read
+    private static InputStream concatenate(GridFSBucket bucket, List<UploadPart> parts) {
+        return new SequenceInputStream(new Enumeration<>() {
+            private int next;
+
+            @Override
+            public boolean hasMoreElements() {
+                return next < parts.size();
+            }
+
+            @Override
+            public InputStream nextElement() {
+                if (next >= parts.size()) {
+                    throw new NoSuchElementException();
+                }
+                return bucket.openDownloadStream(new ObjectId(parts.get(next++).getGridFsId()));
+            }
+        });
+    }
+
+    private static void deletePart(GridFSBucket bucket, String gridFsId) {
+        try {
+            bucket.delete(new ObjectId(gridFsId));
+        } catch (MongoGridFSException e) {
+            // already removed
+        }
+    }
+
+    private GridFSBucket partsBucket() {
+        return GridFSBuckets.create(mongoTemplate.getDb(), PARTS_BUCKET);
+    }
+
+    private long maxParts() {
+        return (maxFileBytes + partBytes - 1) / partBytes;
+    }
+
+    private UploadSessionResponse toResponse(UploadSession session) {
+        List<UploadPartResponse> parts = session.getParts() == null ? List.of() : session.getParts().entrySet()
+                .stream()
+                .map(entry -> UploadPartResponse.builder()
+                        .partNumber(Integer.parseInt(entry.getKey()))
+                        .size(entry.getValue().getSize())
+                        .sha256(entry.getValue().getSha256())
+                        .build())
+                .sorted(Comparator.comparingInt(UploadPartResponse::getPartNumber))
+                .toList();
+
+        return UploadSessionResponse.builder()
+                .uploadId(session.getId())
+                .projectId(session.getProjectId())
+                .path(session.getPath())
+                .partSize(partBytes)
+                .maxSize(maxFileBytes)
+                .size(session.getSize())
+                .receivedBytes(parts.stream().mapToLong(UploadPartResponse::getSize).sum())
+                .parts(parts)
+                .expiresAt(session.getExpiresAt())
+                .build();
+    }
+}
@@ -0,0 +1,219 @@
+package com.vibecode.project.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.vibecode.project.dto.CodeSearchResponse;
+import com.vibecode.project.dto.CodeSearchResult;
+import com.vibecode.project.dto.SearchMatch;
+import com.vibecode.project.exception.InvalidRequestException;
+import com.vibecode.project.search.CodeSearchIndex;
+import com.vibecode.project.search.CodeSearchIndex.FileLocation;
+import com.vibecode.project.search.Trigrams;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Code search over the caller's own and public projects. The trigram index
+ * narrows the files down to candidates, which are then verified line by line
+ * with the real pattern.
+ */
+@Service
+@RequiredArgsConstructor
+public class CodeSearchService {
+
+    private static final int CONTENT_BATCH_SIZE = 50;
+    private static final int SNIPPET_LENGTH = 200;
+
+    private final CodeSearchIndex index;
+    private final BlobStoreService blobStoreService;
+
+    @Value("${project.search.max-results:100}")
+    private int maxResults;
+
+    @Value("${project.search.max-matches-per-file:5}")
+    private int maxMatchesPerFile;
+
+    @Value("${project.search.time-budget-ms:2000}")
+    private long timeBudgetMs;
+
+    public CodeSearchResponse search(
+            String query,
+            boolean regex,
+            boolean caseSensitive,
+            String projectId,
+            int limit,
+            UUID userId
+    ) {
+        long start = System.nanoTime();
+        if (query == null || query.isBlank()) {
+            throw new InvalidRequestException("Search query must not be empty");
+        }
+        if (!index.isReady()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Search index is still loading, try again shortly");
+        }
+
+        int flags = caseSensitive ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(regex ? query : Pattern.quote(query), flags);
+        } catch (PatternSyntaxException e) {
+            throw new InvalidRequestException("Invalid regular expression: " + e.getDescription());
+        }
+        int[] trigrams = regex ? Trigrams.forRegex(query) : Trigrams.of(query);
+
+        List<FileLocation> candidates = index.candidates(
+                trigrams,
+                project -> project.publicProject() || project.ownerId().equals(userId),
+                projectId
+        );
+
+        // verify each distinct content once, however many files share it
+        Map<String, List<FileLocation>> byHash = new LinkedHashMap<>();
+        for (FileLocation candidate : candidates) {
+            byHash.computeIfAbsent(candidate.hash(), h -> new ArrayList<>()).add(candidate);
+        }
+
+        int resultLimit = Math.max(1, Math.min(limit, maxResults));
+        long deadline = start + timeBudgetMs * 1_000_000;
+        List<CodeSearchResult> results = new ArrayList<>();
+        List<String> hashes = new ArrayList<>(byHash.keySet());
+        boolean truncated = false;
+
+        search:
+        for (int from = 0; from < hashes.size(); from += CONTENT_BATCH_SIZE) {
+            List<String> batch = hashes.subList(from, Math.min(from + CONTENT_BATCH_SIZE, hashes.size()));
+            Map<String, String> contents = blobStoreService.getContents(batch);
+
+            for (String hash : batch) {
+                if (results.size() >= resultLimit || System.nanoTime() > deadline) {
+                    truncated = true;
+                    break search;
+                }
+                String content = contents.get(hash);
+                if (content == null) {
+                    continue;
+                }
+
+                List<SearchMatch> matches;
+                try {
+                    matches = matchLines(pattern, content, deadline);
+                } catch (DeadlineExceeded e) {
+                    truncated = true;
+                    break search;
+                }
+                if (matches.isEmpty()) {
+                    continue;
+                }
+                for (FileLocation file : byHash.get(hash)) {
+                    if (results.size() >= resultLimit) {
+                        truncated = true;
+                        break search;
+                    }
+                    results.add(CodeSearchResult.builder()
+                            .projectId(file.projectId())
+                            .path(file.path())
+                            .matches(matches)
+                            .build());
+                }
+            }
+        }
+
+        return CodeSearchResponse.builder()
+                .query(query)
+                .results(results)
+                .truncated(truncated)
+                .tookMs((System.nanoTime() - start) / 1_000_000)
+                .build();
+    }
+
+    private List<SearchMatch> matchLines(Pattern pattern, String content, long deadline) {
+        List<SearchMatch> matches = new ArrayList<>();
+        int lineNumber = 1;
+        int lineStart = 0;
+
+        while (lineStart <= content.length() && matches.size() < maxMatchesPerFile) {
+            int lineEnd = content.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = content.length();
+            }
+
+            // the deadline also bounds pathological regexes, which only fail inside charAt
+            Matcher matcher = pattern.matcher(new DeadlineCharSequence(content, lineStart, lineEnd, deadline));
+            if (matcher.find()) {
+                matches.add(new SearchMatch(lineNumber, snippet(content, lineStart, lineEnd, lineStart + matcher.start())));
+            }
+
+            lineStart = lineEnd + 1;
+            lineNumber++;
+        }
+        return matches;
+    }
+
+    private static String snippet(String content, int lineStart, int lineEnd, int matchStart) {
+        if (lineEnd - lineStart <= SNIPPET_LENGTH) {
+            return content.substring(lineStart, lineEnd).stripTrailing();
+        }
+        int from = Math.max(lineStart, matchStart - SNIPPET_LENGTH / 4);
+        int to = Math.min(lineEnd, from + SNIPPET_LENGTH);
+        return content.substring(from, to).stripTrailing();
+    }
+
+    private static final class DeadlineExceeded extends RuntimeException {
+
+        DeadlineExceeded() {
+            super(null, null, false, false);
+        }
+    }
+
+    private static final class DeadlineCharSequence implements CharSequence {
+
+        private final String content;
+        private final int start;
+        private final int end;
+        private final long deadline;
+        private int reads;
+
+        DeadlineCharSequence(String content, int start, int end, long deadline) {
+            this.content = content;
+            this.start = start;
+            this.end = end;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public int length() {
+            return end - start;
+        }
+
+        @Override
+        public char charAt(int index) {
+            if ((++reads & 0xFFF) == 0 && System.nanoTime() > deadline) {
+                throw new DeadlineExceeded();
+            }
+            return content.charAt(start + index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return content.substring(start + from, start + to);
+        }
+
+        @Override
+        public String toString() {
+            return content.substring(start, end);
+        }
+    }
+}
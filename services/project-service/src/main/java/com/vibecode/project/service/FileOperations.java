@@ -0,0 +1,213 @@
+package com.vibecode.project.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.vibecode.project.dto.FileOperation;
+import com.vibecode.project.dto.FileOperationType;
+import com.vibecode.project.dto.TextEdit;
+import com.vibecode.project.entity.ProjectFile;
+import com.vibecode.project.exception.InvalidRequestException;
+
+/**
+ * Applies PATCH operations to a file list. Files whose content changed are
+ * returned with the new content set and no content hash; all other files are
+ * returned as they were.
+ */
+final class FileOperations {
+
+    private FileOperations() {
+    }
+
+    static List<ProjectFile> apply(
+            List<ProjectFile> current,
+            List<FileOperation> operations,
+            Function<String, String> contentByHash,
+            LocalDateTime now
+    ) {
+        Map<String, ProjectFile> files = new LinkedHashMap<>();
+        for (ProjectFile file : current) {
+            files.put(file.getPath(), file);
+        }
+
+        // only directory operations need the tree; it is kept in step with files from then on
+        boolean directoryOperations = operations.stream().anyMatch(operation ->
+                operation.getOp() == FileOperationType.MOVE_DIRECTORY
+                        || operation.getOp() == FileOperationType.DELETE_DIRECTORY);
+        PathTrie tree = directoryOperations ? PathTrie.of(files.values()) : null;
+
+        for (FileOperation operation : operations) {
+            String path = operation.getPath();
+            switch (operation.getOp()) {
+                case ADD -> {
+                    if (files.containsKey(path)) {
+                        throw new InvalidRequestException("File already exists: " + path);
+                    }
+                    String content = operation.getContent() != null ? operation.getContent() : "";
+                    put(files, tree, ProjectFile.builder()
+                            .path(path)
+                            .filename(filename(path))
+                            .language(operation.getLanguage())
+                            .content(content)
+                            .size(size(content))
+                            .createdAt(now)
+                            .updatedAt(now)
+                            .build());
+                }
+                case DELETE -> {
+                    if (files.remove(path) == null) {
+                        throw new InvalidRequestException("File not found: " + path);
+                    }
+                    if (tree != null) {
+                        tree.remove(path);
+                    }
+                }
+                case RENAME -> {
+                    String newPath = operation.getNewPath();
+                    if (newPath == null || newPath.isBlank()) {
+                        throw new InvalidRequestException("newPath is required to rename " + path);
+                    }
+                    if (files.containsKey(newPath)) {
+                        throw new InvalidRequestException("File already exists: " + newPath);
+                    }
+                    ProjectFile file = existing(files, path);
+                    files.remove(path);
+                    if (tree != null) {
+                        tree.remove(path);
+                    }
+                    put(files, tree, moved(file, newPath, now));
+                }
+                case EDIT -> {
+                    ProjectFile file = existing(files, path);
+                    String content = file.getContent() != null
+                            ? file.getContent()
+                            : contentByHash.apply(file.getContentHash());
+                    String edited = edit(content, operation.getEdits(), path);
+
+                    put(files, tree, ProjectFile.builder()
+                            .path(path)
+                            .filename(file.getFilename())
+                            .language(file.getLanguage())
+                            .content(edited)
+                            .size(size(edited))
+                            .createdAt(file.getCreatedAt())
+                            .updatedAt(now)
+                            .build());
+                }
+                case MOVE_DIRECTORY -> moveDirectory(files, tree, path, operation.getNewPath(), now);
+                case DELETE_DIRECTORY -> {
+                    List<ProjectFile> removed = tree.removeDirectory(path);
+                    if (removed.isEmpty()) {
+                        throw new InvalidRequestException("Directory not found: " + path);
+                    }
+                    removed.forEach(file -> files.remove(file.getPath()));
+                }
+            }
+        }
+        return new ArrayList<>(files.values());
+    }
+
+    private static void moveDirectory(
+            Map<String, ProjectFile> files,
+            PathTrie tree,
+            String path,
+            String newPath,
+            LocalDateTime now
+    ) {
+        if (newPath == null || newPath.isBlank()) {
+            throw new InvalidRequestException("newPath is required to move " + path);
+        }
+        String[] source = PathTrie.segments(path);
+        String target = String.join("/", PathTrie.segments(newPath));
+        if (source.length == 0 || target.isEmpty()) {
+            throw new InvalidRequestException("Cannot move the root directory");
+        }
+        String sourcePath = String.join("/", source);
+        if (target.equals(sourcePath) || target.startsWith(sourcePath + "/")) {
+            throw new InvalidRequestException("Cannot move " + path + " into itself");
+        }
+
+        List<ProjectFile> removed = tree.removeDirectory(sourcePath);
+        if (removed.isEmpty()) {
+            throw new InvalidRequestException("Directory not found: " + path);
+        }
+        removed.forEach(file -> files.remove(file.getPath()));
+
+        for (ProjectFile file : removed) {
+            String[] segments = PathTrie.segments(file.getPath());
+            String movedPath = target + "/" + String.join("/", Arrays.copyOfRange(segments, source.length, segments.length));
+            if (tree.get(movedPath) != null) {
+                throw new InvalidRequestException("File already exists: " + movedPath);
+            }
+            put(files, tree, moved(file, movedPath, now));
+        }
+    }
+
+    // Same content and history under another path
+    private static ProjectFile moved(ProjectFile file, String path, LocalDateTime now) {
+        return ProjectFile.builder()
+                .path(path)
+                .filename(filename(path))
+                .language(file.getLanguage())
+                .content(file.getContent())
+                .contentHash(file.getContentHash())
+                .size(file.getSize())
+                .createdAt(file.getCreatedAt())
+                .updatedAt(now)
+                .build();
+    }
+
+    private static void put(Map<String, ProjectFile> files, PathTrie tree, ProjectFile file) {
+        files.put(file.getPath(), file);
+        if (tree != null) {
+            tree.put(file);
+        }
+    }
+
+    private static String edit(String content, List<TextEdit> edits, String path) {
+        if (edits == null || edits.isEmpty()) {
+            throw new InvalidRequestException("No edits given for " + path);
+        }
+
+        List<TextEdit> ordered = new ArrayList<>(edits);
+        ordered.sort(Comparator.comparingInt(TextEdit::getStart).thenComparingInt(TextEdit::getEnd));
+
+        StringBuilder result = new StringBuilder(content.length());
+        int position = 0;
+        for (TextEdit edit : ordered) {
+            if (edit.getStart() < position || edit.getEnd() < edit.getStart() || edit.getEnd() > content.length()) {
+                throw new InvalidRequestException("Invalid or overlapping edit range in " + path);
+            }
+            result.append(content, position, edit.getStart());
+            if (edit.getText() != null) {
+                result.append(edit.getText());
+            }
+            position = edit.getEnd();
+        }
+        result.append(content, position, content.length());
+        return result.toString();
+    }
+
+    private static ProjectFile existing(Map<String, ProjectFile> files, String path) {
+        ProjectFile file = files.get(path);
+        if (file == null) {
+            throw new InvalidRequestException("File not found: " + path);
+        }
+        return file;
+    }
+
+    private static String filename(String path) {
+        return path.substring(path.lastIndexOf('/') + 1);
+    }
+
+    private static long size(String content) {
+        return content.getBytes(StandardCharsets.UTF_8).length;
+    }
+}
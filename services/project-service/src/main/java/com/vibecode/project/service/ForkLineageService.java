@@ -0,0 +1,211 @@
+package com.vibecode.project.service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.bson.types.ObjectId;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.vibecode.project.dto.ProjectAncestryResponse;
+import com.vibecode.project.dto.ProjectPageResponse;
+import com.vibecode.project.dto.ProjectSummaryResponse;
+import com.vibecode.project.entity.Project;
+import com.vibecode.project.exception.InvalidRequestException;
+import com.vibecode.project.exception.ProjectNotFoundException;
+import com.vibecode.project.repository.ProjectAccessView;
+import com.vibecode.project.repository.ProjectMetadataView;
+import com.vibecode.project.repository.ProjectRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fork ancestry and fork trees. Every project stores its ancestors root
+ * first, and fork counters are incremented when a fork is made, so "forks
+ * of X", "all descendants of X" and "ancestry of Y" are single index lookups.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ForkLineageService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final MongoTemplate mongoTemplate;
+    private final ProjectRepository projectRepository;
+
+    /** Ancestors of a project, root first. */
+    public List<String> ancestorsOf(ProjectMetadataView project) {
+        return ancestorsOf(project.getAncestors(), project.getParentProjectId());
+    }
+
+    public ProjectAncestryResponse getAncestry(String projectId, UUID userId) {
+        Query query = new Query(Criteria.where("_id").is(projectId));
+        query.fields()
+                .include("ownerId")
+                .include("visibility")
+                .include("parentProjectId")
+                .include("ancestors")
+                .include("forkCount")
+                .include("descendantCount");
+        Project project = mongoTemplate.findOne(query, Project.class);
+        if (project == null) {
+            throw new ProjectNotFoundException("Project not found");
+        }
+        ProjectService.checkReadAccess(project.getOwnerId(), project.getVisibility(), userId);
+
+        List<String> ids = ancestorsOf(project.getAncestors(), project.getParentProjectId());
+        Query ancestorsQuery = new Query(Criteria.where("_id").in(ids));
+        ancestorsQuery.fields()
+                .include("ownerId")
+                .include("name")
+                .include("visibility")
+                .include("currentVersion")
+                .include("parentProjectId")
+                .include("forkCount")
+                .include("descendantCount")
+                .include("stats")
+                .include("updatedAt");
+        Map<String, Project> byId = mongoTemplate.find(ancestorsQuery, Project.class).stream()
+                .collect(Collectors.toMap(Project::getId, Function.identity()));
+
+        List<ProjectSummaryResponse> ancestors = new ArrayList<>();
+        for (String id : ids) {
+            Project ancestor = byId.get(id);
+            boolean readable = ancestor != null
+                    && (ancestor.getOwnerId().equals(userId) || "public".equalsIgnoreCase(ancestor.getVisibility()));
+            ancestors.add(readable ? summary(ancestor) : ProjectSummaryResponse.builder().id(id).build());
+        }
+
+        return ProjectAncestryResponse.builder()
+                .projectId(projectId)
+                .rootProjectId(ids.isEmpty() ? projectId : ids.get(0))
+                .depth(ids.size())
+                .forkCount(project.getForkCount())
+                .descendantCount(project.getDescendantCount())
+                .ancestors(ancestors)
+                .build();
+    }
+
+    /**
+     * One page of a project's direct forks, or of all its descendants, newest
+     * first. Each entry carries its own counts, so clients expand the tree a
+     * level at a time.
+     */
+    public ProjectPageResponse getForks(String projectId, boolean descendants, String cursor, int limit, UUID userId) {
+        ProjectAccessView project = projectRepository.findProjectedById(projectId, ProjectAccessView.class)
+                .orElseThrow(() -> new ProjectNotFoundException("Project not found"));
+        ProjectService.checkReadAccess(project.getOwnerId(), project.getVisibility(), userId);
+
+        if (cursor != null && !ObjectId.isValid(cursor)) {
+            throw new InvalidRequestException("Invalid cursor");
+        }
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        List<Project> forks = projectRepository.findForkPage(projectId, descendants, userId, cursor, size + 1);
+        boolean hasMore = forks.size() > size;
+        if (hasMore) {
+            forks = forks.subList(0, size);
+        }
+
+        return ProjectPageResponse.builder()
+                .projects(forks.stream().map(ForkLineageService::summary).toList())
+                .nextCursor(hasMore ? forks.get(forks.size() - 1).getId() : null)
+                .build();
+    }
+
+    /**
+     * Fills in ancestry and fork counters for projects forked before they
+     * were stored. Runs once per project: only documents without the fields
+     * are touched.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        Query missingAncestors = new Query(Criteria.where("ancestors").exists(false));
+        missingAncestors.fields().include("parentProjectId");
+        int ancestries = 0;
+        for (Project project : mongoTemplate.find(missingAncestors, Project.class)) {
+            mongoTemplate.updateFirst(
+                    new Query(Criteria.where("_id").is(project.getId()).and("ancestors").exists(false)),
+                    new Update().set("ancestors", ancestorsOf(null, project.getParentProjectId())),
+                    Project.class);
+            ancestries++;
+        }
+
+        // Counted from the ancestry, which is indexed. A fork made while this
+        // runs may be missed by one; later forks are counted as they happen.
+        Query missingCounts = new Query(Criteria.where("descendantCount").exists(false));
+        missingCounts.fields().include("_id");
+        int counted = 0;
+        for (Project project : mongoTemplate.find(missingCounts, Project.class)) {
+            long forks = mongoTemplate.count(new Query(Criteria.where("parentProjectId").is(project.getId())), Project.class);
+            long descendants = mongoTemplate.count(new Query(Criteria.where("ancestors").is(project.getId())), Project.class);
+            mongoTemplate.updateFirst(
+                    new Query(Criteria.where("_id").is(project.getId()).and("descendantCount").exists(false)),
+                    new Update().set("forkCount", (int) forks).set("descendantCount", (int) descendants),
+                    Project.class);
+            counted++;
+        }
+
+        if (ancestries > 0 || counted > 0) {
+            log.info("Backfilled fork ancestry of {} and fork counts of {} projects", ancestries, counted);
+        }
+    }
+
+    // Walks parent links only for projects forked before ancestry was stored
+    private List<String> ancestorsOf(List<String> stored, String parentProjectId) {
+        if (stored != null) {
+            return stored;
+        }
+        LinkedList<String> chain = new LinkedList<>();
+        Set<String> seen = new HashSet<>();
+        String current = parentProjectId;
+
+        while (current != null && seen.add(current)) {
+            chain.addFirst(current);
+            Query query = new Query(Criteria.where("_id").is(current));
+            query.fields().include("parentProjectId").include("ancestors");
+            Project parent = mongoTemplate.findOne(query, Project.class);
+            if (parent == null) {
+                break;
+            }
+            if (parent.getAncestors() != null) {
+                chain.addAll(0, parent.getAncestors());
+                break;
+            }
+            current = parent.getParentProjectId();
+        }
+        return chain;
+    }
+
+    private static ProjectSummaryResponse summary(Project project) {
+        return ProjectSummaryResponse.builder()
+                .id(project.getId())
+                .name(project.getName())
+                .description(project.getDescription())
+                .techStack(project.getTechStack())
+                .tags(project.getTags())
+                .visibility(project.getVisibility())
+                .currentVersion(project.getCurrentVersion())
+                .parentProjectId(project.getParentProjectId())
+                .forkCount(project.getForkCount())
+                .descendantCount(project.getDescendantCount())
+                .stats(project.getStats())
+                .updatedAt(project.getUpdatedAt())
+                .build();
+    }
+}
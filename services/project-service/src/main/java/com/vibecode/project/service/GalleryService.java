@@ -0,0 +1,433 @@
+package com.vibecode.project.service;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.bson.types.ObjectId;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.vibecode.project.dto.FacetCountResponse;
+import com.vibecode.project.dto.GalleryFacetsResponse;
+import com.vibecode.project.dto.ProjectPageResponse;
+import com.vibecode.project.dto.ProjectSummaryResponse;
+import com.vibecode.project.entity.FacetChange;
+import com.vibecode.project.entity.GalleryFacet;
+import com.vibecode.project.entity.Project;
+import com.vibecode.project.entity.ProjectFile;
+import com.vibecode.project.exception.InvalidRequestException;
+import com.vibecode.project.repository.ProjectRepository;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Public project gallery. Filters and sort orders are served from the
+ * visibility-prefixed indexes on projects; facet counts live in
+ * gallery_facets and are adjusted by the difference whenever a project's
+ * facet keys change, so no request aggregates over projects.
+ *
+ * <p>Changed projects are re-read on a thread of their own, so writes never
+ * wait for the gallery. The difference is stored on the project together
+ * with its new keys and removed once applied; each count remembers the
+ * changes it has taken, so a difference left behind by a failure is applied
+ * again without counting anything twice.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GalleryService {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_REFRESH_ATTEMPTS = 3;
+    private static final long ABANDONED_CHANGE_MS = 60_000; // older pending changes are repaired
+
+    private final MongoTemplate mongoTemplate;
+    private final ProjectRepository projectRepository;
+    private final VersionHistoryService versionHistoryService;
+
+    @Value("${project.gallery.facets-cache-ms:5000}")
+    private long facetsCacheMs;
+
+    @Value("${project.gallery.backfill-batch-size:100}")
+    private int backfillBatchSize;
+
+    @Value("${project.gallery.backfill-pause-ms:20}")
+    private long backfillPauseMs;
+
+    private volatile GalleryFacetsResponse cachedFacets;
+    private volatile long cachedFacetsAt;
+
+    private final Set<String> queued = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().daemon().name("project-gallery").factory());
+
+    public ProjectPageResponse gallery(
+            List<String> tags,
+            List<String> techStack,
+            List<String> languages,
+            String sort,
+            String cursor,
+            int limit
+    ) {
+        boolean byForkCount = switch (sort) {
+            case "recent" -> false;
+            case "forks" -> true;
+            default -> throw new InvalidRequestException("Unsupported sort: " + sort);
+        };
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        Object after = null;
+        String afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = PageCursor.decode(cursor);
+            try {
+                after = byForkCount ? (Object) Integer.valueOf(position[0]) : PageCursor.timestamp(position[0]);
+            } catch (NumberFormatException e) {
+                throw PageCursor.invalid();
+            }
+            afterId = position[1];
+        }
+
+        List<Project> projects = projectRepository.findGalleryPage(
+                tags, techStack, normalize(languages), byForkCount, after, afterId, size + 1);
+        boolean hasMore = projects.size() > size;
+        if (hasMore) {
+            projects = projects.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Project last = projects.get(projects.size() - 1);
+            Object value = byForkCount ? forkCountOf(last) : last.getUpdatedAt();
+            nextCursor = PageCursor.encode(String.valueOf(value), last.getId());
+        }
+
+        return ProjectPageResponse.builder()
+                .projects(projects.stream()
+                        .map(project -> ProjectSummaryResponse.builder()
+                        .id(project.getId())
+                        .name(project.getName())
+                        .description(project.getDescription())
+                        .techStack(project.getTechStack())
+                        .tags(project.getTags())
+                        .languages(project.getLanguages())
+                        .visibility(project.getVisibility())
+                        .currentVersion(project.getCurrentVersion())
+                        .parentProjectId(project.getParentProjectId())
+                        .forkCount(forkCountOf(project))
+                        .stats(project.getStats())
+                        .updatedAt(project.getUpdatedAt())
+                        .build())
+                        .toList())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /** The most common values per facet; recomputed from gallery_facets at most every few seconds. */
+    public GalleryFacetsResponse facets(int limit) {
+        GalleryFacetsResponse facets = cachedFacets;
+        if (facets == null || System.currentTimeMillis() - cachedFacetsAt > facetsCacheMs) {
+            facets = GalleryFacetsResponse.builder()
+                    .tags(topFacets("tag", MAX_PAGE_SIZE))
+                    .techStack(topFacets("techStack", MAX_PAGE_SIZE))
+                    .languages(topFacets("language", MAX_PAGE_SIZE))
+                    .build();
+            cachedFacets = facets;
+            cachedFacetsAt = System.currentTimeMillis();
+        }
+
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        return GalleryFacetsResponse.builder()
+                .tags(facets.getTags().subList(0, Math.min(size, facets.getTags().size())))
+                .techStack(facets.getTechStack().subList(0, Math.min(size, facets.getTechStack().size())))
+                .languages(facets.getLanguages().subList(0, Math.min(size, facets.getLanguages().size())))
+                .build();
+    }
+
+    @EventListener
+    public void onProjectChanged(ProjectChangedEvent event) {
+        if (event.remote()) {
+            return; // the instance that made the change counts it
+        }
+        String projectId = event.projectId();
+        if (!queued.add(projectId)) {
+            return; // the queued refresh reads the project after this change
+        }
+        submit(() -> {
+            queued.remove(projectId);
+            try {
+                refresh(projectId);
+            } catch (RuntimeException e) {
+                // the next change of the project, or the startup backfill, corrects it
+                log.warn("Could not update gallery facets of project {}: {}", projectId, e.getMessage());
+            }
+        }, () -> queued.remove(projectId));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        submit(() -> {
+            try {
+                backfill();
+                repair();
+            } catch (RuntimeException e) {
+                log.warn("Gallery facet backfill stopped: {}", e.getMessage());
+            }
+        }, () -> { });
+    }
+
+    @Scheduled(fixedDelayString = "${project.gallery.repair-interval-ms:600000}",
+            initialDelayString = "${project.gallery.repair-interval-ms:600000}")
+    public void scheduleRepair() {
+        submit(() -> {
+            try {
+                repair();
+            } catch (RuntimeException e) {
+                log.warn("Could not repair gallery facet counts: {}", e.getMessage());
+            }
+        }, () -> { });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void submit(Runnable task, Runnable onRejected) {
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            onRejected.run(); // shutting down
+        }
+    }
+
+    /**
+     * Counts projects that predate the gallery, reading them in batches in
+     * id order. Safe to run on several instances at once.
+     */
+    void backfill() {
+        String after = null;
+        int count = 0;
+
+        while (true) {
+            Criteria uncounted = Criteria.where("facets").exists(false);
+            if (after != null) {
+                uncounted = uncounted.and("_id").gt(new ObjectId(after));
+            }
+            Query batch = new Query(uncounted)
+                    .with(Sort.by("_id"))
+                    .limit(backfillBatchSize);
+            batch.fields().include("_id");
+            List<Project> ids = mongoTemplate.find(batch, Project.class);
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            for (Project id : ids) {
+                refresh(id.getId());
+                count++;
+                if (!pause()) {
+                    return; // shutting down
+                }
+            }
+            after = ids.get(ids.size() - 1).getId();
+        }
+        if (count > 0) {
+            log.info("Added {} existing projects to the gallery facets", count);
+        }
+    }
+
+    private boolean pause() {
+        if (backfillPauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(backfillPauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Applies facet changes whose refresh did not finish, for instance
+     * because the instance stopped or the database failed half way. Recent
+     * changes are left alone, as their refresh may still be running.
+     */
+    void repair() {
+        String before = ObjectId.getSmallestWithDate(
+                new Date(System.currentTimeMillis() - ABANDONED_CHANGE_MS)).toHexString();
+        Query abandoned = new Query(Criteria.where("facetChanges.ref").lt(before));
+        abandoned.fields().include("facetChanges");
+        int count = 0;
+        for (Project project : mongoTemplate.find(abandoned, Project.class)) {
+            for (FacetChange change : project.getFacetChanges()) {
+                if (change.getRef().compareTo(before) < 0) {
+                    apply(project.getId(), change);
+                    count++;
+                }
+            }
+        }
+        if (count > 0) {
+            log.info("Applied {} interrupted gallery facet changes", count);
+        }
+    }
+
+    /**
+     * Recomputes the languages and facet keys of a project and applies the
+     * difference to the counts. The write is conditional on both the revision
+     * and the previously counted keys, so concurrent refreshes of the same
+     * project never count a change twice.
+     */
+    void refresh(String projectId) {
+        for (int attempt = 1; attempt <= MAX_REFRESH_ATTEMPTS; attempt++) {
+            Query query = new Query(Criteria.where("_id").is(projectId));
+            query.fields()
+                    .include("visibility")
+                    .include("tags")
+                    .include("techStack")
+                    .include("files.language")
+                    .include("currentVersion")
+                    .include("revision")
+                    .include("languages")
+                    .include("facets");
+            Project project = mongoTemplate.findOne(query, Project.class);
+            if (project == null) {
+                return;
+            }
+
+            List<ProjectFile> files = project.getFiles() != null
+                    ? project.getFiles()
+                    : versionHistoryService.getSnapshot(projectId, project.getCurrentVersion());
+            List<String> languages = normalize(files.stream().map(ProjectFile::getLanguage).toList());
+
+            List<String> facets = new ArrayList<>();
+            if ("public".equalsIgnoreCase(project.getVisibility())) {
+                addKeys(facets, "tag", project.getTags());
+                addKeys(facets, "techStack", project.getTechStack());
+                addKeys(facets, "language", languages);
+            }
+            facets = List.copyOf(new TreeSet<>(facets));
+
+            if (facets.equals(project.getFacets()) && languages.equals(project.getLanguages())) {
+                return;
+            }
+            FacetChange change = difference(project.getFacets() != null ? project.getFacets() : List.of(), facets);
+            if (projectRepository.updateFacets(projectId, project.getRevision(), project.getFacets(),
+                    languages, facets, change)) {
+                if (change != null) {
+                    apply(projectId, change);
+                }
+                return;
+            }
+        }
+    }
+
+    // null when the keys are the same
+    private static FacetChange difference(List<String> before, List<String> after) {
+        Set<String> removed = new TreeSet<>(before);
+        removed.removeAll(after);
+        Set<String> added = new TreeSet<>(after);
+        added.removeAll(before);
+        if (added.isEmpty() && removed.isEmpty()) {
+            return null;
+        }
+        return FacetChange.builder()
+                .ref(new ObjectId().toHexString())
+                .added(List.copyOf(added))
+                .removed(List.copyOf(removed))
+                .build();
+    }
+
+    // Counts first, then the project, then the marks: a failure before the
+    // project lets the change run again, and the marks keep that from
+    // counting a key twice. Marks left by a failure after the project are
+    // never matched again and only take a little space.
+    private void apply(String projectId, FacetChange change) {
+        change.getRemoved().forEach(key -> increment(key, -1, change.getRef()));
+        change.getAdded().forEach(key -> increment(key, 1, change.getRef()));
+        projectRepository.removeFacetChange(projectId, change.getRef());
+        Query counted = new Query(Criteria.where("_id").in(concat(change.getAdded(), change.getRemoved())));
+        mongoTemplate.updateMulti(counted, new Update().pull("applied", change.getRef()), GalleryFacet.class);
+    }
+
+    private void increment(String key, int delta, String ref) {
+        int colon = key.indexOf(':');
+        Query query = new Query(Criteria.where("_id").is(key).and("applied").ne(ref));
+        Update update = new Update()
+                .setOnInsert("field", key.substring(0, colon))
+                .setOnInsert("value", key.substring(colon + 1))
+                .inc("count", delta)
+                .push("applied", ref);
+        try {
+            mongoTemplate.upsert(query, update, GalleryFacet.class);
+        } catch (DuplicateKeyException e) {
+            // the facet exists and has either taken this change already, or
+            // was created concurrently and still needs it
+            mongoTemplate.updateFirst(query, update, GalleryFacet.class);
+        }
+    }
+
+    private static List<String> concat(List<String> first, List<String> second) {
+        List<String> keys = new ArrayList<>(first);
+        keys.addAll(second);
+        return keys;
+    }
+
+    private List<FacetCountResponse> topFacets(String field, int limit) {
+        Query query = new Query(Criteria.where("field").is(field).and("count").gt(0))
+                .with(Sort.by(Sort.Direction.DESC, "count"))
+                .limit(limit);
+        return mongoTemplate.find(query, GalleryFacet.class).stream()
+                .map(facet -> new FacetCountResponse(facet.getValue(), facet.getCount()))
+                .toList();
+    }
+
+    private static void addKeys(List<String> keys, String field, List<String> values) {
+        if (values != null) {
+            values.stream()
+                    .filter(Objects::nonNull)
+                    .map(String::trim)
+                    .filter(value -> !value.isEmpty())
+                    .forEach(value -> keys.add(field + ":" + value));
+        }
+    }
+
+    // Languages are matched case-insensitively, unlike user-entered tags
+    private static List<String> normalize(List<String> languages) {
+        if (languages == null) {
+            return null;
+        }
+        return List.copyOf(languages.stream()
+                .filter(Objects::nonNull)
+                .map(language -> language.trim().toLowerCase(Locale.ROOT))
+                .filter(language -> !language.isEmpty())
+                .collect(TreeSet::new, TreeSet::add, TreeSet::addAll));
+    }
+
+    private static int forkCountOf(Project project) {
+        return project.getForkCount() != null ? project.getForkCount() : 0;
+    }
+}
@@ -0,0 +1,54 @@
+package com.vibecode.project.service;
+
+/**
+ * Bloom filter over hex SHA-256 content hashes. The hashes are already
+ * uniformly distributed, so bit positions are taken from their leading bytes
+ * mixed with a per-filter seed instead of hashing them again. May report a
+ * hash that was never added, never the reverse.
+ */
+final class HashMarks {
+
+    private final long[] words;
+    private final long bits;
+    private final int probes;
+    private final long seed;
+
+    HashMarks(long expectedEntries, int bitsPerEntry, long seed) {
+        long size = Math.max(expectedEntries, 1024) * Math.max(bitsPerEntry, 1);
+        this.words = new long[(int) Math.min((size + 63) / 64, Integer.MAX_VALUE - 8)];
+        this.bits = words.length * 64L;
+        this.probes = Math.max(1, (int) Math.round(bitsPerEntry * Math.log(2)));
+        this.seed = seed;
+    }
+
+    void add(String hash) {
+        long h1 = first(hash);
+        long h2 = second(hash);
+        for (int i = 0; i < probes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            words[(int) (bit >>> 6)] |= 1L << bit;
+        }
+    }
+
+    boolean mightContain(String hash) {
+        long h1 = first(hash);
+        long h2 = second(hash);
+        for (int i = 0; i < probes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, bits);
+            if ((words[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long first(String hash) {
+        return hash.length() >= 16 ? Long.parseUnsignedLong(hash, 0, 16, 16) ^ seed : hash.hashCode() ^ seed;
+    }
+
+    // odd, so successive probes never repeat a position early
+    private long second(String hash) {
+        long h = hash.length() >= 32 ? Long.parseUnsignedLong(hash, 16, 32, 16) : Long.rotateLeft(seed, 17) ^ hash.hashCode();
+        return (h ^ Long.rotateLeft(seed, 31)) | 1;
+    }
+}
@@ -0,0 +1,79 @@
+package com.vibecode.project.service;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Moves version history embedded in old project documents into the
+ * project_versions collection. Safe to run repeatedly: versions are upserted
+ * by (projectId, versionNumber) and the embedded array is removed last.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LegacyVersionMigration {
+
+    private static final String PROJECTS = "projects";
+    private static final String VERSIONS = "project_versions";
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        Query legacy = new Query(Criteria.where("versions").exists(true));
+        legacy.fields().include("_id").include("versions");
+
+        int migrated = 0;
+        // streamed: each document carries its whole embedded history
+        try (Stream<Document> projects = mongoTemplate.stream(legacy, Document.class, PROJECTS)) {
+            for (Iterator<Document> it = projects.iterator(); it.hasNext(); ) {
+                migrate(it.next());
+                migrated++;
+            }
+        }
+
+        if (migrated > 0) {
+            log.info("Moved embedded version history of {} projects to {}", migrated, VERSIONS);
+        }
+    }
+
+    private void migrate(Document project) {
+        String projectId = project.getObjectId("_id").toHexString();
+        List<Document> versions = project.getList("versions", Document.class, List.of());
+
+        int latest = 0;
+        for (Document version : versions) {
+            int number = version.getInteger("versionNumber", 0);
+            latest = Math.max(latest, number);
+
+            Document copy = new Document(version).append("projectId", projectId);
+            mongoTemplate.findAndReplace(
+                    new Query(Criteria.where("projectId").is(projectId).and("versionNumber").is(number)),
+                    copy,
+                    FindAndReplaceOptions.options().upsert(),
+                    Document.class,
+                    VERSIONS
+            );
+        }
+
+        mongoTemplate.updateFirst(
+                new Query(Criteria.where("_id").is(project.getObjectId("_id"))),
+                new Update().unset("versions").set("currentVersion", latest),
+                PROJECTS
+        );
+    }
+}
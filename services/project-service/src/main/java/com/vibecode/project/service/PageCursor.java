@@ -0,0 +1,51 @@
+package com.vibecode.project.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import org.bson.types.ObjectId;
+
+import com.vibecode.project.exception.InvalidRequestException;
+
+/**
+ * Opaque keyset cursors for paged lists: the sort value and id of the last
+ * item returned, URL-safe Base64 encoded. The sort value is left to the
+ * caller to parse, since it depends on the order.
+ */
+final class PageCursor {
+
+    private PageCursor() {
+    }
+
+    static String encode(String value, String id) {
+        String position = value + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** The sort value and id of a cursor; the id is always a valid ObjectId. */
+    static String[] decode(String cursor) {
+        try {
+            String[] position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", 2);
+            if (position.length != 2 || !ObjectId.isValid(position[1])) {
+                throw new IllegalArgumentException();
+            }
+            return position;
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+    }
+
+    static LocalDateTime timestamp(String value) {
+        try {
+            return LocalDateTime.parse(value);
+        } catch (DateTimeParseException e) {
+            throw invalid();
+        }
+    }
+
+    static InvalidRequestException invalid() {
+        return new InvalidRequestException("Invalid cursor");
+    }
+}
@@ -0,0 +1,209 @@
+package com.vibecode.project.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.vibecode.project.entity.ProjectFile;
+import com.vibecode.project.exception.InvalidRequestException;
+
+/**
+ * The directory tree of a file list. Looking up a file or directory walks
+ * one node per path segment instead of scanning every file, and each
+ * directory knows how many files and bytes lie beneath it, so a file browser
+ * can show one level at a time. Directories exist only while they contain
+ * files.
+ */
+public final class PathTrie {
+
+    /** A directory; entries are sorted by name. */
+    public static final class Directory {
+
+        private final String path; // empty for the root
+        private final Map<String, Directory> directories = new TreeMap<>();
+        private final Map<String, ProjectFile> files = new TreeMap<>();
+        private int fileCount; // in the whole subtree
+        private long totalBytes;
+
+        private Directory(String path) {
+            this.path = path;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public Map<String, Directory> getDirectories() {
+            return Collections.unmodifiableMap(directories);
+        }
+
+        public Map<String, ProjectFile> getFiles() {
+            return Collections.unmodifiableMap(files);
+        }
+
+        public int getFileCount() {
+            return fileCount;
+        }
+
+        public long getTotalBytes() {
+            return totalBytes;
+        }
+
+        private Directory child(String name) {
+            return directories.computeIfAbsent(name, key -> new Directory(path.isEmpty() ? key : path + "/" + key));
+        }
+
+        private void count(int files, long bytes) {
+            fileCount += files;
+            totalBytes += bytes;
+        }
+    }
+
+    private final Directory root = new Directory("");
+
+    public static PathTrie of(Collection<ProjectFile> files) {
+        PathTrie trie = new PathTrie();
+        files.forEach(trie::put);
+        return trie;
+    }
+
+    public Directory getRoot() {
+        return root;
+    }
+
+    public int size() {
+        return root.fileCount;
+    }
+
+    public ProjectFile get(String path) {
+        String[] segments = segments(path);
+        if (segments.length == 0) {
+            return null;
+        }
+        Directory parent = find(segments, segments.length - 1);
+        return parent != null ? parent.files.get(segments[segments.length - 1]) : null;
+    }
+
+    /** The directory at path, the root for an empty path, or null. */
+    public Directory directory(String path) {
+        String[] segments = segments(path);
+        return find(segments, segments.length);
+    }
+
+    /** Adds or replaces the file at its path and returns the one replaced. */
+    public ProjectFile put(ProjectFile file) {
+        String[] segments = segments(file.getPath());
+        if (segments.length == 0) {
+            throw new InvalidRequestException("Invalid path: " + file.getPath());
+        }
+
+        ProjectFile replaced = get(file.getPath());
+        int files = replaced == null ? 1 : 0;
+        long bytes = sizeOf(file) - sizeOf(replaced);
+
+        Directory directory = root;
+        directory.count(files, bytes);
+        for (int i = 0; i < segments.length - 1; i++) {
+            directory = directory.child(segments[i]);
+            directory.count(files, bytes);
+        }
+        directory.files.put(segments[segments.length - 1], file);
+        return replaced;
+    }
+
+    /** Removes the file at path and returns it, or null if there is none. */
+    public ProjectFile remove(String path) {
+        ProjectFile removed = get(path);
+        if (removed == null) {
+            return null;
+        }
+        String[] segments = segments(path);
+        detach(segments, segments.length - 1, 1, sizeOf(removed));
+        find(segments, segments.length - 1).files.remove(segments[segments.length - 1]);
+        prune(segments, segments.length - 1);
+        return removed;
+    }
+
+    /**
+     * Removes a directory with everything beneath it and returns the files
+     * removed, or an empty list if there is no such directory.
+     */
+    public List<ProjectFile> removeDirectory(String path) {
+        String[] segments = segments(path);
+        if (segments.length == 0) {
+            throw new InvalidRequestException("Cannot remove the root directory");
+        }
+        Directory directory = find(segments, segments.length);
+        if (directory == null) {
+            return List.of();
+        }
+
+        detach(segments, segments.length - 1, directory.fileCount, directory.totalBytes);
+        find(segments, segments.length - 1).directories.remove(segments[segments.length - 1]);
+        prune(segments, segments.length - 1);
+        return files(directory);
+    }
+
+    /** All files beneath a directory, in path order within each directory. */
+    public static List<ProjectFile> files(Directory directory) {
+        List<ProjectFile> files = new ArrayList<>(directory.fileCount);
+        collect(directory, files);
+        return files;
+    }
+
+    private static void collect(Directory directory, List<ProjectFile> files) {
+        files.addAll(directory.files.values());
+        for (Directory child : directory.directories.values()) {
+            collect(child, files);
+        }
+    }
+
+    // The directory reached through the first depth segments, or null
+    private Directory find(String[] segments, int depth) {
+        Directory directory = root;
+        for (int i = 0; i < depth && directory != null; i++) {
+            directory = directory.directories.get(segments[i]);
+        }
+        return directory;
+    }
+
+    // Takes the counts off the root and the first depth directories
+    private void detach(String[] segments, int depth, int files, long bytes) {
+        Directory directory = root;
+        directory.count(-files, -bytes);
+        for (int i = 0; i < depth; i++) {
+            directory = directory.directories.get(segments[i]);
+            directory.count(-files, -bytes);
+        }
+    }
+
+    // Drops directories along the path that no longer contain any files
+    private void prune(String[] segments, int depth) {
+        for (int i = depth; i > 0; i--) {
+            Directory parent = find(segments, i - 1);
+            Directory directory = parent.directories.get(segments[i - 1]);
+            if (directory.fileCount > 0) {
+                return;
+            }
+            parent.directories.remove(segments[i - 1]);
+        }
+    }
+
+    // Empty segments are ignored, so "src/", "/src" and "src" are the same directory
+    static String[] segments(String path) {
+        if (path == null || path.isEmpty()) {
+            return new String[0];
+        }
+        return Arrays.stream(path.split("/"))
+                .filter(segment -> !segment.isEmpty())
+                .toArray(String[]::new);
+    }
+
+    private static long sizeOf(ProjectFile file) {
+        return file != null && file.getSize() != null ? file.getSize() : 0;
+    }
+}
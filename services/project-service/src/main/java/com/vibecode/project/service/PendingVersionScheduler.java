@@ -0,0 +1,46 @@
+package com.vibecode.project.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.vibecode.project.repository.ProjectRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Versions PATCH edits that were left pending once editing stops, so the
+ * history never lags the files by more than the pending age. Claims are
+ * atomic, so running this on several instances is safe.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PendingVersionScheduler {
+
+    private final ProjectRepository projectRepository;
+    private final ProjectService projectService;
+
+    @Value("${project.versions.max-pending-age-ms:300000}")
+    private long maxPendingAgeMs;
+
+    @Value("${project.versions.flush-batch-size:100}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${project.versions.flush-interval-ms:30000}")
+    public void savePendingVersions() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(maxPendingAgeMs, ChronoUnit.MILLIS);
+
+        for (String projectId : projectRepository.findIdsWithPendingChanges(cutoff, batchSize)) {
+            try {
+                projectService.savePendingVersion(projectId, null);
+            } catch (RuntimeException e) {
+                log.warn("Could not version pending edits of project {}: {}", projectId, e.getMessage());
+            }
+        }
+    }
+}
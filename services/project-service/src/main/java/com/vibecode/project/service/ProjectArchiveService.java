@@ -0,0 +1,135 @@
+package com.vibecode.project.service;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.vibecode.project.entity.ProjectFile;
+import com.vibecode.project.exception.InvalidRequestException;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Project downloads as zip or tar.gz. Only file references are loaded up
+ * front; each content is streamed from the blob store into the archive while
+ * it is written, so memory use does not depend on the project size.
+ */
+@Service
+@RequiredArgsConstructor
+public class ProjectArchiveService {
+
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final ProjectService projectService;
+    private final BlobStoreService blobStoreService;
+
+    public record ProjectArchive(String filename, String contentType, StreamingResponseBody body) {
+    }
+
+    /**
+     * Checks access and resolves the file list now, so errors are reported
+     * before the response starts; the contents are read when body runs.
+     */
+    public ProjectArchive prepare(String projectId, Integer versionNumber, String format, UUID userId) {
+        boolean tar = switch (format.toLowerCase()) {
+            case "zip" -> false;
+            case "tar.gz", "tgz" -> true;
+            default -> throw new InvalidRequestException("Unsupported archive format: " + format);
+        };
+
+        List<ProjectFile> files = projectService.getFileReferences(projectId, versionNumber, userId);
+        String name = versionNumber != null ? projectId + "-v" + versionNumber : projectId;
+
+        if (tar) {
+            return new ProjectArchive(name + ".tar.gz", "application/gzip",
+                    out -> writeTarGz(files, out));
+        }
+        return new ProjectArchive(name + ".zip", "application/zip",
+                out -> writeZip(files, out));
+    }
+
+    private void writeZip(List<ProjectFile> files, OutputStream out)
+            throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        for (ProjectFile file : files) {
+            String path = entryPath(file.getPath());
+            if (path == null) {
+                continue;
+            }
+            ZipEntry entry = new ZipEntry(path);
+            entry.setTime(epochMillis(file.getUpdatedAt()));
+            zip.putNextEntry(entry);
+            try (InputStream content = openSized(file).stream()) {
+                content.transferTo(zip);
+            }
+            zip.closeEntry();
+        }
+        zip.finish(); // the response stream is closed by the container
+    }
+
+    private void writeTarGz(List<ProjectFile> files, OutputStream out)
+            throws IOException {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, GZIP_BUFFER_SIZE);
+        TarWriter tar = new TarWriter(gzip);
+        for (ProjectFile file : files) {
+            String path = entryPath(file.getPath());
+            if (path == null) {
+                continue;
+            }
+            // tar needs each size before the content
+            ContentStream content = openSized(file);
+            try (InputStream in = content.stream()) {
+                tar.putFile(path, content.size(), epochMillis(file.getUpdatedAt()) / 1000, in);
+            }
+        }
+        tar.finish();
+        gzip.finish();
+    }
+
+    private record ContentStream(InputStream stream, long size) {
+    }
+
+    private ContentStream openSized(ProjectFile file) throws IOException {
+        if (file.getContent() != null || file.getContentHash() == null) {
+            return bytes(file.getContent()); // legacy inline content
+        }
+        Resource resource = blobStoreService.openContent(file.getContentHash());
+        return new ContentStream(resource.getInputStream(), resource.contentLength());
+    }
+
+    private static ContentStream bytes(String content) {
+        byte[] bytes = content != null ? content.getBytes(StandardCharsets.UTF_8) : new byte[0];
+        return new ContentStream(new ByteArrayInputStream(bytes), bytes.length);
+    }
+
+    // Relative paths only, so extracting an archive cannot write outside its directory
+    static String entryPath(String path) {
+        List<String> segments = new ArrayList<>();
+        for (String segment : path.replace('\\', '/').split("/")) {
+            if (!segment.isEmpty() && !segment.equals(".") && !segment.equals("..")) {
+                segments.add(segment);
+            }
+        }
+        return segments.isEmpty() ? null : String.join("/", segments);
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time != null
+                ? time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,129 @@
+package com.vibecode.project.service;
+
+import java.util.Date;
+import java.util.UUID;
+
+import org.bson.Document;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.CollectionOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.CursorType;
+import com.mongodb.client.MongoCursor;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Relays {@link ProjectChangedEvent}s between project-service instances
+ * through a capped collection. Each instance appends its own changes and
+ * follows everyone else's with a tailable cursor, which works on a standalone
+ * MongoDB as well as on a replica set.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProjectChangeFeed {
+
+    private static final String COLLECTION = "project_changes";
+    private static final long RETRY_DELAY_MS = 1000;
+
+    private final MongoTemplate mongoTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProjectFilesCache projectFilesCache;
+
+    private final String instanceId = UUID.randomUUID().toString();
+    private volatile boolean running;
+
+    @Value("${project.cache.change-feed.enabled:true}")
+    private boolean enabled;
+
+    @Value("${project.cache.change-feed.size-bytes:1048576}")
+    private long sizeBytes;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        if (!mongoTemplate.collectionExists(COLLECTION)) {
+            try {
+                mongoTemplate.createCollection(COLLECTION, CollectionOptions.empty().capped().size(sizeBytes));
+            } catch (DataAccessException e) {
+                log.debug("Change feed collection created concurrently: {}", e.getMessage());
+            }
+        }
+        // a tailable cursor on an empty capped collection closes immediately
+        mongoTemplate.insert(change(null), COLLECTION);
+
+        running = true;
+        Thread.ofPlatform().daemon().name("project-change-feed").start(this::follow);
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stop() {
+        running = false;
+    }
+
+    @EventListener
+    public void onProjectChanged(ProjectChangedEvent event) {
+        if (!enabled || event.remote()) {
+            return;
+        }
+        try {
+            mongoTemplate.insert(change(event.projectId()), COLLECTION);
+        } catch (DataAccessException e) {
+            // other instances keep their entry until it expires
+            log.warn("Could not publish change of project {}: {}", event.projectId(), e.getMessage());
+        }
+    }
+
+    private void follow() {
+        boolean reopened = false;
+        while (running) {
+            // Each cursor starts at the oldest retained change. Replaying them
+            // is harmless, and clearing the cache covers anything that aged
+            // out of the collection while no cursor was open.
+            try (MongoCursor<Document> cursor = mongoTemplate.getCollection(COLLECTION)
+                    .find()
+                    .cursorType(CursorType.TailableAwait)
+                    .iterator()) {
+                if (reopened) {
+                    projectFilesCache.invalidateAll();
+                }
+                reopened = true;
+
+                while (running && cursor.hasNext()) {
+                    Document change = cursor.next();
+                    String projectId = change.getString("projectId");
+                    if (projectId != null && !instanceId.equals(change.getString("instanceId"))) {
+                        eventPublisher.publishEvent(new ProjectChangedEvent(projectId, true));
+                    }
+                }
+            } catch (RuntimeException e) {
+                if (running) {
+                    log.warn("Project change feed interrupted, reconnecting: {}", e.getMessage());
+                }
+            }
+
+            try {
+                Thread.sleep(RETRY_DELAY_MS);
+            } catch (InterruptedException e) {
+                return;
+            }
+        }
+    }
+
+    private Document change(String projectId) {
+        return new Document("projectId", projectId)
+                .append("instanceId", instanceId)
+                .append("at", new Date());
+    }
+}
@@ -0,0 +1,12 @@
+package com.vibecode.project.service;
+
+/**
+ * Published after a project's files were created, replaced or edited. Remote
+ * events were relayed from another instance by {@link ProjectChangeFeed}.
+ */
+public record ProjectChangedEvent(String projectId, boolean remote) {
+
+    public ProjectChangedEvent(String projectId) {
+        this(projectId, false);
+    }
+}
@@ -0,0 +1,159 @@
+package com.vibecode.project.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.vibecode.project.diff.LineDiff;
+import com.vibecode.project.diff.UnifiedDiff;
+import com.vibecode.project.entity.ProjectFile;
+
+/**
+ * Unified diffs between two versions. File lists are compared by content
+ * hash, so only files that actually changed are loaded and diffed, one at a
+ * time while the response is written.
+ */
+@Service
+public class ProjectDiffService {
+
+    private final ProjectService projectService;
+    private final BlobStoreService blobStoreService;
+
+    // hunks of large diffs by content hash pair; versions never change, so entries never go stale
+    private final LruCache<String, String> hunkCache;
+
+    @Value("${project.diff.max-diff-bytes:1048576}")
+    private int maxDiffBytes;
+
+    @Value("${project.diff.cache-min-lines:2000}")
+    private int cacheMinLines;
+
+    @Value("${project.diff.cache-max-bytes:262144}")
+    private int cacheMaxBytes;
+
+    public ProjectDiffService(
+            ProjectService projectService,
+            BlobStoreService blobStoreService,
+            @Value("${project.diff.cache-size:256}") int cacheSize
+    ) {
+        this.projectService = projectService;
+        this.blobStoreService = blobStoreService;
+        this.hunkCache = new LruCache<>(cacheSize);
+    }
+
+    private record FileDelta(String path, ProjectFile before, ProjectFile after) {
+    }
+
+    /**
+     * Checks access and compares the file lists now; the contents of changed
+     * files are read and diffed when the body is written.
+     */
+    public StreamingResponseBody diff(String projectId, int from, int to, int context, UUID userId) {
+        Map<String, ProjectFile> before = byPath(projectService.getFileReferences(projectId, from, userId));
+        Map<String, ProjectFile> after = byPath(projectService.getFileReferences(projectId, to, userId));
+
+        List<FileDelta> deltas = new ArrayList<>();
+        TreeSet<String> paths = new TreeSet<>(before.keySet());
+        paths.addAll(after.keySet());
+        for (String path : paths) {
+            ProjectFile a = before.get(path);
+            ProjectFile b = after.get(path);
+            if (a == null || b == null || !Objects.equals(hashOf(a), hashOf(b))) {
+                deltas.add(new FileDelta(path, a, b));
+            }
+        }
+
+        int contextLines = Math.max(0, context);
+        return out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            for (FileDelta delta : deltas) {
+                writeFile(delta, contextLines, writer);
+                writer.flush(); // each file reaches the client as soon as it is diffed
+            }
+            writer.flush();
+        };
+    }
+
+    private void writeFile(FileDelta delta, int context, Writer out)
+            throws IOException {
+        String path = delta.path();
+        out.append("diff --git a/").append(path).append(" b/").append(path).append('\n');
+        if (delta.before() == null) {
+            out.append("new file\n");
+        } else if (delta.after() == null) {
+            out.append("deleted file\n");
+        }
+
+        String a = delta.before() != null ? contentOf(delta.before()) : "";
+        String b = delta.after() != null ? contentOf(delta.after()) : "";
+        if (a.length() > maxDiffBytes || b.length() > maxDiffBytes) {
+            out.append("Files a/").append(path).append(" and b/").append(path).append(" differ\n");
+            return;
+        }
+
+        out.append("--- ").append(delta.before() != null ? "a/" + path : "/dev/null").append('\n');
+        out.append("+++ ").append(delta.after() != null ? "b/" + path : "/dev/null").append('\n');
+
+        String key = hashOf(delta.before()) + ":" + hashOf(delta.after()) + ":" + context;
+        String cached = hunkCache.get(key);
+        if (cached != null) {
+            out.append(cached);
+            return;
+        }
+
+        List<String> aLines = LineDiff.splitLines(a);
+        List<String> bLines = LineDiff.splitLines(b);
+        List<LineDiff.Region> regions = LineDiff.diff(aLines, bLines);
+
+        if (aLines.size() + bLines.size() < cacheMinLines) {
+            UnifiedDiff.writeHunks(aLines, bLines, regions, context, out);
+            return;
+        }
+        StringBuilder hunks = new StringBuilder();
+        UnifiedDiff.writeHunks(aLines, bLines, regions, context, hunks);
+        if (hunks.length() <= cacheMaxBytes) {
+            hunkCache.put(key, hunks.toString());
+        }
+        out.append(hunks);
+    }
+
+    private String contentOf(ProjectFile file) {
+        if (file.getContent() != null || file.getContentHash() == null) {
+            return file.getContent() != null ? file.getContent() : ""; // legacy inline content
+        }
+        String content = blobStoreService.getContents(List.of(file.getContentHash())).get(file.getContentHash());
+        if (content == null) {
+            throw new RuntimeException("File content not found: " + file.getPath());
+        }
+        return content;
+    }
+
+    private static Map<String, ProjectFile> byPath(List<ProjectFile> files) {
+        Map<String, ProjectFile> byPath = new TreeMap<>();
+        files.forEach(file -> byPath.put(file.getPath(), file));
+        return byPath;
+    }
+
+    private static String hashOf(ProjectFile file) {
+        if (file == null) {
+            return "";
+        }
+        if (file.getContentHash() != null) {
+            return file.getContentHash();
+        }
+        return BlobStoreService.sha256(file.getContent() != null ? file.getContent() : "");
+    }
+}
@@ -0,0 +1,115 @@
+package com.vibecode.project.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.vibecode.project.entity.ProjectFile;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Access fields and current file references of recently read projects, and
+ * separately the contents of recently read blobs, each bounded by its
+ * approximate size. Project entries are dropped on every
+ * {@link ProjectChangedEvent}, local or relayed from another instance;
+ * contents are keyed by their hash, so they never go stale.
+ */
+@Component
+public class ProjectFilesCache {
+
+    /**
+     * A project as of one revision; neither the files nor the tree may be
+     * modified. Files carry no content unless it is stored inline.
+     */
+    public record CachedProject(
+            String id,
+            UUID ownerId,
+            String visibility,
+            long revision,
+            List<ProjectFile> files,
+            PathTrie tree
+    ) {
+    }
+
+    private final Cache<String, CachedProject> cache;
+    private final Cache<String, String> contents;
+
+    public ProjectFilesCache(
+            MeterRegistry meterRegistry,
+            @Value("${project.cache.max-bytes:16777216}") long maxBytes,
+            @Value("${project.cache.content-max-bytes:67108864}") long contentMaxBytes,
+            @Value("${project.cache.ttl-ms:600000}") long ttlMs
+    ) {
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String id, CachedProject project) -> weigh(project))
+                .expireAfterWrite(Duration.ofMillis(ttlMs)) // bounds staleness if a notification is lost
+                .recordStats()
+                .build();
+        this.contents = Caffeine.newBuilder()
+                .maximumWeight(contentMaxBytes)
+                .weigher((String hash, String content) -> 64 + 2 * content.length())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "project.files");
+        CaffeineCacheMetrics.monitor(meterRegistry, contents, "project.contents");
+    }
+
+    /**
+     * Returns the cached project or loads it. An invalidation that arrives
+     * while the project is loading waits for the load and then removes it, so
+     * a read racing a write never leaves the old files cached.
+     */
+    public CachedProject get(String projectId, Function<String, CachedProject> loader) {
+        return cache.get(projectId, loader);
+    }
+
+    public CachedProject getIfPresent(String projectId) {
+        return cache.getIfPresent(projectId);
+    }
+
+    /**
+     * Contents by hash; those not cached are read with one call to loader.
+     * Hashes the loader does not find are missing from the result.
+     */
+    public Map<String, String> getContents(
+            Collection<String> hashes,
+            Function<Collection<String>, Map<String, String>> loader
+    ) {
+        return contents.getAll(hashes, missing -> loader.apply(List.copyOf(missing)));
+    }
+
+    @EventListener
+    public void onProjectChanged(ProjectChangedEvent event) {
+        cache.invalidate(event.projectId());
+    }
+
+    /** Drops every project, for when change notifications may have been missed. */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    // Strings are counted at two bytes per char, plus a rough per-object
+    // overhead that includes the file's entry in the tree
+    private static int weigh(CachedProject project) {
+        long bytes = 128;
+        for (ProjectFile file : project.files()) {
+            bytes += 160 + 2L * file.getPath().length();
+            if (file.getContent() != null) {
+                bytes += 2L * file.getContent().length();
+            }
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+}
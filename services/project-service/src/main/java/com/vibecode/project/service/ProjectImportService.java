@@ -0,0 +1,280 @@
+package com.vibecode.project.service;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.vibecode.project.dto.ProjectImportResponse;
+import com.vibecode.project.entity.Project;
+import com.vibecode.project.entity.ProjectFile;
+import com.vibecode.project.exception.InvalidRequestException;
+
+/**
+ * Creates a version from an uploaded zip or tarball. Entries are unpacked one
+ * at a time from the request stream; decoding, hashing, compression and the
+ * blob writes run on a bounded pool, and a per-request limit on entries in
+ * flight caps how much content is held at once.
+ */
+@Service
+public class ProjectImportService {
+
+    private static final Map<String, String> LANGUAGES = Map.ofEntries(
+            Map.entry("js", "javascript"), Map.entry("jsx", "javascript"), Map.entry("mjs", "javascript"),
+            Map.entry("ts", "typescript"), Map.entry("tsx", "typescript"), Map.entry("py", "python"),
+            Map.entry("java", "java"), Map.entry("kt", "kotlin"), Map.entry("go", "go"), Map.entry("rs", "rust"),
+            Map.entry("rb", "ruby"), Map.entry("php", "php"), Map.entry("cs", "csharp"), Map.entry("c", "c"),
+            Map.entry("h", "c"), Map.entry("cpp", "cpp"), Map.entry("html", "html"), Map.entry("css", "css"),
+            Map.entry("scss", "scss"), Map.entry("json", "json"), Map.entry("md", "markdown"),
+            Map.entry("yml", "yaml"), Map.entry("yaml", "yaml"), Map.entry("xml", "xml"), Map.entry("sql", "sql"),
+            Map.entry("sh", "shell"), Map.entry("vue", "vue"), Map.entry("svelte", "svelte"));
+
+    private final ProjectService projectService;
+    private final BlobStoreService blobStoreService;
+    private final ExecutorService executor;
+
+    @Value("${project.import.max-in-flight:16}")
+    private int maxInFlight;
+
+    @Value("${project.import.max-file-bytes:1048576}")
+    private int maxFileBytes;
+
+    @Value("${project.import.max-total-bytes:209715200}")
+    private long maxTotalBytes;
+
+    @Value("${project.import.max-files:20000}")
+    private int maxFiles;
+
+    @Value("#{'${project.import.ignored:node_modules,.git,.svn,.hg,dist,build,target,out,.next,.nuxt,.cache,coverage,__pycache__,.venv,venv,.idea,.vscode,.gradle,.DS_Store,Thumbs.db}'.split(',')}")
+    private Set<String> ignored;
+
+    public ProjectImportService(
+            ProjectService projectService,
+            BlobStoreService blobStoreService,
+            @Value("${project.import.threads:0}") int threads
+    ) {
+        this.projectService = projectService;
+        this.blobStoreService = blobStoreService;
+        this.executor = Executors.newFixedThreadPool(
+                threads > 0 ? threads : Runtime.getRuntime().availableProcessors(),
+                Thread.ofPlatform().daemon().name("project-import-", 0).factory());
+    }
+
+    private final class ImportRun {
+
+        final Semaphore inFlight = new Semaphore(maxInFlight);
+        final List<Future<ProjectFile>> pending = new ArrayList<>();
+        final LocalDateTime now = LocalDateTime.now();
+        long totalBytes;
+        int ignoredFiles;
+        int skippedFiles;
+    }
+
+    public ProjectImportResponse importArchive(
+            String projectId,
+            InputStream body,
+            String format,
+            String versionMessage,
+            UUID userId
+    ) {
+        // fail before reading the upload
+        projectService.checkWriteAccess(projectId, userId);
+
+        ImportRun run = new ImportRun();
+        try {
+            switch (format.toLowerCase(Locale.ROOT)) {
+                case "zip" -> readZip(new ZipInputStream(new BufferedInputStream(body), StandardCharsets.UTF_8), run);
+                case "tar" -> readTar(new TarReader(new BufferedInputStream(body)), run);
+                case "tar.gz", "tgz" -> readTar(new TarReader(new BufferedInputStream(new GZIPInputStream(body, 64 * 1024))), run);
+                default -> throw new InvalidRequestException("Unsupported archive format: " + format);
+            }
+        } catch (IOException e) {
+            run.pending.forEach(future -> future.cancel(true));
+            throw new InvalidRequestException("Could not read archive: " + e.getMessage());
+        } catch (RuntimeException e) {
+            run.pending.forEach(future -> future.cancel(true));
+            throw e;
+        }
+
+        // a later entry for the same path replaces an earlier one
+        Map<String, ProjectFile> files = new LinkedHashMap<>();
+        for (Future<ProjectFile> future : run.pending) {
+            ProjectFile file = await(future);
+            if (file != null) {
+                files.put(file.getPath(), file);
+            } else {
+                run.skippedFiles++;
+            }
+        }
+        List<ProjectFile> references = stripCommonRoot(new ArrayList<>(files.values()));
+
+        Project updated = projectService.replaceFileReferences(projectId, references, versionMessage, userId);
+        return ProjectImportResponse.builder()
+                .projectId(projectId)
+                .versionNumber(updated.getCurrentVersion())
+                .revision(updated.getRevision())
+                .importedFiles(references.size())
+                .ignoredFiles(run.ignoredFiles)
+                .skippedFiles(run.skippedFiles)
+                .build();
+    }
+
+    private void readZip(ZipInputStream zip, ImportRun run) throws IOException {
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (!entry.isDirectory()) {
+                accept(entry.getName(), entry.getSize(), zip, run);
+            }
+        }
+    }
+
+    private void readTar(TarReader tar, ImportRun run) throws IOException {
+        TarReader.Entry entry;
+        while ((entry = tar.next()) != null) {
+            accept(entry.path(), entry.size(), tar.content(), run);
+        }
+    }
+
+    // Reads one entry on the request thread and hands the bytes to the pool
+    private void accept(String name, long size, InputStream content, ImportRun run) throws IOException {
+        String path = ProjectArchiveService.entryPath(name);
+        if (path == null) {
+            return;
+        }
+        if (isIgnored(path)) {
+            run.ignoredFiles++;
+            return;
+        }
+        if (size > maxFileBytes) {
+            run.skippedFiles++;
+            return;
+        }
+
+        byte[] bytes = content.readNBytes(maxFileBytes + 1);
+        if (bytes.length > maxFileBytes) {
+            run.skippedFiles++;
+            return;
+        }
+        run.totalBytes += bytes.length;
+        if (run.totalBytes > maxTotalBytes) {
+            throw new InvalidRequestException("Archive exceeds the import limit of " + maxTotalBytes + " bytes");
+        }
+        if (run.pending.size() >= maxFiles) {
+            throw new InvalidRequestException("Archive has more than " + maxFiles + " files");
+        }
+
+        try {
+            run.inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Import interrupted");
+        }
+        try {
+            run.pending.add(executor.submit(() -> {
+                try {
+                    return store(path, bytes, run.now);
+                } finally {
+                    run.inFlight.release();
+                }
+            }));
+        } catch (RuntimeException e) {
+            run.inFlight.release();
+            throw e;
+        }
+    }
+
+    // Returns null for content that is not UTF-8 text
+    private ProjectFile store(String path, byte[] bytes, LocalDateTime now) {
+        String content;
+        try {
+            content = StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPORT)
+                    .onUnmappableCharacter(CodingErrorAction.REPORT)
+                    .decode(ByteBuffer.wrap(bytes))
+                    .toString();
+        } catch (CharacterCodingException e) {
+            return null;
+        }
+        if (content.indexOf('\0') >= 0) {
+            return null;
+        }
+
+        String filename = path.substring(path.lastIndexOf('/') + 1);
+        String language = languageOf(filename);
+        String hash = blobStoreService.putAll(List.of(content), language != null ? List.of(language) : null).get(0);
+
+        return ProjectFile.builder()
+                .path(path)
+                .filename(filename)
+                .language(language)
+                .contentHash(hash)
+                .size((long) bytes.length)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    private boolean isIgnored(String path) {
+        for (String segment : path.split("/")) {
+            if (ignored.contains(segment)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Archives exported from GitHub and the like wrap everything in one top-level directory
+    private static List<ProjectFile> stripCommonRoot(List<ProjectFile> files) {
+        Set<String> roots = files.stream()
+                .map(file -> file.getPath().contains("/") ? file.getPath().substring(0, file.getPath().indexOf('/')) : "")
+                .collect(Collectors.toSet());
+        if (roots.size() != 1 || roots.contains("")) {
+            return files;
+        }
+        int prefix = roots.iterator().next().length() + 1;
+        files.forEach(file -> file.setPath(file.getPath().substring(prefix)));
+        return files;
+    }
+
+    static String languageOf(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot >= 0 ? LANGUAGES.get(filename.substring(dot + 1).toLowerCase(Locale.ROOT)) : null;
+    }
+
+    private static ProjectFile await(Future<ProjectFile> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Import interrupted");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Could not store imported file", e.getCause());
+        }
+    }
+}
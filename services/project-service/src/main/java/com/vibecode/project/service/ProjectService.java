@@ -1,18 +1,51 @@
 package com.vibecode.project.service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
+import java.util.function.BiFunction;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import com.vibecode.project.dto.CreateProjectRequest;
+import com.vibecode.project.dto.FileMetadataResponse;
+import com.vibecode.project.dto.PatchProjectFilesRequest;
+import com.vibecode.project.dto.ProjectFileListResponse;
 import com.vibecode.project.dto.ProjectFilesResponse;
+import com.vibecode.project.dto.ProjectPageResponse;
+import com.vibecode.project.dto.ProjectSummaryResponse;
+import com.vibecode.project.dto.ProjectTreeResponse;
+import com.vibecode.project.dto.ProjectVersionResponse;
+import com.vibecode.project.dto.TreeEntryResponse;
+import com.vibecode.project.dto.VersionPageResponse;
+import com.vibecode.project.dto.VersionSummaryResponse;
 import com.vibecode.project.entity.Project;
 import com.vibecode.project.entity.ProjectFile;
+import com.vibecode.project.entity.ProjectStats;
 import com.vibecode.project.entity.ProjectVersion;
+import com.vibecode.project.exception.InvalidRequestException;
+import com.vibecode.project.exception.ProjectAccessDeniedException;
+import com.vibecode.project.exception.ProjectConflictException;
+import com.vibecode.project.exception.ProjectNotFoundException;
+import com.vibecode.project.repository.ProjectAccessView;
+import com.vibecode.project.repository.ProjectFilesView;
+import com.vibecode.project.repository.ProjectMetadataView;
 import com.vibecode.project.repository.ProjectRepository;
+import com.vibecode.project.service.ProjectFilesCache.CachedProject;
 
 import lombok.RequiredArgsConstructor;
 
@@ -21,6 +54,21 @@ import lombok.RequiredArgsConstructor;
 public class ProjectService {
 
     private final ProjectRepository projectRepository;
+    private final BlobStoreService blobStoreService;
+    private final VersionHistoryService versionHistoryService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProjectFilesCache projectFilesCache;
+    private final ForkLineageService forkLineageService;
+
+    @Value("${project.versions.max-pending-changes:50}")
+    private int maxPendingChanges;
+
+    @Value("${project.versions.max-pending-age-ms:300000}")
+    private long maxPendingAgeMs;
+
+    private static final int MAX_PATCH_ATTEMPTS = 3;
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_TREE_DEPTH = 8;
 
     public Project createProject(CreateProjectRequest request, UUID ownerId) {
         LocalDateTime now = LocalDateTime.now();
@@ -30,142 +78,642 @@ public class ProjectService {
                 .description(request.getDescription())
                 .techStack(request.getTechStack())
                 .tags(request.getTags())
-                .visibility(request.getVisibility())
+                .visibility(visibilityOf(request.getVisibility()))
+                .revision(0L)
                 .files(new ArrayList<>())
-                .versions(new ArrayList<>())
                 .prompts(new ArrayList<>())
+                .currentVersion(1)
+                .stats(ProjectStats.builder()
+                        .fileCount(0)
+                        .totalBytes(0L)
+                        .languageBytes(new HashMap<>())
+                        .versionCount(1)
+                        .since(now)
+                        .build())
+                .ancestors(new ArrayList<>())
+                .forkCount(0)
+                .descendantCount(0)
+                .pendingChanges(0)
+                .lastVersionAt(now)
                 .createdAt(now)
                 .updatedAt(now)
                 .build();
-        ProjectVersion version = ProjectVersion.builder()
-                .versionNumber(1)
-                .message("Initial Project version")
-                .filesSnapshot(new ArrayList<>())
-                .createdAt(now)
+        Project saved = projectRepository.save(project);
+
+        versionHistoryService.recordVersion(saved.getId(), 1, "Initial Project version", new ArrayList<>(), now);
+        eventPublisher.publishEvent(new ProjectChangedEvent(saved.getId()));
+        return saved;
+    }
+
+    /**
+     * The owner's projects, most recently updated first. The cursor encodes
+     * the (updatedAt, id) of the last project returned, so each page is an
+     * index range scan rather than a skip over earlier pages.
+     */
+    public ProjectPageResponse listProjects(UUID ownerId, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+
+        LocalDateTime updatedBefore = null;
+        String idBefore = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] position = PageCursor.decode(cursor);
+            updatedBefore = PageCursor.timestamp(position[0]);
+            idBefore = position[1];
+        }
+
+        // one extra row tells whether another page follows
+        List<Project> projects = projectRepository.findOwnerPage(ownerId, updatedBefore, idBefore, size + 1);
+        boolean hasMore = projects.size() > size;
+        if (hasMore) {
+            projects = projects.subList(0, size);
+        }
+
+        String nextCursor = null;
+        if (hasMore) {
+            Project last = projects.get(projects.size() - 1);
+            nextCursor = PageCursor.encode(String.valueOf(last.getUpdatedAt()), last.getId());
+        }
+
+        return ProjectPageResponse.builder()
+                .projects(projects.stream()
+                        .map(project -> ProjectSummaryResponse.builder()
+                        .id(project.getId())
+                        .name(project.getName())
+                        .description(project.getDescription())
+                        .techStack(project.getTechStack())
+                        .tags(project.getTags())
+                        .languages(project.getLanguages())
+                        .visibility(project.getVisibility())
+                        .currentVersion(project.getCurrentVersion())
+                        .parentProjectId(project.getParentProjectId())
+                        .forkCount(project.getForkCount())
+                        .stats(project.getStats())
+                        .updatedAt(project.getUpdatedAt())
+                        .build())
+                        .toList())
+                .nextCursor(nextCursor)
                 .build();
-        project.getVersions().add(version);
-        return projectRepository.save(project);
     }
 
     public ProjectFilesResponse getProjectFiles(String projectId, UUID userId) {
-        Project project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new RuntimeException("Project not found"));
-        boolean isOwner = project.getOwnerId().equals(userId);
-        boolean isPublic = "public".equalsIgnoreCase(project.getVisibility());
+        CachedProject project = cachedProject(projectId);
+        checkReadAccess(project.ownerId(), project.visibility(), userId);
 
-        if (!isOwner && !isPublic) {
-            throw new RuntimeException("Access denied");
-        }
         return ProjectFilesResponse.builder()
-                .projectId(project.getId())
-                .files(project.getFiles())
+                .projectId(project.id())
+                .revision(project.revision())
+                .files(withContents(project.files()))
                 .build();
     }
 
-    public Project forkProject(String projectId, UUID requestId) {
+    public ProjectFileListResponse listFileMetadata(String projectId, UUID userId) {
+        CachedProject project = cachedProject(projectId);
+        checkReadAccess(project.ownerId(), project.visibility(), userId);
 
-        Project original = projectRepository.findById(projectId)
-                .orElseThrow(() -> new RuntimeException("Project not found"));
+        return ProjectFileListResponse.builder()
+                .projectId(project.id())
+                .revision(project.revision())
+                .files(project.files().stream()
+                        .map(file -> FileMetadataResponse.builder()
+                        .path(file.getPath())
+                        .filename(file.getFilename())
+                        .language(file.getLanguage())
+                        .contentHash(contentHashOf(file))
+                        .size(file.getSize())
+                        .updatedAt(file.getUpdatedAt())
+                        .build())
+                        .toList())
+                .build();
+    }
 
-        boolean isOwner = original.getOwnerId().equals(requestId);
-        boolean isPublic = "public".equalsIgnoreCase(original.getVisibility());
+    /**
+     * One directory of the current files, with its subdirectories expanded
+     * depth - 1 levels further. Clients fetch deeper directories as they are
+     * opened, so a project of any size is browsed a level at a time.
+     */
+    public ProjectTreeResponse getTree(String projectId, String path, int depth, UUID userId) {
+        if (depth < 1 || depth > MAX_TREE_DEPTH) {
+            throw new InvalidRequestException("depth must be between 1 and " + MAX_TREE_DEPTH);
+        }
+        CachedProject project = cachedProject(projectId);
+        checkReadAccess(project.ownerId(), project.visibility(), userId);
 
-        if (!isOwner && !isPublic) {
-            throw new RuntimeException("Access denied");
+        PathTrie.Directory directory = project.tree().directory(path);
+        if (directory == null) {
+            throw new ProjectNotFoundException("Directory not found: " + path);
         }
 
-        LocalDateTime now = LocalDateTime.now();
-        //Deep copy files
-        // Deep copy files
-        List<ProjectFile> copiedFiles = original.getFiles()
-                .stream()
-                .map(file -> ProjectFile.builder()
+        return ProjectTreeResponse.builder()
+                .projectId(project.id())
+                .revision(project.revision())
+                .path(directory.getPath())
+                .fileCount(directory.getFileCount())
+                .size(directory.getTotalBytes())
+                .entries(treeEntries(directory, depth))
+                .build();
+    }
+
+    // Directories first, then files, each sorted by name
+    private static List<TreeEntryResponse> treeEntries(PathTrie.Directory directory, int depth) {
+        List<TreeEntryResponse> entries = new ArrayList<>(
+                directory.getDirectories().size() + directory.getFiles().size());
+
+        directory.getDirectories().forEach((name, child) -> entries.add(TreeEntryResponse.builder()
+                .name(name)
+                .path(child.getPath())
+                .type(TreeEntryResponse.DIRECTORY)
+                .fileCount(child.getFileCount())
+                .size(child.getTotalBytes())
+                .entries(depth > 1 ? treeEntries(child, depth - 1) : null)
+                .build()));
+
+        directory.getFiles().forEach((name, file) -> entries.add(TreeEntryResponse.builder()
+                .name(name)
                 .path(file.getPath())
-                .filename(file.getFilename())
+                .type(TreeEntryResponse.FILE)
                 .language(file.getLanguage())
-                .content(file.getContent())
+                .contentHash(contentHashOf(file))
                 .size(file.getSize())
-                .createdAt(now)
-                .updatedAt(now)
-                .build())
-                .toList();
+                .updatedAt(file.getUpdatedAt())
+                .build()));
+
+        return entries;
+    }
+
+    /** The current file reference at path, with its content hash always set. */
+    public ProjectFile getFile(String projectId, String path, UUID userId) {
+        CachedProject cached = projectFilesCache.getIfPresent(projectId);
+        if (cached != null) {
+            checkReadAccess(cached.ownerId(), cached.visibility(), userId);
+            ProjectFile file = cached.tree().get(path);
+            if (file == null) {
+                throw new ProjectNotFoundException("File not found: " + path);
+            }
+            return withHash(copyOf(file)); // cached files are shared
+        }
+
+        // usually a single-element read; forks without own files need the full list
+        Project project = projectRepository.findWithFile(projectId, path);
+        if (project != null) {
+            checkReadAccess(project.getOwnerId(), project.getVisibility(), userId);
+            return withHash(project.getFiles().get(0));
+        }
 
-        // Deep copy versions
-        List<ProjectVersion> copiedVersions = original.getVersions()
-                .stream()
-                .map(version -> ProjectVersion.builder()
+        ProjectFilesView files = findProject(projectId, ProjectFilesView.class);
+        checkReadAccess(files, userId);
+        return currentFiles(files).stream()
+                .filter(file -> file.getPath().equals(path))
+                .findFirst()
+                .map(ProjectService::withHash)
+                .orElseThrow(() -> new ProjectNotFoundException("File not found: " + path));
+    }
+
+    /** File references, without contents, of the current files or of a version. */
+    public List<ProjectFile> getFileReferences(String projectId, Integer versionNumber, UUID userId) {
+        ProjectFilesView project = findProject(projectId, ProjectFilesView.class);
+        checkReadAccess(project, userId);
+
+        return versionNumber != null
+                ? versionHistoryService.getSnapshot(projectId, versionNumber)
+                : currentFiles(project);
+    }
+
+    public Resource openContent(ProjectFile file) {
+        if (file.getContent() != null) {
+            return new ByteArrayResource(file.getContent().getBytes(StandardCharsets.UTF_8));
+        }
+        return blobStoreService.openContent(file.getContentHash());
+    }
+
+    public VersionPageResponse listVersions(String projectId, UUID userId, int page, int size) {
+        checkReadAccess(findProject(projectId, ProjectAccessView.class), userId);
+
+        Page<ProjectVersion> versions = versionHistoryService.listVersions(
+                projectId,
+                PageRequest.of(
+                        Math.max(page, 0),
+                        Math.max(1, Math.min(size, MAX_PAGE_SIZE)),
+                        Sort.by(Sort.Direction.DESC, "versionNumber"))
+        );
+
+        return VersionPageResponse.builder()
+                .projectId(projectId)
+                .versions(versions.getContent().stream()
+                        .map(version -> VersionSummaryResponse.builder()
+                        .versionNumber(version.getVersionNumber())
+                        .message(version.getMessage())
+                        .squashedCount(version.getSquashedCount())
+                        .createdAt(version.getCreatedAt())
+                        .build())
+                        .toList())
+                .page(versions.getNumber())
+                .size(versions.getSize())
+                .totalElements(versions.getTotalElements())
+                .totalPages(versions.getTotalPages())
+                .build();
+    }
+
+    public ProjectVersionResponse getVersion(String projectId, int versionNumber, UUID userId) {
+        checkReadAccess(findProject(projectId, ProjectAccessView.class), userId);
+
+        ProjectVersion version = versionHistoryService.findVersion(projectId, versionNumber)
+                .orElseThrow(() -> new ProjectNotFoundException("Version not found"));
+
+        return ProjectVersionResponse.builder()
+                .projectId(projectId)
                 .versionNumber(version.getVersionNumber())
                 .message(version.getMessage())
-                .filesSnapshot(copiedFiles)
-                .createdAt(now)
-                .build())
-                .toList();
+                .createdAt(version.getCreatedAt())
+                .files(versionHistoryService.getVersionFiles(projectId, versionNumber))
+                .build();
+    }
 
+    public Project forkProject(String projectId, UUID requestId) {
+
+        ProjectMetadataView original = findProject(projectId, ProjectMetadataView.class);
+        checkReadAccess(original, requestId);
+
+        // Nothing is copied: the fork reads the parent's files and history up
+        // to the fork point until it writes its own. Forking a fork that has
+        // not written anything yet points straight at that fork's base.
+        Integer forkVersion = original.getCurrentVersion();
+        if (original.getPendingChanges() != null && original.getPendingChanges() > 0) {
+            // edits since the last version are not in the shared history yet
+            Project versioned = savePendingVersion(original.getId(), null);
+            forkVersion = versioned != null
+                    ? versioned.getCurrentVersion()
+                    : findProject(projectId, ProjectMetadataView.class).getCurrentVersion();
+        }
+
+        String baseProjectId = original.getId();
+        if (original.getBaseProjectId() != null
+                && Objects.equals(original.getBaseVersion(), forkVersion)) {
+            baseProjectId = original.getBaseProjectId();
+        }
+
+        List<String> ancestors = new ArrayList<>(forkLineageService.ancestorsOf(original));
+        ancestors.add(original.getId());
+
+        // same files as the parent; the shared versions stay counted on the parent
+        ProjectStats stats = original.getStats() == null ? null : ProjectStats.builder()
+                .fileCount(original.getStats().getFileCount())
+                .totalBytes(original.getStats().getTotalBytes())
+                .languageBytes(original.getStats().getLanguageBytes())
+                .versionCount(0)
+                .since(LocalDateTime.now())
+                .build();
+
+        LocalDateTime now = LocalDateTime.now();
         Project forked = Project.builder()
                 .ownerId(requestId)
                 .name(original.getName() + " (Fork)")
                 .description(original.getDescription())
                 .techStack(original.getTechStack())
                 .tags(original.getTags())
-                .files(copiedFiles)
-                .versions(copiedVersions)
+                .revision(0L)
                 .prompts(new ArrayList<>()) // do not copy prompt history
-                .visibility("PRIVATE") // forks start private
+                .currentVersion(forkVersion)
+                .stats(stats)
+                .ancestors(ancestors)
+                .forkCount(0)
+                .descendantCount(0)
+                .pendingChanges(0)
+                .lastVersionAt(now)
+                .baseProjectId(baseProjectId)
+                .baseVersion(forkVersion)
+                .visibility(visibilityOf(null)) // forks start private
                 .parentProjectId(original.getId())
                 .forkedFromUserId(original.getOwnerId())
                 .createdAt(now)
                 .updatedAt(now)
                 .build();
-
-        return projectRepository.save(forked);
+        Project saved = projectRepository.save(forked);
+        projectRepository.recordFork(original.getId(), ancestors);
+        eventPublisher.publishEvent(new ProjectChangedEvent(saved.getId()));
+        return saved;
     }
 
     public Project updateProjectFiles(
             String projectId,
             List<ProjectFile> updatedFiles,
             String versionMessage,
+            Long expectedRevision,
             UUID userId
     ) {
-        Project project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new RuntimeException("Project not found"));
+        ProjectMetadataView project = findProject(projectId, ProjectMetadataView.class);
 
         if (!project.getOwnerId().equals(userId)) {
-            throw new RuntimeException("Access denied");
+            throw new ProjectAccessDeniedException("Access denied");
         }
 
         LocalDateTime now = LocalDateTime.now();
 
-        //Update file timestamps
-        List<ProjectFile> filesWithTimestamps = updatedFiles.stream()
-                .map(file -> ProjectFile.builder()
+        // fail fast on a stale revision; the update below re-checks it atomically
+        if (expectedRevision != null && expectedRevision != revisionOf(project.getRevision())) {
+            throw new ProjectConflictException("Project has been modified since revision " + expectedRevision);
+        }
+
+        //Update file timestamps and move contents to the blob store
+        List<ProjectFile> filesWithTimestamps = storeContents(copyFiles(updatedFiles, now));
+        List<ProjectFile> references = copyFiles(filesWithTimestamps, now);
+        references.forEach(file -> file.setContent(null));
+
+        // Replace current files and take the next version number in one
+        // atomic update, so concurrent writers never share a version number
+        Project updated = projectRepository.updateFiles(
+                projectId, references, ProjectStatsService.of(references), expectedRevision, now);
+        if (updated == null) {
+            if (expectedRevision == null) {
+                throw new ProjectNotFoundException("Project not found");
+            }
+            throw new ProjectConflictException("Project has been modified since revision " + expectedRevision);
+        }
+
+        //Record the version while contents are still at hand for diffing
+        versionHistoryService.recordVersion(
+                project.getId(),
+                updated.getCurrentVersion(),
+                versionMessage != null ? versionMessage : "Updated project files",
+                filesWithTimestamps,
+                now
+        );
+        eventPublisher.publishEvent(new ProjectChangedEvent(projectId));
+        return updated;
+
+    }
+
+    /**
+     * Replaces the current files with references whose contents are already
+     * in the blob store, as a single version. Archive imports store contents
+     * while unpacking and commit the result here.
+     */
+    public Project replaceFileReferences(String projectId, List<ProjectFile> references, String versionMessage, UUID userId) {
+        checkWriteAccess(projectId, userId);
+
+        LocalDateTime now = LocalDateTime.now();
+        Project updated = projectRepository.updateFiles(projectId, references, ProjectStatsService.of(references), null, now);
+        if (updated == null) {
+            throw new ProjectNotFoundException("Project not found");
+        }
+
+        versionHistoryService.recordVersion(
+                projectId,
+                updated.getCurrentVersion(),
+                versionMessage != null ? versionMessage : "Imported project files",
+                references,
+                now
+        );
+        eventPublisher.publishEvent(new ProjectChangedEvent(projectId));
+        return updated;
+    }
+
+    public void checkWriteAccess(String projectId, UUID userId) {
+        if (!findProject(projectId, ProjectAccessView.class).getOwnerId().equals(userId)) {
+            throw new ProjectAccessDeniedException("Access denied");
+        }
+    }
+
+    /**
+     * Applies add, delete, rename and range-edit operations to the current
+     * files. Only changed contents are written, and versions are created in
+     * batches rather than per request.
+     */
+    public Project patchProjectFiles(String projectId, PatchProjectFilesRequest request, UUID userId) {
+        return applyToFiles(projectId, request.getExpectedRevision(), userId, request.getVersionMessage(),
+                (current, now) -> {
+                    List<ProjectFile> files = FileOperations.apply(
+                            current, request.getOperations(), blobStoreService::getContent, now);
+
+                    // only files whose content changed carry content at this point
+                    List<ProjectFile> changed = files.stream().filter(file -> file.getContent() != null).toList();
+                    storeContents(changed);
+                    changed.forEach(file -> file.setContent(null));
+                    return files;
+                });
+    }
+
+    /**
+     * Adds or replaces one file whose content is already in the blob store,
+     * as a pending edit. Chunked uploads commit their assembled file here.
+     */
+    public Project putFileReference(String projectId, ProjectFile reference, String versionMessage, UUID userId) {
+        return applyToFiles(projectId, null, userId, versionMessage, (current, now) -> {
+            List<ProjectFile> files = new ArrayList<>(current.size() + 1);
+            LocalDateTime createdAt = now;
+            for (ProjectFile file : current) {
+                if (file.getPath().equals(reference.getPath())) {
+                    createdAt = file.getCreatedAt();
+                } else {
+                    files.add(file);
+                }
+            }
+
+            ProjectFile file = copyOf(reference);
+            file.setCreatedAt(createdAt);
+            file.setUpdatedAt(now);
+            files.add(file);
+            return files;
+        });
+    }
+
+    // Shared by edits that change some files: unchanged files must be kept as
+    // the same instances, which the stats delta relies on
+    private Project applyToFiles(
+            String projectId,
+            Long expectedRevision,
+            UUID userId,
+            String versionMessage,
+            BiFunction<List<ProjectFile>, LocalDateTime, List<ProjectFile>> edit
+    ) {
+        for (int attempt = 1; ; attempt++) {
+            ProjectFilesView project = findProject(projectId, ProjectFilesView.class);
+
+            if (!project.getOwnerId().equals(userId)) {
+                throw new ProjectAccessDeniedException("Access denied");
+            }
+
+            long revision = revisionOf(project.getRevision());
+            if (expectedRevision != null && expectedRevision != revision) {
+                throw new ProjectConflictException("Project has been modified since revision " + expectedRevision);
+            }
+
+            LocalDateTime now = LocalDateTime.now();
+            List<ProjectFile> current = currentFiles(project);
+            List<ProjectFile> files = edit.apply(current, now);
+
+            // without stats yet (before the backfill) the totals are started from scratch
+            ProjectStats statsDelta = project.getStats() != null
+                    ? ProjectStatsService.delta(current, files)
+                    : ProjectStatsService.of(files);
+
+            Project updated = projectRepository.applyFiles(projectId, files, statsDelta, revision, now);
+            if (updated != null) {
+                eventPublisher.publishEvent(new ProjectChangedEvent(projectId));
+                if (isVersionDue(updated)) {
+                    Project versioned = savePendingVersion(projectId, versionMessage);
+                    return versioned != null ? versioned : updated;
+                }
+                return updated;
+            }
+
+            // Another write landed in between. Without a pinned revision the
+            // edit is re-applied to the new state.
+            if (expectedRevision != null || attempt >= MAX_PATCH_ATTEMPTS) {
+                throw new ProjectConflictException("Project has been modified concurrently, retry the request");
+            }
+        }
+    }
+
+    /**
+     * Creates a version from the project's pending edits. Returns the project
+     * with its new version number, or null if nothing was pending.
+     */
+    public Project savePendingVersion(String projectId, String versionMessage) {
+        LocalDateTime now = LocalDateTime.now();
+        Project claimed = projectRepository.claimPendingVersion(projectId, now);
+        if (claimed == null) {
+            return null;
+        }
+
+        versionHistoryService.recordVersion(
+                projectId,
+                claimed.getCurrentVersion(),
+                versionMessage != null ? versionMessage : "Saved edits",
+                claimed.getFiles(),
+                now
+        );
+        return claimed;
+    }
+
+    private boolean isVersionDue(Project project) {
+        return project.getPendingChanges() >= maxPendingChanges
+                || project.getLastVersionAt() == null
+                || project.getLastVersionAt().isBefore(LocalDateTime.now().minus(maxPendingAgeMs, ChronoUnit.MILLIS));
+    }
+
+    // A fork reads its parent's files until it writes its own
+    private List<ProjectFile> currentFiles(ProjectFilesView project) {
+        return project.getFiles() != null
+                ? project.getFiles()
+                : versionHistoryService.getSnapshot(project.getId(), project.getCurrentVersion());
+    }
+
+    // Current file references, read from Mongo only on a miss; contents are loaded per file when needed
+    private CachedProject cachedProject(String projectId) {
+        return projectFilesCache.get(projectId, id -> {
+            ProjectFilesView project = findProject(id, ProjectFilesView.class);
+            List<ProjectFile> files = currentFiles(project).stream().map(ProjectService::copyOf).toList();
+            return new CachedProject(
+                    project.getId(),
+                    project.getOwnerId(),
+                    project.getVisibility(),
+                    revisionOf(project.getRevision()),
+                    files,
+                    PathTrie.of(files));
+        });
+    }
+
+    private <T> T findProject(String projectId, Class<T> view) {
+        return projectRepository.findProjectedById(projectId, view)
+                .orElseThrow(() -> new ProjectNotFoundException("Project not found"));
+    }
+
+    private static long revisionOf(Long revision) {
+        return revision != null ? revision : 0L;
+    }
+
+    private void checkReadAccess(ProjectAccessView project, UUID userId) {
+        checkReadAccess(project.getOwnerId(), project.getVisibility(), userId);
+    }
+
+    // Stored lower case, so queries match it exactly; VisibilityMigration fixes older projects
+    static String visibilityOf(String requested) {
+        return requested != null ? requested.toLowerCase(Locale.ROOT) : "private";
+    }
+
+    static void checkReadAccess(UUID ownerId, String visibility, UUID userId) {
+        boolean isOwner = ownerId.equals(userId);
+        boolean isPublic = "public".equalsIgnoreCase(visibility);
+
+        if (!isOwner && !isPublic) {
+            throw new ProjectAccessDeniedException("Access denied");
+        }
+    }
+
+    // Files stored before the blob store keep their content inline and have no hash
+    private static String contentHashOf(ProjectFile file) {
+        if (file.getContentHash() != null) {
+            return file.getContentHash();
+        }
+        return BlobStoreService.sha256(file.getContent() != null ? file.getContent() : "");
+    }
+
+    private static ProjectFile withHash(ProjectFile file) {
+        file.setContentHash(contentHashOf(file));
+        return file;
+    }
+
+    private static ProjectFile copyOf(ProjectFile file) {
+        return ProjectFile.builder()
                 .path(file.getPath())
                 .filename(file.getFilename())
                 .language(file.getLanguage())
                 .content(file.getContent())
+                .contentHash(file.getContentHash())
                 .size(file.getSize())
-                .createdAt(now)
-                .updatedAt(now)
-                .build())
-                .toList();
-        // Replace current files
-        project.setFiles(filesWithTimestamps);
+                .createdAt(file.getCreatedAt())
+                .updatedAt(file.getUpdatedAt())
+                .build();
+    }
 
-        //Determine new version number
-        int newVersionNumber = project.getVersions().size() + 1;
+    // Writes contents to the blob store and sets their references and sizes; unchanged contents are not rewritten
+    private List<ProjectFile> storeContents(List<ProjectFile> files) {
+        List<String> hashes = blobStoreService.putAll(
+                files.stream().map(ProjectFile::getContent).toList(),
+                files.stream().map(ProjectFile::getLanguage).toList());
 
-        //Create version snapshot
-        ProjectVersion newVersion = ProjectVersion.builder()
-                .versionNumber(newVersionNumber)
-                .message(versionMessage != null ? versionMessage : "Updated project files")
-                .filesSnapshot(filesWithTimestamps)
-                .createdAt(now)
-                .build();
+        for (int i = 0; i < files.size(); i++) {
+            files.get(i).setContentHash(hashes.get(i));
+            files.get(i).setSize(ProjectStatsService.utf8Length(files.get(i).getContent())); // never the client's value
+        }
+        return files;
+    }
 
-        project.getVersions().add(newVersion);
+    // Copies of cached references with their contents, of which only those not cached are read
+    // from the blob store in one query; legacy files with inline content are left as is
+    private List<ProjectFile> withContents(List<ProjectFile> files) {
+        List<String> hashes = files.stream()
+                .map(ProjectFile::getContentHash)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        Map<String, String> contents = projectFilesCache.getContents(hashes, blobStoreService::getContents);
 
-        project.setUpdatedAt(now);
-        return projectRepository.save(project);
+        return files.stream()
+                .map(file -> {
+                    ProjectFile copy = copyOf(file);
+                    if (file.getContentHash() != null) {
+                        copy.setContent(contents.get(file.getContentHash()));
+                    }
+                    return copy;
+                })
+                .toList();
+    }
 
+    // Copies files with fresh timestamps before an update (see tools/benchmarks)
+    static List<ProjectFile> copyFiles(List<ProjectFile> files, LocalDateTime timestamp) {
+        return files.stream()
+                .map(file -> ProjectFile.builder()
+                .path(file.getPath())
+                .filename(file.getFilename())
+                .language(file.getLanguage())
+                .content(file.getContent())
+                .contentHash(file.getContentHash())
+                .size(file.getSize())
+                .createdAt(timestamp)
+                .updatedAt(timestamp)
+                .build())
+                .toList();
     }
 
 }
@@ -0,0 +1,232 @@
+package com.vibecode.project.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import org.bson.types.ObjectId;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Service;
+
+import com.vibecode.project.entity.Project;
+import com.vibecode.project.entity.ProjectFile;
+import com.vibecode.project.entity.ProjectStats;
+import com.vibecode.project.entity.ProjectVersion;
+import com.vibecode.project.repository.ProjectRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-project statistics. Writes that replace all files set the file totals
+ * outright; PATCH edits add the difference made by the changed files only,
+ * under the same revision check as the files themselves, so the totals never
+ * drift from the files they describe.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProjectStatsService {
+
+    private final MongoTemplate mongoTemplate;
+    private final ProjectRepository projectRepository;
+    private final BlobStoreService blobStoreService;
+    private final VersionHistoryService versionHistoryService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${project.stats.backfill-batch-size:100}")
+    private int backfillBatchSize;
+
+    @Value("${project.stats.backfill-pause-ms:20}")
+    private long backfillPauseMs;
+
+    private volatile boolean running;
+
+    /** File totals of a complete file list, without a version count. */
+    static ProjectStats of(List<ProjectFile> files) {
+        return delta(List.of(), files);
+    }
+
+    /**
+     * What replacing before with after adds to the file totals. Files present
+     * in both lists as the same instance are unchanged and cost nothing.
+     */
+    static ProjectStats delta(List<ProjectFile> before, List<ProjectFile> after) {
+        Set<ProjectFile> previous = Collections.newSetFromMap(new IdentityHashMap<>());
+        previous.addAll(before);
+
+        int fileCount = 0;
+        long totalBytes = 0;
+        Map<String, Long> languageBytes = new HashMap<>();
+
+        for (ProjectFile file : after) {
+            if (!previous.remove(file)) {
+                fileCount++;
+                totalBytes += sizeOf(file);
+                languageBytes.merge(languageKey(file.getLanguage()), sizeOf(file), Long::sum);
+            }
+        }
+        for (ProjectFile file : previous) {
+            fileCount--;
+            totalBytes -= sizeOf(file);
+            languageBytes.merge(languageKey(file.getLanguage()), -sizeOf(file), Long::sum);
+        }
+
+        return ProjectStats.builder()
+                .fileCount(fileCount)
+                .totalBytes(totalBytes)
+                .languageBytes(languageBytes)
+                .build();
+    }
+
+    static long utf8Length(String content) {
+        return content != null ? content.getBytes(StandardCharsets.UTF_8).length : 0;
+    }
+
+    // Also used as a field name in Mongo, so dots and a leading $ are replaced
+    static String languageKey(String language) {
+        if (language == null || language.isBlank()) {
+            return "other";
+        }
+        String key = language.trim().toLowerCase(Locale.ROOT).replace('.', '_');
+        return key.startsWith("$") ? "_" + key.substring(1) : key;
+    }
+
+    private static long sizeOf(ProjectFile file) {
+        return file.getSize() != null ? file.getSize() : 0;
+    }
+
+    /**
+     * Computes statistics for projects written before they were maintained.
+     * File sizes, which used to be whatever the client sent, are corrected
+     * from the stored blobs on the way. Runs on a thread of its own so a
+     * large backlog does not hold up startup, and reads the projects in
+     * batches in id order. Safe to run on several instances at once: a
+     * project that changes in between is simply left for the next start.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startBackfill() {
+        running = true;
+        Thread.ofPlatform().daemon().name("project-stats-backfill").start(() -> {
+            try {
+                backfill();
+            } catch (RuntimeException e) {
+                log.warn("Statistics backfill stopped: {}", e.getMessage());
+            }
+        });
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void stopBackfill() {
+        running = false;
+    }
+
+    void backfill() {
+        String after = null;
+        int count = 0;
+
+        while (running) {
+            Criteria missing = Criteria.where("stats.since").exists(false);
+            if (after != null) {
+                missing = missing.and("_id").gt(new ObjectId(after));
+            }
+            Query batch = new Query(missing)
+                    .with(Sort.by("_id"))
+                    .limit(backfillBatchSize);
+            batch.fields().include("_id");
+            List<Project> ids = mongoTemplate.find(batch, Project.class);
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            for (Project id : ids) {
+                if (!running) {
+                    break;
+                }
+                if (fill(id.getId())) {
+                    count++;
+                }
+                if (!pause()) {
+                    running = false;
+                }
+            }
+            after = ids.get(ids.size() - 1).getId();
+        }
+        if (count > 0) {
+            log.info("Computed statistics of {} projects", count);
+        }
+    }
+
+    // Fills one project's statistics and reports whether this call did so
+    private boolean fill(String projectId) {
+        Query query = new Query(Criteria.where("_id").is(projectId));
+        query.fields().include("files").include("revision").include("currentVersion");
+        Project project = mongoTemplate.findOne(query, Project.class);
+        if (project == null) {
+            return false;
+        }
+
+        List<ProjectFile> files = project.getFiles() != null
+                ? project.getFiles()
+                : versionHistoryService.getSnapshot(project.getId(), project.getCurrentVersion());
+        Map<String, Long> sizes = blobStoreService.getSizes(files.stream()
+                .map(ProjectFile::getContentHash)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList());
+        boolean resized = false;
+        for (ProjectFile file : files) {
+            Long size = file.getContentHash() != null
+                    ? sizes.getOrDefault(file.getContentHash(), file.getSize())
+                    : Long.valueOf(utf8Length(file.getContent()));
+            resized |= !Objects.equals(size, file.getSize());
+            file.setSize(size);
+        }
+
+        ProjectStats stats = of(files);
+        stats.setVersionCount((int) mongoTemplate.count(
+                new Query(Criteria.where("projectId").is(project.getId())), ProjectVersion.class));
+        stats.setSince(LocalDateTime.now());
+
+        // current files are rewritten only where a size was wrong
+        boolean rewrite = project.getFiles() != null && resized;
+        if (!projectRepository.fillStats(project.getId(), project.getRevision(), rewrite ? files : null, stats)) {
+            return false;
+        }
+        if (rewrite) {
+            // cached file lists carry the old sizes; nothing else reads them,
+            // and the revision, facets and contents are unchanged
+            eventPublisher.publishEvent(new ProjectChangedEvent(project.getId()));
+        }
+        return true;
+    }
+
+    private boolean pause() {
+        if (backfillPauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(backfillPauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.vibecode.project.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import com.vibecode.project.entity.ProjectVersion;
+
+/**
+ * How much history a plan keeps: every version among the last keepLast or
+ * younger than keepAllDays, and beyond that the last version of each day
+ * until checkpointDays old. A checkpointDays of 0 keeps daily checkpoints
+ * forever.
+ */
+record RetentionPolicy(int keepLast, int keepAllDays, int checkpointDays) {
+
+    RetentionPolicy {
+        if (keepLast < 1 || keepAllDays < 0 || checkpointDays < 0
+                || (checkpointDays > 0 && checkpointDays < keepAllDays)) {
+            throw new IllegalArgumentException("Invalid retention policy");
+        }
+    }
+
+    /** Parses "PLAN=keepLast/keepAllDays/checkpointDays,..." into policies by upper-case plan name. */
+    static Map<String, RetentionPolicy> parse(String spec) {
+        Map<String, RetentionPolicy> policies = new HashMap<>();
+        for (String entry : spec.split(",")) {
+            String[] planAndLimits = entry.trim().split("=");
+            String[] limits = planAndLimits.length == 2 ? planAndLimits[1].split("/") : new String[0];
+            if (limits.length != 3) {
+                throw new IllegalArgumentException("Invalid retention plan: " + entry);
+            }
+            policies.put(planAndLimits[0].trim().toUpperCase(Locale.ROOT), new RetentionPolicy(
+                    Integer.parseInt(limits[0].trim()),
+                    Integer.parseInt(limits[1].trim()),
+                    Integer.parseInt(limits[2].trim())));
+        }
+        return policies;
+    }
+
+    /**
+     * Numbers of the versions to keep. Versions must be sorted by number,
+     * oldest first; versions without a creation time are always kept.
+     */
+    Set<Integer> retained(List<ProjectVersion> versions, LocalDateTime now) {
+        Set<Integer> kept = new HashSet<>();
+        LocalDateTime keepAllAfter = now.minusDays(keepAllDays);
+        LocalDateTime checkpointsAfter = checkpointDays > 0 ? now.minusDays(checkpointDays) : null;
+        LocalDate lastKeptDay = null;
+
+        // newest first, so the first version seen on a day is that day's last
+        for (int i = versions.size() - 1; i >= 0; i--) {
+            ProjectVersion version = versions.get(i);
+            LocalDateTime createdAt = version.getCreatedAt();
+            boolean recent = versions.size() - i <= keepLast
+                    || createdAt == null
+                    || !createdAt.isBefore(keepAllAfter);
+
+            if (!recent) {
+                if (checkpointsAfter != null && createdAt.isBefore(checkpointsAfter)) {
+                    continue;
+                }
+                if (createdAt.toLocalDate().equals(lastKeptDay)) {
+                    continue;
+                }
+            }
+            kept.add(version.getVersionNumber());
+            if (createdAt != null) {
+                lastKeptDay = createdAt.toLocalDate();
+            }
+        }
+        return kept;
+    }
+}
@@ -0,0 +1,159 @@
+package com.vibecode.project.service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads regular files from a ustar, PAX or GNU tar stream one at a time.
+ * Directories, links and other entry types are skipped. The counterpart of
+ * {@link TarWriter}.
+ */
+final class TarReader {
+
+    private static final int BLOCK = 512;
+    private static final int MAX_LONG_NAME = 64 * 1024;
+
+    record Entry(String path, long size) {
+    }
+
+    private final InputStream in;
+    private long remaining; // unread bytes of the current entry
+    private long padding;
+
+    TarReader(InputStream in) {
+        this.in = in;
+    }
+
+    /** Advances to the next regular file, or returns null at the end of the archive. */
+    Entry next() throws IOException {
+        skipRest();
+        String longPath = null;
+
+        while (true) {
+            byte[] header = in.readNBytes(BLOCK);
+            if (header.length < BLOCK || isZero(header)) {
+                return null;
+            }
+
+            long size = parseNumber(header, 124, 12);
+            byte type = header[156];
+            remaining = size;
+            padding = (BLOCK - size % BLOCK) % BLOCK;
+
+            if (type == 'x' || type == 'L') {
+                if (size > MAX_LONG_NAME) {
+                    throw new IOException("Extended tar header too large");
+                }
+                String value = new String(readEntry(), StandardCharsets.UTF_8);
+                skipRest();
+                longPath = type == 'L' ? trimNul(value) : paxPath(value, longPath);
+                continue;
+            }
+            if (type != '0' && type != 0) {
+                skipRest(); // directory, link, global header and the like
+                longPath = null;
+                continue;
+            }
+
+            String path = longPath;
+            if (path == null) {
+                String name = field(header, 0, 100);
+                String prefix = field(header, 345, 155);
+                path = prefix.isEmpty() ? name : prefix + "/" + name;
+            }
+            return new Entry(path, size);
+        }
+    }
+
+    /** The content of the current entry; it does not close the archive stream. */
+    InputStream content() {
+        return new InputStream() {
+            @Override
+            public int read() throws IOException {
+                byte[] one = new byte[1];
+                return read(one, 0, 1) == -1 ? -1 : one[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (remaining <= 0) {
+                    return -1;
+                }
+                int read = in.read(b, off, (int) Math.min(len, remaining));
+                if (read == -1) {
+                    throw new EOFException("Truncated tar entry");
+                }
+                remaining -= read;
+                return read;
+            }
+        };
+    }
+
+    private byte[] readEntry() throws IOException {
+        byte[] data = in.readNBytes((int) remaining);
+        if (data.length < remaining) {
+            throw new EOFException("Truncated tar entry");
+        }
+        remaining = 0;
+        return data;
+    }
+
+    private void skipRest() throws IOException {
+        in.skipNBytes(remaining + padding);
+        remaining = 0;
+        padding = 0;
+    }
+
+    // PAX records are "<length> <key>=<value>\n"; only the path is used
+    private static String paxPath(String records, String current) {
+        String path = current;
+        for (String record : records.split("\n")) {
+            int space = record.indexOf(' ');
+            if (space > 0 && record.startsWith("path=", space + 1)) {
+                path = record.substring(space + 1 + "path=".length());
+            }
+        }
+        return path;
+    }
+
+    private static long parseNumber(byte[] header, int offset, int length) throws IOException {
+        if ((header[offset] & 0x80) != 0) {
+            // base-256, used by GNU tar for sizes over 8 GB
+            long value = header[offset] & 0x7F;
+            for (int i = offset + 1; i < offset + length; i++) {
+                value = (value << 8) | (header[i] & 0xFF);
+            }
+            return value;
+        }
+        String digits = field(header, offset, length).trim();
+        try {
+            return digits.isEmpty() ? 0 : Long.parseLong(digits, 8);
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid tar header");
+        }
+    }
+
+    private static String field(byte[] header, int offset, int length) {
+        int end = offset;
+        while (end < offset + length && header[end] != 0) {
+            end++;
+        }
+        return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static String trimNul(String value) {
+        int nul = value.indexOf('\0');
+        return nul >= 0 ? value.substring(0, nul) : value;
+    }
+
+    private static boolean isZero(byte[] block) {
+        for (byte b : block) {
+            if (b != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
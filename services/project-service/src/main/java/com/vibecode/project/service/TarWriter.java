@@ -0,0 +1,121 @@
+package com.vibecode.project.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Writes regular files in ustar format. Paths that do not fit the header, or
+ * are not plain ASCII, get a PAX extended header carrying the full path.
+ */
+final class TarWriter {
+
+    private static final int BLOCK = 512;
+    private static final int NAME_LENGTH = 100;
+
+    private final OutputStream out;
+    private final byte[] buffer = new byte[16 * 1024];
+
+    TarWriter(OutputStream out) {
+        this.out = out;
+    }
+
+    /** Writes one file; the stream must supply exactly size bytes. */
+    void putFile(String path, long size, long mtimeSeconds, InputStream content) throws IOException {
+        byte[] name = path.getBytes(StandardCharsets.UTF_8);
+        if (name.length > NAME_LENGTH || name.length != path.length()) {
+            byte[] pax = paxRecord("path", path);
+            out.write(header(fallbackName("PaxHeaders/" + path), pax.length, mtimeSeconds, (byte) 'x'));
+            out.write(pax);
+            pad(pax.length);
+            name = fallbackName(path);
+        }
+        out.write(header(name, size, mtimeSeconds, (byte) '0'));
+
+        long remaining = size;
+        int read;
+        while (remaining > 0 && (read = content.read(buffer, 0, (int) Math.min(buffer.length, remaining))) != -1) {
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+        if (remaining != 0 || content.read() != -1) {
+            throw new IOException("Content of " + path + " does not match its size of " + size + " bytes");
+        }
+        pad(size);
+    }
+
+    /** Writes the end-of-archive marker; the underlying stream is left open. */
+    void finish() throws IOException {
+        out.write(new byte[2 * BLOCK]);
+        out.flush();
+    }
+
+    private static byte[] header(byte[] name, long size, long mtimeSeconds, byte type) {
+        byte[] header = new byte[BLOCK];
+        System.arraycopy(name, 0, header, 0, Math.min(name.length, NAME_LENGTH));
+        octal(header, 100, 8, 0644);
+        octal(header, 108, 8, 0);
+        octal(header, 116, 8, 0);
+        octal(header, 124, 12, size);
+        octal(header, 136, 12, mtimeSeconds);
+        header[156] = type;
+        System.arraycopy("ustar\0".getBytes(StandardCharsets.US_ASCII), 0, header, 257, 6);
+        header[263] = '0';
+        header[264] = '0';
+
+        // the checksum is computed with its own field filled with spaces
+        for (int i = 148; i < 156; i++) {
+            header[i] = ' ';
+        }
+        long checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xFF;
+        }
+        octal(header, 148, 7, checksum);
+        return header;
+    }
+
+    // Zero-padded octal with a trailing NUL, as ustar numeric fields expect
+    private static void octal(byte[] header, int offset, int length, long value) {
+        String digits = Long.toOctalString(value);
+        if (digits.length() > length - 1) {
+            throw new IllegalArgumentException("Value too large for tar header: " + value);
+        }
+        int start = offset + length - 1 - digits.length();
+        for (int i = offset; i < start; i++) {
+            header[i] = '0';
+        }
+        for (int i = 0; i < digits.length(); i++) {
+            header[start + i] = (byte) digits.charAt(i);
+        }
+        header[offset + length - 1] = 0;
+    }
+
+    // "<length> <key>=<value>\n", where length counts the whole record including itself
+    private static byte[] paxRecord(String key, String value) {
+        int body = (" " + key + "=" + value + "\n").getBytes(StandardCharsets.UTF_8).length;
+        int length = body + String.valueOf(body).length();
+        if (String.valueOf(length).length() != String.valueOf(body).length()) {
+            length++;
+        }
+        return (length + " " + key + "=" + value + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    // Readers without PAX support see an ASCII approximation of the path
+    private static byte[] fallbackName(String path) {
+        StringBuilder name = new StringBuilder();
+        for (int i = Math.max(0, path.length() - NAME_LENGTH); i < path.length(); i++) {
+            char c = path.charAt(i);
+            name.append(c < 128 ? c : '_');
+        }
+        return name.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private void pad(long size) throws IOException {
+        int padding = (int) ((BLOCK - size % BLOCK) % BLOCK);
+        if (padding > 0) {
+            out.write(new byte[padding]);
+        }
+    }
+}
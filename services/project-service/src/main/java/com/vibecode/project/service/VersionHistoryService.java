@@ -0,0 +1,446 @@
+package com.vibecode.project.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Service;
+
+import com.vibecode.project.entity.ChangeType;
+import com.vibecode.project.entity.FileChange;
+import com.vibecode.project.entity.ProjectFile;
+import com.vibecode.project.entity.ProjectVersion;
+import com.vibecode.project.exception.ProjectNotFoundException;
+import com.vibecode.project.repository.ProjectLineageView;
+import com.vibecode.project.repository.ProjectRepository;
+import com.vibecode.project.repository.ProjectVersionRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Stores version history as deltas. Every keyframe-interval versions a full
+ * file list is written; the versions in between only record which files were
+ * added, modified or deleted since their base version, as references to
+ * their blobs. Contents are never stored twice: the blob store keeps one
+ * copy per distinct content, so a delta only costs the changed entries of
+ * the file list. Reading a version replays the deltas on top of the
+ * nearest keyframe, and rebuilt file lists are kept in a small LRU cache so
+ * reads of recent versions rarely touch more than one document.
+ *
+ * <p>Forks do not copy history. Versions up to a fork's base version are read
+ * from the project it was forked from, so forks of the same template also
+ * share cached snapshots.
+ */
+@Service
+@RequiredArgsConstructor
+public class VersionHistoryService {
+
+    private final ProjectVersionRepository versionRepository;
+    private final ProjectRepository projectRepository;
+    private final BlobStoreService blobStoreService;
+    private final MongoTemplate mongoTemplate;
+
+    @Value("${project.versions.keyframe-interval:20}")
+    private int keyframeInterval;
+
+    @Value("${project.versions.snapshot-cache-size:256}")
+    private int snapshotCacheSize;
+
+    @Value("${project.versions.lineage-cache-size:4096}")
+    private int lineageCacheSize;
+
+    // projectId:versionNumber -> file references by path; values are never modified
+    private LruCache<String, Map<String, ProjectFile>> snapshotCache;
+
+    // fork points never change once a project exists
+    private LruCache<String, Lineage> lineageCache;
+
+    private record Lineage(String baseProjectId, Integer baseVersion) {
+    }
+
+    @PostConstruct
+    void initCaches() {
+        snapshotCache = new LruCache<>(snapshotCacheSize);
+        lineageCache = new LruCache<>(lineageCacheSize);
+    }
+
+    /**
+     * Saves a version of the given files. Files must already reference their
+     * blobs; only the references are stored.
+     */
+    public ProjectVersion recordVersion(
+            String projectId,
+            int versionNumber,
+            String message,
+            List<ProjectFile> files,
+            LocalDateTime createdAt
+    ) {
+        List<ProjectFile> references = files.stream().map(VersionHistoryService::reference).toList();
+
+        ProjectVersion version = ProjectVersion.builder()
+                .projectId(projectId)
+                .versionNumber(versionNumber)
+                .message(message)
+                .createdAt(createdAt)
+                .build();
+
+        Map<String, ProjectFile> base = isKeyframeNumber(versionNumber)
+                ? null
+                : manifest(projectId, versionNumber - 1);
+
+        if (base == null) {
+            version.setFilesSnapshot(references);
+        } else {
+            version.setBaseVersionNumber(versionNumber - 1);
+            version.setChanges(diff(base, files));
+        }
+
+        ProjectVersion saved = versionRepository.save(version);
+        snapshotCache.put(key(projectId, versionNumber), toManifest(references));
+        return saved;
+    }
+
+    /** A version's metadata, wherever in the fork lineage it is stored. */
+    public Optional<ProjectVersion> findVersion(String projectId, int versionNumber) {
+        return versionRepository.findByProjectIdAndVersionNumber(owner(projectId, versionNumber), versionNumber);
+    }
+
+    /**
+     * Version summaries, newest first, including the history a fork shares
+     * with the projects it was forked from.
+     */
+    public Page<ProjectVersion> listVersions(String projectId, Pageable pageable) {
+        Criteria criteria = historyCriteria(projectId);
+        Query query = new Query(criteria).with(pageable);
+        query.fields().exclude("filesSnapshot").exclude("changes");
+
+        List<ProjectVersion> versions = mongoTemplate.find(query, ProjectVersion.class);
+        return PageableExecutionUtils.getPage(versions, pageable,
+                () -> mongoTemplate.count(new Query(criteria), ProjectVersion.class));
+    }
+
+    /**
+     * Matches the versions of a project's history: its own plus those of the
+     * projects it was forked from, up to each fork point.
+     */
+    private Criteria historyCriteria(String projectId) {
+        List<Criteria> segments = new ArrayList<>();
+        String owner = projectId;
+        Integer upTo = null;
+
+        while (owner != null) {
+            Criteria segment = Criteria.where("projectId").is(owner);
+            if (upTo != null) {
+                segment = segment.and("versionNumber").lte(upTo);
+            }
+            segments.add(segment);
+
+            Lineage lineage = lineage(owner);
+            if (lineage.baseProjectId() == null) {
+                break;
+            }
+            upTo = upTo == null ? lineage.baseVersion() : Math.min(upTo, lineage.baseVersion());
+            owner = lineage.baseProjectId();
+        }
+        return new Criteria().orOperator(segments);
+    }
+
+    /** File references of a version, without contents. */
+    public List<ProjectFile> getSnapshot(String projectId, int versionNumber) {
+        Map<String, ProjectFile> manifest = manifest(projectId, versionNumber);
+        if (manifest == null) {
+            throw new ProjectNotFoundException("Version not found");
+        }
+        return manifest.values().stream().map(VersionHistoryService::copy).toList();
+    }
+
+    /** Files of a version with their contents loaded. */
+    public List<ProjectFile> getVersionFiles(String projectId, int versionNumber) {
+        List<ProjectFile> files = getSnapshot(projectId, versionNumber);
+
+        Map<String, String> contents = blobStoreService.getContents(files.stream()
+                .map(ProjectFile::getContentHash)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList());
+
+        for (ProjectFile file : files) {
+            if (file.getContentHash() == null) {
+                continue; // legacy snapshot with inline content
+            }
+            String content = contents.get(file.getContentHash());
+            if (content == null) {
+                throw new RuntimeException("File content not found: " + file.getPath());
+            }
+            file.setContent(content);
+        }
+        return files;
+    }
+
+    /**
+     * Rewrites a stored version as a delta against another base version, or
+     * as a keyframe when baseVersionNumber is null, without changing its
+     * files. Retention calls this for every kept version whose chain passes
+     * through versions about to be deleted.
+     */
+    public void rebase(String projectId, int versionNumber, Integer baseVersionNumber, Integer squashedCount) {
+        ProjectVersion version = versionRepository.findByProjectIdAndVersionNumber(projectId, versionNumber)
+                .orElseThrow(() -> new ProjectNotFoundException("Version not found"));
+        Map<String, ProjectFile> files = manifest(projectId, versionNumber);
+
+        if (baseVersionNumber == null) {
+            version.setFilesSnapshot(new ArrayList<>(files.values()));
+            version.setBaseVersionNumber(null);
+            version.setChanges(null);
+        } else {
+            Map<String, ProjectFile> base = manifest(projectId, baseVersionNumber);
+            if (base == null) {
+                throw new RuntimeException("Version history is incomplete");
+            }
+            version.setFilesSnapshot(null);
+            version.setBaseVersionNumber(baseVersionNumber);
+            version.setChanges(diff(base, new ArrayList<>(files.values())));
+        }
+        version.setSquashedCount(squashedCount);
+
+        // a blob sweep that already passed this project must not miss references moved here
+        blobStoreService.touch(files.values().stream()
+                .map(ProjectFile::getContentHash)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet()));
+        versionRepository.save(version);
+    }
+
+    /**
+     * How many deltas are replayed on top of a keyframe to rebuild a version,
+     * following its chain into the projects it was forked from.
+     */
+    public int chainDepth(String projectId, int versionNumber) {
+        int depth = 0;
+        Integer next = versionNumber;
+        // chains are kept within a keyframe interval; the bound only guards against bad data
+        while (next != null && depth < 2 * keyframeInterval) {
+            Query query = new Query(Criteria.where("projectId").is(owner(projectId, next)).and("versionNumber").is(next));
+            query.fields().include("baseVersionNumber");
+            ProjectVersion version = mongoTemplate.findOne(query, ProjectVersion.class);
+            if (version == null || version.getBaseVersionNumber() == null) {
+                break;
+            }
+            depth++;
+            next = version.getBaseVersionNumber();
+        }
+        return depth;
+    }
+
+    /**
+     * Deletes versions of a project's own history. Versions based on them
+     * must have been rebased first.
+     */
+    public long deleteVersions(String projectId, Collection<Integer> versionNumbers) {
+        long deleted = mongoTemplate.remove(
+                new Query(Criteria.where("projectId").is(projectId).and("versionNumber").in(versionNumbers)),
+                ProjectVersion.class).getDeletedCount();
+        for (Integer versionNumber : versionNumbers) {
+            snapshotCache.remove(key(projectId, versionNumber));
+        }
+        return deleted;
+    }
+
+    private boolean isKeyframeNumber(int versionNumber) {
+        return versionNumber <= 1 || (versionNumber - 1) % keyframeInterval == 0;
+    }
+
+    private List<FileChange> diff(Map<String, ProjectFile> base, List<ProjectFile> files) {
+        List<FileChange> changes = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+
+        for (ProjectFile file : files) {
+            seen.add(file.getPath());
+            ProjectFile previous = base.get(file.getPath());
+
+            if (previous == null) {
+                changes.add(change(file.getPath(), ChangeType.ADDED, reference(file)));
+            } else if (!Objects.equals(previous.getContentHash(), file.getContentHash())
+                    || !Objects.equals(previous.getContent(), file.getContent())
+                    || !Objects.equals(previous.getFilename(), file.getFilename())
+                    || !Objects.equals(previous.getLanguage(), file.getLanguage())
+                    || !Objects.equals(previous.getCreatedAt(), file.getCreatedAt())
+                    || !Objects.equals(previous.getUpdatedAt(), file.getUpdatedAt())) {
+                // timestamps count too, or a version rebuilt from deltas
+                // would differ from a keyframe
+                changes.add(change(file.getPath(), ChangeType.MODIFIED, reference(file)));
+            }
+        }
+
+        for (String path : base.keySet()) {
+            if (!seen.contains(path)) {
+                changes.add(change(path, ChangeType.DELETED, null));
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Rebuilds the file list of a version from the nearest keyframe or cached
+     * version. Returns null when the version does not exist.
+     */
+    private Map<String, ProjectFile> manifest(String projectId, int versionNumber) {
+        String owner = owner(projectId, versionNumber);
+        if (!owner.equals(projectId)) {
+            return manifest(owner, versionNumber);
+        }
+
+        Map<String, ProjectFile> cached = snapshotCache.get(key(projectId, versionNumber));
+        if (cached != null) {
+            return cached;
+        }
+
+        Map<Integer, ProjectVersion> loaded = new HashMap<>();
+        Deque<ProjectVersion> deltas = new ArrayDeque<>();
+        Map<String, ProjectFile> base = null;
+        int next = versionNumber;
+
+        while (base == null) {
+            if (next != versionNumber) {
+                base = snapshotCache.get(key(projectId, next));
+                if (base != null) {
+                    break;
+                }
+            }
+
+            ProjectVersion version = loaded.get(next);
+            if (version == null) {
+                // a chain never spans more than one keyframe interval, so this is usually one query
+                for (ProjectVersion v : versionRepository.findVersionRange(
+                        projectId, Math.max(1, next - keyframeInterval), next)) {
+                    loaded.put(v.getVersionNumber(), v);
+                }
+                version = loaded.get(next);
+            }
+            if (version == null) {
+                if (next == versionNumber) {
+                    return null;
+                }
+                // the base may be a fork point stored in the parent project
+                base = manifest(projectId, next);
+                if (base == null) {
+                    throw new RuntimeException("Version history is incomplete");
+                }
+                break;
+            }
+
+            if (version.isKeyframe()) {
+                base = toManifest(version.getFilesSnapshot());
+            } else {
+                deltas.push(version);
+                Integer baseNumber = version.getBaseVersionNumber();
+                if (baseNumber == null || baseNumber >= next) {
+                    throw new RuntimeException("Version history is incomplete");
+                }
+                next = baseNumber;
+            }
+        }
+
+        Map<String, ProjectFile> manifest = new LinkedHashMap<>(base);
+        while (!deltas.isEmpty()) {
+            for (FileChange change : deltas.pop().getChanges()) {
+                if (change.getType() == ChangeType.DELETED) {
+                    manifest.remove(change.getPath());
+                } else {
+                    manifest.put(change.getPath(), change.getFile());
+                }
+            }
+        }
+
+        Map<String, ProjectFile> result = Collections.unmodifiableMap(manifest);
+        snapshotCache.put(key(projectId, versionNumber), result);
+        return result;
+    }
+
+    // Versions up to a fork point belong to the project that was forked
+    private String owner(String projectId, int versionNumber) {
+        String owner = projectId;
+        Lineage lineage = lineage(owner);
+        while (lineage.baseProjectId() != null && versionNumber <= lineage.baseVersion()) {
+            owner = lineage.baseProjectId();
+            lineage = lineage(owner);
+        }
+        return owner;
+    }
+
+    private Lineage lineage(String projectId) {
+        Lineage lineage = lineageCache.get(projectId);
+        if (lineage == null) {
+            ProjectLineageView view = projectRepository.findProjectedById(projectId, ProjectLineageView.class)
+                    .orElse(null);
+            if (view == null) {
+                return new Lineage(null, null); // not cached, the project may be created later
+            }
+            lineage = new Lineage(view.getBaseProjectId(), view.getBaseVersion());
+            lineageCache.put(projectId, lineage);
+        }
+        return lineage;
+    }
+
+    private static Map<String, ProjectFile> toManifest(Collection<ProjectFile> files) {
+        Map<String, ProjectFile> manifest = new LinkedHashMap<>();
+        for (ProjectFile file : files) {
+            manifest.put(file.getPath(), file);
+        }
+        return Collections.unmodifiableMap(manifest);
+    }
+
+    private static FileChange change(String path, ChangeType type, ProjectFile file) {
+        return FileChange.builder()
+                .path(path)
+                .type(type)
+                .file(file)
+                .build();
+    }
+
+    private static String key(String projectId, int versionNumber) {
+        return projectId + ":" + versionNumber;
+    }
+
+    // Stored form of a file: blob reference only, unless it predates the blob store
+    private static ProjectFile reference(ProjectFile file) {
+        ProjectFile reference = copy(file);
+        if (file.getContentHash() != null) {
+            reference.setContent(null);
+        }
+        return reference;
+    }
+
+    private static ProjectFile copy(ProjectFile file) {
+        return ProjectFile.builder()
+                .path(file.getPath())
+                .filename(file.getFilename())
+                .language(file.getLanguage())
+                .content(file.getContent())
+                .contentHash(file.getContentHash())
+                .size(file.getSize())
+                .createdAt(file.getCreatedAt())
+                .updatedAt(file.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,198 @@
+package com.vibecode.project.service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.vibecode.project.entity.OwnerPlan;
+import com.vibecode.project.entity.Project;
+import com.vibecode.project.entity.ProjectVersion;
+import com.vibecode.project.exception.InvalidRequestException;
+import com.vibecode.project.repository.ProjectRepository;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Applies the owner's plan's {@link RetentionPolicy} to a project's own
+ * versions. Versions that are kept but were stored as deltas on top of
+ * versions being dropped are first rewritten against the previous kept
+ * version, or as keyframes when that chain would get longer than a keyframe
+ * interval, so every kept version stays readable while the others are
+ * deleted. Versions that forks were made from are always kept.
+ *
+ * <p>Owners without a recorded plan keep their whole history unless a
+ * default plan is configured, so nothing is deleted before user-service
+ * reports plans.
+ */
+@Service
+@RequiredArgsConstructor
+public class VersionRetentionService {
+
+    /** What one compaction did. */
+    public record Compaction(int pruned, int rewritten) {
+    }
+
+    private static final Compaction NOTHING = new Compaction(0, 0);
+
+    private final MongoTemplate mongoTemplate;
+    private final ProjectRepository projectRepository;
+    private final VersionHistoryService versionHistoryService;
+
+    @Value("${project.retention.plans:FREE=50/7/90,PRO=200/30/365,ENTERPRISE=1000/90/0}")
+    private String planSpec;
+
+    @Value("${project.retention.default-plan:}")
+    private String defaultPlan; // blank keeps everything
+
+    @Value("${project.versions.keyframe-interval:20}")
+    private int keyframeInterval;
+
+    @Value("${project.retention.pause-ms:20}")
+    private long pauseMs;
+
+    private Map<String, RetentionPolicy> policies;
+
+    @PostConstruct
+    void parsePolicies() {
+        policies = RetentionPolicy.parse(planSpec);
+        if (!defaultPlan.isBlank() && !policies.containsKey(defaultPlan.toUpperCase(Locale.ROOT))) {
+            throw new IllegalStateException("No retention policy for default plan " + defaultPlan);
+        }
+    }
+
+    /**
+     * Records an owner's plan. The owner's projects are compacted again on
+     * the next run, so a smaller allowance applies right away.
+     */
+    public void setOwnerPlan(UUID ownerId, String plan) {
+        String normalized = plan.toUpperCase(Locale.ROOT);
+        if (!policies.containsKey(normalized)) {
+            throw new InvalidRequestException("Unknown plan: " + plan);
+        }
+
+        mongoTemplate.save(OwnerPlan.builder()
+                .ownerId(ownerId)
+                .plan(normalized)
+                .updatedAt(LocalDateTime.now())
+                .build());
+        mongoTemplate.updateMulti(
+                new Query(Criteria.where("ownerId").is(ownerId)),
+                new Update().unset("compactedAt"),
+                Project.class);
+    }
+
+    /**
+     * Drops the versions of a project its owner's plan no longer keeps. The
+     * project only needs its id, owner and fork point, as returned by
+     * {@link ProjectRepository#claimForRetention}.
+     */
+    public Compaction compact(Project project) {
+        RetentionPolicy policy = policyOf(project.getOwnerId());
+        if (policy == null) {
+            return NOTHING;
+        }
+
+        Query query = new Query(Criteria.where("projectId").is(project.getId()))
+                .with(Sort.by(Sort.Direction.ASC, "versionNumber"));
+        query.fields()
+                .include("versionNumber")
+                .include("baseVersionNumber")
+                .include("squashedCount")
+                .include("createdAt");
+        List<ProjectVersion> versions = mongoTemplate.find(query, ProjectVersion.class);
+        if (versions.size() <= policy.keepLast()) {
+            return NOTHING;
+        }
+
+        Set<Integer> kept = policy.retained(versions, LocalDateTime.now());
+        kept.addAll(projectRepository.findForkPoints(project.getId()));
+
+        Set<Integer> pruned = new HashSet<>();
+        for (ProjectVersion version : versions) {
+            if (!kept.contains(version.getVersionNumber())) {
+                pruned.add(version.getVersionNumber());
+            }
+        }
+        if (pruned.isEmpty()) {
+            return NOTHING;
+        }
+
+        // Replay depth of each kept version, counted from its keyframe. A
+        // fork's first versions are based on its fork point in the parent,
+        // whose own chain continues in the parent's history.
+        Map<Integer, Integer> depths = new HashMap<>();
+        Integer previous = project.getBaseVersion();
+        if (previous != null) {
+            depths.put(previous, versionHistoryService.chainDepth(project.getId(), previous));
+        }
+        int folded = 0;
+        int rewritten = 0;
+
+        for (ProjectVersion version : versions) {
+            int number = version.getVersionNumber();
+            int squashed = version.getSquashedCount() != null ? version.getSquashedCount() : 0;
+            if (pruned.contains(number)) {
+                folded += 1 + squashed;
+                continue;
+            }
+
+            Integer base = version.getBaseVersionNumber();
+            if (base == null || !pruned.contains(base)) {
+                depths.put(number, base == null ? 0 : depths.getOrDefault(base, 0) + 1);
+                if (folded > 0) {
+                    mongoTemplate.updateFirst(
+                            new Query(Criteria.where("projectId").is(project.getId()).and("versionNumber").is(number)),
+                            new Update().set("squashedCount", squashed + folded),
+                            ProjectVersion.class);
+                }
+            } else {
+                int depth = previous == null ? keyframeInterval : depths.getOrDefault(previous, 0) + 1;
+                Integer newBase = depth < keyframeInterval ? previous : null;
+                versionHistoryService.rebase(project.getId(), number, newBase, squashed + folded);
+                depths.put(number, newBase == null ? 0 : depth);
+                rewritten++;
+                pause();
+            }
+            previous = number;
+            folded = 0;
+        }
+
+        long deleted = versionHistoryService.deleteVersions(project.getId(), pruned);
+        projectRepository.incrementVersionCount(project.getId(), (int) -deleted);
+        return new Compaction(pruned.size(), rewritten);
+    }
+
+    // null when the owner's history is kept in full
+    private RetentionPolicy policyOf(UUID ownerId) {
+        OwnerPlan plan = ownerId != null ? mongoTemplate.findById(ownerId, OwnerPlan.class) : null;
+        RetentionPolicy policy = plan != null ? policies.get(plan.getPlan()) : null;
+        return policy != null ? policy : policies.get(defaultPlan.toUpperCase(Locale.ROOT));
+    }
+
+    // Spreads rewrites out so compaction never competes with requests for long
+    private void pause() {
+        if (pauseMs <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(pauseMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Compaction interrupted", e);
+        }
+    }
+}
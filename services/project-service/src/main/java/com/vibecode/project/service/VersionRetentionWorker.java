@@ -0,0 +1,187 @@
+package com.vibecode.project.service;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.vibecode.project.entity.Project;
+import com.vibecode.project.repository.ProjectRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Background retention. Each run compacts a small batch of the projects
+ * compacted longest ago, one at a time with a pause in between, and then
+ * collects unreferenced blobs if no instance has done so within the GC
+ * interval. Project claims and the GC lease are atomic, so running this on
+ * several instances is safe.
+ *
+ * <p>A run, and a blob collection especially, can take minutes, so it is
+ * handed to a thread of its own: the shared scheduler thread also drives
+ * search index updates, pending version flushes and upload cleanup, which
+ * must not wait for it.
+ */
+@Slf4j
+@Component
+public class VersionRetentionWorker {
+
+    private static final String LEASES_COLLECTION = "maintenance_leases";
+    private static final String GC_LEASE = "blob-gc";
+
+    private final ProjectRepository projectRepository;
+    private final VersionRetentionService retentionService;
+    private final BlobGarbageCollector blobGarbageCollector;
+    private final MongoTemplate mongoTemplate;
+
+    private final Counter projectsCompacted;
+    private final Counter versionsPruned;
+    private final Counter versionsRewritten;
+    private final Counter blobsDeleted;
+    private final Counter blobBytesFreed;
+    private final Timer gcTimer;
+    private final AtomicLong backlog = new AtomicLong();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().daemon().name("project-retention").factory());
+
+    @Value("${project.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${project.retention.compact-every-ms:86400000}")
+    private long compactEveryMs;
+
+    @Value("${project.retention.batch-size:20}")
+    private int batchSize;
+
+    @Value("${project.retention.pause-ms:20}")
+    private long pauseMs;
+
+    @Value("${project.retention.gc-interval-ms:86400000}")
+    private long gcIntervalMs;
+
+    public VersionRetentionWorker(
+            ProjectRepository projectRepository,
+            VersionRetentionService retentionService,
+            BlobGarbageCollector blobGarbageCollector,
+            MongoTemplate mongoTemplate,
+            MeterRegistry meterRegistry
+    ) {
+        this.projectRepository = projectRepository;
+        this.retentionService = retentionService;
+        this.blobGarbageCollector = blobGarbageCollector;
+        this.mongoTemplate = mongoTemplate;
+
+        this.projectsCompacted = meterRegistry.counter("project.retention.projects");
+        this.versionsPruned = meterRegistry.counter("project.retention.versions.pruned");
+        this.versionsRewritten = meterRegistry.counter("project.retention.versions.rewritten");
+        this.blobsDeleted = meterRegistry.counter("project.retention.blobs.deleted");
+        this.blobBytesFreed = Counter.builder("project.retention.blobs.freed")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.gcTimer = meterRegistry.timer("project.retention.gc");
+        meterRegistry.gauge("project.retention.backlog", backlog); // projects due for compaction
+    }
+
+    @Scheduled(fixedDelayString = "${project.retention.interval-ms:60000}",
+            initialDelayString = "${project.retention.interval-ms:60000}")
+    public void schedule() {
+        // a run still in progress simply absorbs this trigger
+        if (!enabled || !running.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    run();
+                } catch (RuntimeException e) {
+                    log.warn("Retention run failed: {}", e.getMessage());
+                } finally {
+                    running.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.set(false); // shutting down
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    void run() {
+        LocalDateTime dueBefore = LocalDateTime.now().minus(compactEveryMs, ChronoUnit.MILLIS);
+
+        for (int i = 0; i < batchSize; i++) {
+            Project project = projectRepository.claimForRetention(dueBefore, LocalDateTime.now());
+            if (project == null) {
+                break;
+            }
+            try {
+                VersionRetentionService.Compaction compaction = retentionService.compact(project);
+                projectsCompacted.increment();
+                versionsPruned.increment(compaction.pruned());
+                versionsRewritten.increment(compaction.rewritten());
+            } catch (RuntimeException e) {
+                // retried once the project comes due again
+                log.warn("Could not apply retention to project {}: {}", project.getId(), e.getMessage());
+            }
+            if (!pause()) {
+                return;
+            }
+        }
+        backlog.set(projectRepository.countDueForRetention(dueBefore));
+
+        if (acquireLease(GC_LEASE, gcIntervalMs)) {
+            BlobGarbageCollector.Sweep sweep = gcTimer.record(blobGarbageCollector::collect);
+            blobsDeleted.increment(sweep.deleted());
+            blobBytesFreed.increment(sweep.freedBytes());
+            log.info("Blob collection examined {} blobs, deleted {} ({} bytes)",
+                    sweep.examined(), sweep.deleted(), sweep.freedBytes());
+        }
+    }
+
+    // Taken when absent or expired; an active lease makes the upsert collide on _id
+    private boolean acquireLease(String name, long durationMs) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            mongoTemplate.upsert(
+                    new Query(Criteria.where("_id").is(name).and("expiresAt").lt(now)),
+                    new Update().set("expiresAt", now.plus(durationMs, ChronoUnit.MILLIS)),
+                    LEASES_COLLECTION);
+            return true;
+        } catch (DuplicateKeyException e) {
+            return false;
+        }
+    }
+
+    private boolean pause() {
+        if (pauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.vibecode.project.service;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.mongodb.client.result.UpdateResult;
+import com.vibecode.project.entity.Project;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Lower-cases the visibility of projects stored before it was normalized
+ * (forks were saved as "PRIVATE"), so the gallery and fork queries can
+ * match "public" exactly. Safe to run repeatedly: only values with an upper
+ * case letter are rewritten.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VisibilityMigration {
+
+    private final MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        UpdateResult result = mongoTemplate.updateMulti(
+                new Query(Criteria.where("visibility").regex("[A-Z]")),
+                AggregationUpdate.update().set("visibility").toValueOf(StringOperators.valueOf("visibility").toLower()),
+                Project.class
+        );
+
+        if (result.getModifiedCount() > 0) {
+            log.info("Lower-cased the visibility of {} projects", result.getModifiedCount());
+        }
+    }
+}
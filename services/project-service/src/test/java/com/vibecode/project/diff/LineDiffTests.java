@@ -0,0 +1,84 @@
+package com.vibecode.project.diff;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.vibecode.project.diff.LineDiff.Region;
+
+class LineDiffTests {
+
+    @Test
+    void splitLinesKeepsTerminators() {
+        assertThat(LineDiff.splitLines("a\nb\nc")).containsExactly("a\n", "b\n", "c");
+        assertThat(LineDiff.splitLines("a\n\n")).containsExactly("a\n", "\n");
+        assertThat(LineDiff.splitLines("")).isEmpty();
+    }
+
+    @Test
+    void identicalTextsHaveNoRegions() {
+        List<String> lines = LineDiff.splitLines("one\ntwo\nthree\n");
+
+        assertThat(LineDiff.diff(lines, lines)).isEmpty();
+    }
+
+    @Test
+    void reportsSingleReplacedLine() {
+        List<String> a = LineDiff.splitLines("one\ntwo\nthree\n");
+        List<String> b = LineDiff.splitLines("one\n2\nthree\n");
+
+        assertThat(LineDiff.diff(a, b)).containsExactly(new Region(1, 2, 1, 2));
+    }
+
+    @Test
+    void reportsInsertionsAndDeletionsAsEmptyRanges() {
+        List<String> a = LineDiff.splitLines("a\nb\nc\n");
+
+        assertThat(LineDiff.diff(a, LineDiff.splitLines("a\nb\nx\nc\n"))).containsExactly(new Region(2, 2, 2, 3));
+        assertThat(LineDiff.diff(a, LineDiff.splitLines("a\nc\n"))).containsExactly(new Region(1, 2, 1, 1));
+        assertThat(LineDiff.diff(a, List.of())).containsExactly(new Region(0, 3, 0, 0));
+    }
+
+    @Test
+    void regionsTurnOldTextIntoNewText() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            List<String> a = randomLines(random);
+            List<String> b = randomLines(random);
+
+            List<Region> regions = LineDiff.diff(a, b);
+
+            assertThat(apply(a, b, regions)).isEqualTo(b);
+            for (int i = 1; i < regions.size(); i++) {
+                assertThat(regions.get(i).aStart()).isGreaterThanOrEqualTo(regions.get(i - 1).aEnd());
+                assertThat(regions.get(i).bStart()).isGreaterThanOrEqualTo(regions.get(i - 1).bEnd());
+            }
+        }
+    }
+
+    // Lines from a small alphabet, so the texts share many lines
+    private static List<String> randomLines(Random random) {
+        List<String> lines = new ArrayList<>();
+        int count = random.nextInt(30);
+        for (int i = 0; i < count; i++) {
+            lines.add((char) ('a' + random.nextInt(5)) + "\n");
+        }
+        return lines;
+    }
+
+    private static List<String> apply(List<String> a, List<String> b, List<Region> regions) {
+        List<String> result = new ArrayList<>();
+        int cursor = 0;
+        for (Region region : regions) {
+            result.addAll(a.subList(cursor, region.aStart()));
+            result.addAll(b.subList(region.bStart(), region.bEnd()));
+            cursor = region.aEnd();
+        }
+        result.addAll(a.subList(cursor, a.size()));
+        return result;
+    }
+}
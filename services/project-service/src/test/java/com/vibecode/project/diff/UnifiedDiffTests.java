@@ -0,0 +1,88 @@
+package com.vibecode.project.diff;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class UnifiedDiffTests {
+
+    @Test
+    void writesHunkWithContext() throws IOException {
+        assertThat(unified("a\nb\nc\nd\ne\n", "a\nb\nX\nd\ne\n", 1)).isEqualTo("""
+                @@ -2,3 +2,3 @@
+                 b
+                -c
+                +X
+                 d
+                """);
+    }
+
+    @Test
+    void joinsChangesWhoseContextOverlaps() throws IOException {
+        assertThat(unified("1\n2\n3\n4\n5\n6\n7\n", "1\nA\n3\n4\nB\n6\n7\n", 1)).isEqualTo("""
+                @@ -1,6 +1,6 @@
+                 1
+                -2
+                +A
+                 3
+                 4
+                -5
+                +B
+                 6
+                """);
+    }
+
+    @Test
+    void keepsDistantChangesInSeparateHunks() throws IOException {
+        assertThat(unified("1\n2\n3\n4\n5\n6\n7\n8\n", "A\n2\n3\n4\n5\n6\n7\nB\n", 1)).isEqualTo("""
+                @@ -1,2 +1,2 @@
+                -1
+                +A
+                 2
+                @@ -7,2 +7,2 @@
+                 7
+                -8
+                +B
+                """);
+    }
+
+    @Test
+    void emptyRangesNameTheLineBefore() throws IOException {
+        assertThat(unified("", "a\n", 3)).isEqualTo("""
+                @@ -0,0 +1 @@
+                +a
+                """);
+        assertThat(unified("a\nb\n", "a\n", 0)).isEqualTo("""
+                @@ -2 +1,0 @@
+                -b
+                """);
+    }
+
+    @Test
+    void marksMissingFinalNewline() throws IOException {
+        assertThat(unified("a\nb", "a\nc", 1)).isEqualTo("""
+                @@ -1,2 +1,2 @@
+                 a
+                -b
+                \\ No newline at end of file
+                +c
+                \\ No newline at end of file
+                """);
+    }
+
+    @Test
+    void identicalTextsHaveNoHunks() throws IOException {
+        assertThat(unified("same\n", "same\n", 3)).isEmpty();
+    }
+
+    private static String unified(String from, String to, int context) throws IOException {
+        List<String> a = LineDiff.splitLines(from);
+        List<String> b = LineDiff.splitLines(to);
+        StringBuilder out = new StringBuilder();
+        UnifiedDiff.writeHunks(a, b, LineDiff.diff(a, b), context, out);
+        return out.toString();
+    }
+}
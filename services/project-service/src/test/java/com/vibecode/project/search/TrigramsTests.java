@@ -0,0 +1,50 @@
+package com.vibecode.project.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class TrigramsTests {
+
+    @Test
+    void keysAreDistinctSortedAndCaseInsensitive() {
+        int[] keys = Trigrams.of("abcABC");
+
+        assertThat(keys).isSorted().doesNotHaveDuplicates();
+        assertThat(keys).containsExactlyInAnyOrder(
+                Trigrams.key('a', 'b', 'c'), Trigrams.key('b', 'c', 'a'), Trigrams.key('c', 'a', 'b'));
+        assertThat(Trigrams.of("ab")).isEmpty();
+    }
+
+    @Test
+    void plainRegexRequiresAllItsTrigrams() {
+        assertThat(Trigrams.forRegex("getUser")).isEqualTo(Trigrams.of("getUser"));
+    }
+
+    @Test
+    void optionalCharactersAreNotRequired() {
+        assertThat(Trigrams.requiredLiterals("colou?r")).containsExactly("colo");
+        assertThat(Trigrams.requiredLiterals("abcd*efgh")).containsExactly("abc", "efgh");
+        assertThat(Trigrams.requiredLiterals("abcd{0,2}efgh")).containsExactly("abc", "efgh");
+    }
+
+    @Test
+    void wildcardsClassesAndGroupsSplitLiterals() {
+        assertThat(Trigrams.requiredLiterals("foo.*bar")).containsExactly("foo", "bar");
+        assertThat(Trigrams.requiredLiterals("user[0-9]+Name")).containsExactly("user", "Name");
+        assertThat(Trigrams.requiredLiterals("load(All)?Items")).containsExactly("load", "Items");
+        assertThat(Trigrams.requiredLiterals("\\bfetch\\w+Data")).containsExactly("fetch", "Data");
+    }
+
+    @Test
+    void escapedPunctuationIsLiteral() {
+        assertThat(Trigrams.requiredLiterals("a\\.b\\.c")).containsExactly("a.b.c");
+    }
+
+    @Test
+    void alternationGivesNoTrigrams() {
+        assertThat(Trigrams.forRegex("alpha|beta")).isEmpty();
+        assertThat(Trigrams.forRegex("load(All|One)Items")).isEmpty();
+        assertThat(Trigrams.forRegex("a.b")).isEmpty();
+    }
+}
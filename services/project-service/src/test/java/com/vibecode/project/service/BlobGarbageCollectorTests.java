@@ -0,0 +1,109 @@
+package com.vibecode.project.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.vibecode.project.entity.FileBlob;
+import com.vibecode.project.entity.FileChange;
+import com.vibecode.project.entity.Project;
+import com.vibecode.project.entity.ProjectFile;
+import com.vibecode.project.entity.ProjectVersion;
+
+class BlobGarbageCollectorTests {
+
+    private static final String CURRENT = BlobStoreService.sha256("current");
+    private static final String SNAPSHOT = BlobStoreService.sha256("snapshot");
+    private static final String CHANGED = BlobStoreService.sha256("changed");
+    private static final String ORPHAN = BlobStoreService.sha256("orphan");
+
+    private MongoTemplate mongoTemplate;
+    private BlobStoreService blobStoreService;
+    private BlobGarbageCollector collector;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        blobStoreService = mock(BlobStoreService.class);
+        collector = new BlobGarbageCollector(mongoTemplate, blobStoreService);
+        ReflectionTestUtils.setField(collector, "graceMs", 60_000L);
+        ReflectionTestUtils.setField(collector, "bitsPerBlob", 16);
+        ReflectionTestUtils.setField(collector, "batchSize", 500);
+        ReflectionTestUtils.setField(collector, "pauseMs", 0L);
+
+        when(mongoTemplate.estimatedCount(FileBlob.class)).thenReturn(4L);
+        when(mongoTemplate.stream(any(Query.class), eq(Project.class))).thenReturn(Stream.of(
+                Project.builder().files(List.of(file(CURRENT))).build(),
+                Project.builder().build()));
+        when(mongoTemplate.stream(any(Query.class), eq(ProjectVersion.class))).thenReturn(Stream.of(
+                ProjectVersion.builder().filesSnapshot(List.of(file(SNAPSHOT))).build(),
+                ProjectVersion.builder()
+                        .baseVersionNumber(1)
+                        .changes(List.of(
+                                FileChange.builder().path("a.js").file(file(CHANGED)).build(),
+                                FileChange.builder().path("gone.js").build()))
+                        .build()));
+        when(mongoTemplate.stream(any(Query.class), eq(FileBlob.class))).thenReturn(Stream.of(
+                blob(CURRENT), blob(SNAPSHOT), blob(CHANGED), blob(ORPHAN)));
+    }
+
+    @Test
+    void onlyUnreferencedBlobsAreDeleted() {
+        when(blobStoreService.deleteUnusedSince(eq(ORPHAN), any())).thenReturn(blob(ORPHAN));
+
+        BlobGarbageCollector.Sweep sweep = collector.collect();
+
+        assertThat(sweep).isEqualTo(new BlobGarbageCollector.Sweep(4, 1, 10));
+        verify(blobStoreService, never()).deleteUnusedSince(eq(CURRENT), any());
+        verify(blobStoreService, never()).deleteUnusedSince(eq(SNAPSHOT), any());
+        verify(blobStoreService, never()).deleteUnusedSince(eq(CHANGED), any());
+    }
+
+    @Test
+    void blobReusedDuringTheRunIsNotCounted() {
+        // the delete re-checks the blob's last use and finds it touched since the mark phase
+        when(blobStoreService.deleteUnusedSince(eq(ORPHAN), any())).thenReturn(null);
+
+        BlobGarbageCollector.Sweep sweep = collector.collect();
+
+        assertThat(sweep).isEqualTo(new BlobGarbageCollector.Sweep(4, 0, 0));
+    }
+
+    @Test
+    void blobsWithinTheGracePeriodAreNotExamined() {
+        LocalDateTime before = LocalDateTime.now().minusMinutes(1);
+        collector.collect();
+
+        ArgumentCaptor<Query> sweep = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).stream(sweep.capture(), eq(FileBlob.class));
+        assertThat(sweep.getValue().getQueryObject()).containsKey("createdAt");
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(blobStoreService).deleteUnusedSince(anyString(), cutoff.capture());
+        assertThat(cutoff.getValue()).isBetween(before.minusSeconds(1), LocalDateTime.now().minusMinutes(1));
+    }
+
+    private static ProjectFile file(String hash) {
+        return ProjectFile.builder().contentHash(hash).build();
+    }
+
+    private static FileBlob blob(String hash) {
+        return FileBlob.builder().hash(hash).storedSize(10L).build();
+    }
+}
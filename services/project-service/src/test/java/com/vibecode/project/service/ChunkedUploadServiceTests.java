@@ -0,0 +1,261 @@
+package com.vibecode.project.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.MockedStatic;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mongodb.client.gridfs.GridFSBucket;
+import com.mongodb.client.gridfs.GridFSBuckets;
+import com.mongodb.client.gridfs.GridFSDownloadStream;
+import com.mongodb.client.gridfs.GridFSFindIterable;
+import com.mongodb.client.gridfs.GridFSUploadStream;
+import com.mongodb.client.gridfs.model.GridFSUploadOptions;
+import com.vibecode.project.entity.Project;
+import com.vibecode.project.entity.ProjectFile;
+import com.vibecode.project.entity.UploadPart;
+import com.vibecode.project.entity.UploadSession;
+import com.vibecode.project.exception.InvalidRequestException;
+import com.vibecode.project.exception.ProjectConflictException;
+
+class ChunkedUploadServiceTests {
+
+    private static final String PROJECT_ID = "65f0c0ffee0000000000000a";
+    private static final String UPLOAD_ID = "65f0c0ffee0000000000000b";
+
+    private final UUID owner = UUID.randomUUID();
+    private final Map<ObjectId, byte[]> storedParts = new HashMap<>();
+
+    private MongoTemplate mongoTemplate;
+    private ProjectService projectService;
+    private BlobStoreService blobStoreService;
+    private GridFSBucket bucket;
+    private MockedStatic<GridFSBuckets> buckets;
+    private ChunkedUploadService uploadService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        mongoTemplate = mock(MongoTemplate.class);
+        projectService = mock(ProjectService.class);
+        blobStoreService = mock(BlobStoreService.class);
+        uploadService = new ChunkedUploadService(mongoTemplate, projectService, blobStoreService);
+        ReflectionTestUtils.setField(uploadService, "partBytes", 16L);
+        ReflectionTestUtils.setField(uploadService, "maxFileBytes", 64L);
+        ReflectionTestUtils.setField(uploadService, "ttlMs", 60_000L);
+
+        bucket = mock(GridFSBucket.class);
+        buckets = mockStatic(GridFSBuckets.class);
+        buckets.when(() -> GridFSBuckets.create(any(), eq("upload_parts"))).thenReturn(bucket);
+        when(bucket.find(any(Bson.class))).thenReturn(mock(GridFSFindIterable.class));
+        when(bucket.openDownloadStream(any(ObjectId.class))).thenAnswer(call -> mock(
+                GridFSDownloadStream.class,
+                delegatesTo(new ByteArrayInputStream(storedParts.get(call.<ObjectId>getArgument(0))))));
+
+        // reads the assembled file the way the blob store would
+        when(blobStoreService.putStream(any(), anyLong(), any())).thenAnswer(call -> {
+            try (InputStream content = call.<BlobStoreService.ContentSource>getArgument(0).open()) {
+                String text = new String(content.readAllBytes(), StandardCharsets.UTF_8);
+                return new BlobStoreService.StoredContent(BlobStoreService.sha256(text), text.length());
+            }
+        });
+        when(projectService.putFileReference(eq(PROJECT_ID), any(), any(), eq(owner)))
+                .thenReturn(Project.builder().id(PROJECT_ID).revision(2L).build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        buckets.close();
+    }
+
+    @Test
+    void partsAreAssembledInOrderOnCompletion() throws IOException {
+        givenClaimed(session(null, part(2, "world"), part(1, "hello ")));
+
+        uploadService.complete(PROJECT_ID, UPLOAD_ID, owner);
+
+        ArgumentCaptor<ProjectFile> reference = ArgumentCaptor.forClass(ProjectFile.class);
+        verify(projectService).putFileReference(eq(PROJECT_ID), reference.capture(), any(), eq(owner));
+        assertThat(reference.getValue().getPath()).isEqualTo("src/data.json");
+        assertThat(reference.getValue().getFilename()).isEqualTo("data.json");
+        assertThat(reference.getValue().getContentHash()).isEqualTo(BlobStoreService.sha256("hello world"));
+        assertThat(reference.getValue().getSize()).isEqualTo(11L);
+        verify(blobStoreService).putStream(any(), eq(11L), eq("json"));
+        verify(mongoTemplate).remove(any(Query.class), eq(UploadSession.class));
+    }
+
+    @Test
+    void missingPartReopensTheUploadForARetry() throws IOException {
+        givenClaimed(session(null, part(1, "hello "), part(3, "!")));
+
+        assertThatThrownBy(() -> uploadService.complete(PROJECT_ID, UPLOAD_ID, owner))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("Part 2");
+
+        verifyReopened();
+        verify(blobStoreService, never()).putStream(any(), anyLong(), any());
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(UploadSession.class));
+    }
+
+    @Test
+    void sizeOtherThanDeclaredReopensTheUpload() {
+        givenClaimed(session(12L, part(1, "hello "), part(2, "world")));
+
+        assertThatThrownBy(() -> uploadService.complete(PROJECT_ID, UPLOAD_ID, owner))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("expected 12");
+
+        verifyReopened();
+        verify(projectService, never()).putFileReference(anyString(), any(), any(), any());
+    }
+
+    @Test
+    void failedFileUpdateReopensTheUploadAndKeepsItsParts() {
+        givenClaimed(session(null, part(1, "hello")));
+        when(projectService.putFileReference(eq(PROJECT_ID), any(), any(), eq(owner)))
+                .thenThrow(new ProjectConflictException("Project was modified concurrently"));
+
+        assertThatThrownBy(() -> uploadService.complete(PROJECT_ID, UPLOAD_ID, owner))
+                .isInstanceOf(ProjectConflictException.class);
+
+        verifyReopened();
+        verify(bucket, never()).delete(any(ObjectId.class));
+        verify(mongoTemplate, never()).remove(any(Query.class), eq(UploadSession.class));
+    }
+
+    @Test
+    void uploadAlreadyBeingCompletedIsAConflict() throws IOException {
+        UploadSession session = session(null, part(1, "hello"));
+        session.setStatus(UploadSession.Status.COMPLETING);
+        when(mongoTemplate.findById(UPLOAD_ID, UploadSession.class)).thenReturn(session);
+
+        assertThatThrownBy(() -> uploadService.complete(PROJECT_ID, UPLOAD_ID, owner))
+                .isInstanceOf(ProjectConflictException.class);
+
+        verify(blobStoreService, never()).putStream(any(), anyLong(), any());
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(UploadSession.class));
+    }
+
+    @Test
+    void resentPartReplacesTheEarlierAttempt() {
+        Map.Entry<String, UploadPart> earlier = part(1, "hellp");
+        UploadSession session = session(null, earlier);
+        when(mongoTemplate.findById(UPLOAD_ID, UploadSession.class)).thenReturn(session);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(UploadSession.class)))
+                .thenReturn(session);
+        givenUploadStream();
+
+        uploadService.putPart(PROJECT_ID, UPLOAD_ID, 1, text("hello"), BlobStoreService.sha256("hello"), owner);
+
+        verify(bucket).delete(new ObjectId(earlier.getValue().getGridFsId()));
+    }
+
+    @Test
+    void damagedPartIsRejectedAndNotRecorded() {
+        when(mongoTemplate.findById(UPLOAD_ID, UploadSession.class)).thenReturn(session(null));
+        ObjectId stored = givenUploadStream();
+
+        assertThatThrownBy(() -> uploadService.putPart(
+                PROJECT_ID, UPLOAD_ID, 1, text("hellp"), BlobStoreService.sha256("hello"), owner))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("checksum");
+
+        verify(bucket).delete(stored);
+        verify(mongoTemplate, never()).findAndModify(any(Query.class), any(Update.class), eq(UploadSession.class));
+    }
+
+    @Test
+    void partArrivingDuringCompletionIsDropped() {
+        when(mongoTemplate.findById(UPLOAD_ID, UploadSession.class)).thenReturn(session(null));
+        ObjectId stored = givenUploadStream();
+
+        // the session was claimed after the status check but before the part was recorded
+        assertThatThrownBy(() -> uploadService.putPart(PROJECT_ID, UPLOAD_ID, 1, text("hello"), null, owner))
+                .isInstanceOf(ProjectConflictException.class);
+
+        verify(bucket).delete(stored);
+    }
+
+    private void givenClaimed(UploadSession session) {
+        session.setStatus(UploadSession.Status.COMPLETING);
+        when(mongoTemplate.findAndModify(
+                any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(UploadSession.class)))
+                .thenReturn(session);
+    }
+
+    private ObjectId givenUploadStream() {
+        ObjectId id = new ObjectId();
+        GridFSUploadStream upload = mock(GridFSUploadStream.class);
+        when(upload.getObjectId()).thenReturn(id);
+        when(bucket.openUploadStream(anyString(), any(GridFSUploadOptions.class))).thenReturn(upload);
+        return id;
+    }
+
+    private void verifyReopened() {
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(UploadSession.class));
+        assertThat(update.getValue().getUpdateObject().get("$set", Document.class).get("status"))
+                .isEqualTo(UploadSession.Status.OPEN);
+    }
+
+    @SafeVarargs
+    private UploadSession session(Long size, Map.Entry<String, UploadPart>... parts) {
+        Map<String, UploadPart> byNumber = new HashMap<>();
+        for (Map.Entry<String, UploadPart> part : parts) {
+            byNumber.put(part.getKey(), part.getValue());
+        }
+        return UploadSession.builder()
+                .id(UPLOAD_ID)
+                .projectId(PROJECT_ID)
+                .ownerId(owner)
+                .path("src/data.json")
+                .language("json")
+                .size(size)
+                .status(UploadSession.Status.OPEN)
+                .parts(byNumber)
+                .build();
+    }
+
+    private Map.Entry<String, UploadPart> part(int number, String content) {
+        ObjectId id = new ObjectId();
+        storedParts.put(id, content.getBytes(StandardCharsets.UTF_8));
+        return Map.entry(String.valueOf(number), UploadPart.builder()
+                .gridFsId(id.toHexString())
+                .size((long) content.length())
+                .sha256(BlobStoreService.sha256(content))
+                .build());
+    }
+
+    private static InputStream text(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
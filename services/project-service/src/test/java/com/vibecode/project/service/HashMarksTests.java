@@ -0,0 +1,49 @@
+package com.vibecode.project.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class HashMarksTests {
+
+    private static final int ENTRIES = 20_000;
+
+    @Test
+    void alwaysContainsAddedHashes() {
+        HashMarks marks = new HashMarks(ENTRIES, 16, 7);
+        List<String> hashes = hashes(0, ENTRIES);
+        hashes.forEach(marks::add);
+
+        assertThat(hashes).allMatch(marks::mightContain);
+    }
+
+    @Test
+    void rarelyContainsOtherHashes() {
+        HashMarks marks = new HashMarks(ENTRIES, 16, 7);
+        hashes(0, ENTRIES).forEach(marks::add);
+
+        long falsePositives = hashes(ENTRIES, ENTRIES).stream().filter(marks::mightContain).count();
+
+        // about 0.05% expected at 16 bits per entry
+        assertThat(falsePositives).isLessThan(ENTRIES / 200);
+    }
+
+    @Test
+    void acceptsShortHashes() {
+        HashMarks marks = new HashMarks(10, 16, 7);
+        marks.add("abc");
+
+        assertThat(marks.mightContain("abc")).isTrue();
+    }
+
+    private static List<String> hashes(int from, int count) {
+        List<String> hashes = new ArrayList<>(count);
+        for (int i = from; i < from + count; i++) {
+            hashes.add(BlobStoreService.sha256("blob " + i));
+        }
+        return hashes;
+    }
+}
@@ -0,0 +1,55 @@
+package com.vibecode.project.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import org.assertj.core.api.ThrowableAssert.ThrowingCallable;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+
+import com.vibecode.project.exception.InvalidRequestException;
+
+class PageCursorTests {
+
+    @Test
+    void decodesWhatWasEncoded() {
+        LocalDateTime updatedAt = LocalDateTime.of(2026, 3, 1, 12, 30, 15, 123_000_000);
+        String id = new ObjectId().toHexString();
+
+        String[] position = PageCursor.decode(PageCursor.encode(updatedAt.toString(), id));
+
+        assertThat(PageCursor.timestamp(position[0])).isEqualTo(updatedAt);
+        assertThat(position[1]).isEqualTo(id);
+    }
+
+    @Test
+    void cursorIsUrlSafe() {
+        String cursor = PageCursor.encode(LocalDateTime.now().toString(), new ObjectId().toHexString());
+
+        assertThat(cursor).matches("[A-Za-z0-9_-]+");
+    }
+
+    @Test
+    void rejectsMalformedCursors() {
+        String id = new ObjectId().toHexString();
+
+        assertInvalid(() -> PageCursor.decode("not base64!"));
+        assertInvalid(() -> PageCursor.decode(encode("2026-03-01T12:30")));
+        assertInvalid(() -> PageCursor.decode(encode("2026-03-01T12:30|not-an-object-id")));
+        assertInvalid(() -> PageCursor.timestamp(PageCursor.decode(encode("yesterday|" + id))[0]));
+    }
+
+    private static void assertInvalid(ThrowingCallable decode) {
+        assertThatThrownBy(decode)
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessage("Invalid cursor");
+    }
+
+    private static String encode(String position) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,99 @@
+package com.vibecode.project.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.vibecode.project.entity.ProjectFile;
+
+class PathTrieTests {
+
+    @Test
+    void countsFilesAndBytesPerDirectory() {
+        PathTrie trie = PathTrie.of(List.of(
+                file("README.md", 10),
+                file("src/main.js", 100),
+                file("src/util/a.js", 20),
+                file("src/util/b.js", 30)));
+
+        assertThat(trie.size()).isEqualTo(4);
+        assertCounts(trie, "", 4, 160);
+        assertCounts(trie, "src", 3, 150);
+        assertCounts(trie, "src/util", 2, 50);
+        assertThat(trie.getRoot().getDirectories()).containsOnlyKeys("src");
+        assertThat(trie.directory("src/util").getFiles()).containsOnlyKeys("a.js", "b.js");
+    }
+
+    @Test
+    void replacingFileAdjustsBytesOnly() {
+        PathTrie trie = PathTrie.of(List.of(file("src/util/a.js", 20), file("src/b.js", 30)));
+        ProjectFile replacement = file("src/util/a.js", 75);
+
+        ProjectFile replaced = trie.put(replacement);
+
+        assertThat(replaced.getSize()).isEqualTo(20);
+        assertThat(trie.get("src/util/a.js")).isSameAs(replacement);
+        assertCounts(trie, "", 2, 105);
+        assertCounts(trie, "src", 2, 105);
+        assertCounts(trie, "src/util", 1, 75);
+    }
+
+    @Test
+    void removingFilePrunesEmptyDirectories() {
+        PathTrie trie = PathTrie.of(List.of(file("src/util/deep/a.js", 20), file("src/b.js", 30)));
+
+        assertThat(trie.remove("src/util/deep/a.js").getSize()).isEqualTo(20);
+
+        assertCounts(trie, "", 1, 30);
+        assertCounts(trie, "src", 1, 30);
+        assertThat(trie.directory("src/util")).isNull();
+        assertThat(trie.directory("src").getDirectories()).isEmpty();
+        assertThat(trie.remove("src/missing.js")).isNull();
+        assertCounts(trie, "", 1, 30);
+    }
+
+    @Test
+    void removingDirectoryReturnsItsFiles() {
+        PathTrie trie = PathTrie.of(List.of(
+                file("docs/index.md", 5),
+                file("src/a.js", 10),
+                file("src/lib/b.js", 20),
+                file("src/lib/c/d.js", 40)));
+
+        List<ProjectFile> removed = trie.removeDirectory("src/");
+
+        assertThat(removed).extracting(ProjectFile::getPath)
+                .containsExactly("src/a.js", "src/lib/b.js", "src/lib/c/d.js");
+        assertThat(trie.size()).isEqualTo(1);
+        assertCounts(trie, "", 1, 5);
+        assertThat(trie.directory("src")).isNull();
+        assertThat(trie.removeDirectory("src")).isEmpty();
+        assertThatThrownBy(() -> trie.removeDirectory("/")).isInstanceOf(RuntimeException.class);
+    }
+
+    @Test
+    void emptySegmentsAreIgnored() {
+        PathTrie trie = PathTrie.of(List.of(file("src/a.js", 10)));
+
+        assertThat(trie.get("/src//a.js")).isNotNull();
+        assertThat(trie.directory("src/")).isSameAs(trie.directory("/src"));
+        assertThat(trie.directory("")).isSameAs(trie.getRoot());
+        assertThat(trie.get("")).isNull();
+    }
+
+    private static void assertCounts(PathTrie trie, String path, int files, long bytes) {
+        PathTrie.Directory directory = trie.directory(path);
+        assertThat(directory.getFileCount()).as("files in '%s'", path).isEqualTo(files);
+        assertThat(directory.getTotalBytes()).as("bytes in '%s'", path).isEqualTo(bytes);
+    }
+
+    private static ProjectFile file(String path, long size) {
+        return ProjectFile.builder()
+                .path(path)
+                .size(size)
+                .build();
+    }
+}
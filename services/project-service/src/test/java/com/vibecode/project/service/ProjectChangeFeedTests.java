@@ -0,0 +1,121 @@
+package com.vibecode.project.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.mongodb.CursorType;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+
+class ProjectChangeFeedTests {
+
+    private MongoTemplate mongoTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private ProjectFilesCache projectFilesCache;
+    private ProjectChangeFeed feed;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        projectFilesCache = mock(ProjectFilesCache.class);
+        feed = new ProjectChangeFeed(mongoTemplate, eventPublisher, projectFilesCache);
+        ReflectionTestUtils.setField(feed, "enabled", true);
+    }
+
+    @Test
+    void localChangeIsPublishedForOtherInstances() {
+        feed.onProjectChanged(new ProjectChangedEvent("p1"));
+
+        ArgumentCaptor<Document> change = ArgumentCaptor.forClass(Document.class);
+        verify(mongoTemplate).insert(change.capture(), eq("project_changes"));
+        assertThat(change.getValue().getString("projectId")).isEqualTo("p1");
+        assertThat(change.getValue().getString("instanceId")).isEqualTo(instanceId());
+    }
+
+    @Test
+    void relayedChangeIsNotPublishedAgain() {
+        feed.onProjectChanged(new ProjectChangedEvent("p1", true));
+
+        verify(mongoTemplate, never()).insert(any(Document.class), anyString());
+    }
+
+    @Test
+    void changesOfOtherInstancesAreRelayedAndOwnOnesSkipped() {
+        MongoCursor<Document> cursor = cursor(
+                new Document("projectId", null).append("instanceId", instanceId()),
+                new Document("projectId", "mine").append("instanceId", instanceId()),
+                new Document("projectId", "theirs").append("instanceId", UUID.randomUUID().toString()));
+        givenCursors(List.of(cursor));
+
+        ReflectionTestUtils.invokeMethod(feed, "follow");
+
+        verify(eventPublisher).publishEvent(new ProjectChangedEvent("theirs", true));
+        verify(eventPublisher, never()).publishEvent(new ProjectChangedEvent("mine", true));
+        verify(projectFilesCache, never()).invalidateAll();
+    }
+
+    @Test
+    void reconnectingClearsTheCache() {
+        @SuppressWarnings("unchecked")
+        MongoCursor<Document> broken = mock(MongoCursor.class);
+        when(broken.hasNext()).thenThrow(new IllegalStateException("cursor killed"));
+        givenCursors(List.of(broken, cursor()));
+
+        ReflectionTestUtils.invokeMethod(feed, "follow");
+
+        // changes may have aged out of the capped collection in between
+        verify(projectFilesCache).invalidateAll();
+    }
+
+    private String instanceId() {
+        return (String) ReflectionTestUtils.getField(feed, "instanceId");
+    }
+
+    // Each cursor is opened in turn; the feed stops once the last one is drained
+    @SuppressWarnings("unchecked")
+    private void givenCursors(List<MongoCursor<Document>> cursors) {
+        MongoCollection<Document> collection = mock(MongoCollection.class);
+        FindIterable<Document> find = mock(FindIterable.class);
+        when(mongoTemplate.getCollection("project_changes")).thenReturn(collection);
+        when(collection.find()).thenReturn(find);
+        when(find.cursorType(CursorType.TailableAwait)).thenReturn(find);
+        MongoCursor<Document> first = cursors.get(0);
+        MongoCursor<Document>[] rest = cursors.subList(1, cursors.size()).toArray(MongoCursor[]::new);
+        when(find.iterator()).thenReturn(first, rest);
+        ReflectionTestUtils.setField(feed, "running", true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private MongoCursor<Document> cursor(Document... changes) {
+        MongoCursor<Document> cursor = mock(MongoCursor.class);
+        int[] next = {0};
+        when(cursor.hasNext()).thenAnswer(call -> {
+            if (next[0] < changes.length) {
+                return true;
+            }
+            ReflectionTestUtils.setField(feed, "running", false);
+            return false;
+        });
+        when(cursor.next()).thenAnswer(call -> changes[next[0]++]);
+        return cursor;
+    }
+}
@@ -0,0 +1,111 @@
+package com.vibecode.project.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.vibecode.project.entity.ProjectFile;
+import com.vibecode.project.service.ProjectFilesCache.CachedProject;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ProjectFilesCacheTests {
+
+    private final ProjectFilesCache cache = new ProjectFilesCache(new SimpleMeterRegistry(), 1 << 20, 1 << 20, 60_000);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void projectIsLoadedOnceUntilItChanges() {
+        cache.get("p1", this::load);
+        cache.get("p1", this::load);
+        assertThat(loads).hasValue(1);
+
+        cache.onProjectChanged(new ProjectChangedEvent("p1"));
+        CachedProject reloaded = cache.get("p1", this::load);
+
+        assertThat(loads).hasValue(2);
+        assertThat(reloaded.revision()).isEqualTo(2);
+    }
+
+    @Test
+    void changeRelayedFromAnotherInstanceInvalidatesToo() {
+        cache.get("p1", this::load);
+
+        cache.onProjectChanged(new ProjectChangedEvent("p1", true));
+
+        assertThat(cache.getIfPresent("p1")).isNull();
+    }
+
+    @Test
+    void changeOfOneProjectKeepsTheOthers() {
+        cache.get("p1", this::load);
+        cache.get("p2", this::load);
+
+        cache.onProjectChanged(new ProjectChangedEvent("p1"));
+
+        assertThat(cache.getIfPresent("p1")).isNull();
+        assertThat(cache.getIfPresent("p2")).isNotNull();
+    }
+
+    @Test
+    void invalidateAllDropsProjectsButKeepsContents() {
+        List<Collection<String>> reads = new ArrayList<>();
+        cache.get("p1", this::load);
+        cache.getContents(List.of("h1"), hashes -> contents(hashes, reads));
+
+        cache.invalidateAll();
+
+        assertThat(cache.getIfPresent("p1")).isNull();
+        cache.getContents(List.of("h1"), hashes -> contents(hashes, reads));
+        assertThat(reads).hasSize(1); // contents never go stale
+    }
+
+    @Test
+    void onlyUncachedContentsAreRead() {
+        List<Collection<String>> reads = new ArrayList<>();
+        cache.getContents(List.of("h1", "h2"), hashes -> contents(hashes, reads));
+
+        Map<String, String> contents = cache.getContents(List.of("h2", "h3"), hashes -> contents(hashes, reads));
+
+        assertThat(reads).hasSize(2);
+        assertThat(reads.get(1)).containsExactly("h3");
+        assertThat(contents).containsOnlyKeys("h2", "h3");
+    }
+
+    @Test
+    void missingContentsAreLeftOut() {
+        Map<String, String> contents = cache.getContents(List.of("h1", "gone"), hashes -> {
+            Map<String, String> found = new HashMap<>();
+            found.put("h1", "content of h1");
+            return found;
+        });
+
+        assertThat(contents).containsOnlyKeys("h1");
+    }
+
+    private CachedProject load(String projectId) {
+        int revision = loads.incrementAndGet();
+        List<ProjectFile> files = List.of(ProjectFile.builder()
+                .path("src/a.js")
+                .filename("a.js")
+                .contentHash("h1")
+                .size(1L)
+                .build());
+        return new CachedProject(projectId, UUID.randomUUID(), "private", revision, files, PathTrie.of(files));
+    }
+
+    private static Map<String, String> contents(Collection<String> hashes, List<Collection<String>> reads) {
+        reads.add(List.copyOf(hashes));
+        Map<String, String> contents = new HashMap<>();
+        hashes.forEach(hash -> contents.put(hash, "content of " + hash));
+        return contents;
+    }
+}
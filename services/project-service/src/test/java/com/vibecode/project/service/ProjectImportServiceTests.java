@@ -0,0 +1,214 @@
+package com.vibecode.project.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.vibecode.project.dto.ProjectImportResponse;
+import com.vibecode.project.entity.Project;
+import com.vibecode.project.entity.ProjectFile;
+import com.vibecode.project.exception.InvalidRequestException;
+import com.vibecode.project.exception.ProjectAccessDeniedException;
+
+class ProjectImportServiceTests {
+
+    private static final String PROJECT_ID = "65f0c0ffee0000000000000a";
+
+    private final UUID owner = UUID.randomUUID();
+
+    private ProjectService projectService;
+    private BlobStoreService blobStoreService;
+    private ProjectImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        projectService = mock(ProjectService.class);
+        blobStoreService = mock(BlobStoreService.class);
+        importService = new ProjectImportService(projectService, blobStoreService, 2);
+        ReflectionTestUtils.setField(importService, "maxInFlight", 2);
+        ReflectionTestUtils.setField(importService, "maxFileBytes", 64);
+        ReflectionTestUtils.setField(importService, "maxTotalBytes", 256L);
+        ReflectionTestUtils.setField(importService, "maxFiles", 10);
+        ReflectionTestUtils.setField(importService, "ignored", Set.of("node_modules", ".git"));
+
+        when(blobStoreService.putAll(anyList(), any())).thenAnswer(call -> call.<List<String>>getArgument(0)
+                .stream()
+                .map(BlobStoreService::sha256)
+                .toList());
+        when(projectService.replaceFileReferences(eq(PROJECT_ID), anyList(), any(), eq(owner)))
+                .thenReturn(Project.builder().id(PROJECT_ID).currentVersion(2).revision(3L).build());
+    }
+
+    @Test
+    void zipIsImportedAsOneVersion() throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("demo-main/src/app.js", text("console.log(1);"));
+        entries.put("demo-main/README.md", text("# Demo"));
+        entries.put("demo-main/node_modules/left-pad/index.js", text("module.exports = 1;"));
+        entries.put("demo-main/logo.png", new byte[] {(byte) 0x89, 'P', 'N', 'G', (byte) 0xff});
+        entries.put("demo-main/big.txt", text("x".repeat(65)));
+
+        ProjectImportResponse response = importService.importArchive(
+                PROJECT_ID, new ByteArrayInputStream(zip(entries)), "zip", "Import", owner);
+
+        assertThat(response.getVersionNumber()).isEqualTo(2);
+        assertThat(response.getImportedFiles()).isEqualTo(2);
+        assertThat(response.getIgnoredFiles()).isEqualTo(1);
+        assertThat(response.getSkippedFiles()).isEqualTo(2);
+
+        List<ProjectFile> references = importedReferences();
+        assertThat(references).extracting(ProjectFile::getPath).containsExactly("src/app.js", "README.md");
+        assertThat(references.get(0).getLanguage()).isEqualTo("javascript");
+        assertThat(references.get(0).getContentHash()).isEqualTo(BlobStoreService.sha256("console.log(1);"));
+        assertThat(references.get(0).getContent()).isNull();
+        assertThat(references.get(1).getLanguage()).isEqualTo("markdown");
+    }
+
+    @Test
+    void tarballIsImportedLikeAZip() throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        entries.put("index.html", text("<p>hi</p>"));
+        entries.put("src/app.ts", text("export {};"));
+        entries.put(".git/HEAD", text("ref: refs/heads/main"));
+
+        ProjectImportResponse response = importService.importArchive(
+                PROJECT_ID, new ByteArrayInputStream(tarGz(entries)), "tar.gz", null, owner);
+
+        assertThat(response.getImportedFiles()).isEqualTo(2);
+        assertThat(response.getIgnoredFiles()).isEqualTo(1);
+        // no common root, so paths are kept as they are
+        assertThat(importedReferences()).extracting(ProjectFile::getPath).containsExactly("index.html", "src/app.ts");
+    }
+
+    @Test
+    void laterEntryForTheSamePathWins() throws IOException {
+        // zip writers refuse duplicate names; tar appends them
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        TarWriter tar = new TarWriter(archive);
+        tar.putFile("a.js", 3, 0, new ByteArrayInputStream(text("old")));
+        tar.putFile("b.js", 1, 0, new ByteArrayInputStream(text("b")));
+        tar.putFile("a.js", 3, 0, new ByteArrayInputStream(text("new")));
+        tar.finish();
+
+        importService.importArchive(PROJECT_ID, new ByteArrayInputStream(archive.toByteArray()), "tar", null, owner);
+
+        assertThat(importedReferences())
+                .filteredOn(file -> file.getPath().equals("a.js"))
+                .singleElement()
+                .extracting(ProjectFile::getContentHash)
+                .isEqualTo(BlobStoreService.sha256("new"));
+    }
+
+    @Test
+    void archiveOverTheTotalLimitIsRejected() throws IOException {
+        Map<String, byte[]> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 5; i++) {
+            entries.put("file" + i + ".txt", text("y".repeat(60)));
+        }
+
+        assertThatThrownBy(() -> importService.importArchive(
+                PROJECT_ID, new ByteArrayInputStream(zip(entries)), "zip", null, owner))
+                .isInstanceOf(InvalidRequestException.class);
+
+        verify(projectService, never()).replaceFileReferences(anyString(), anyList(), any(), any());
+    }
+
+    @Test
+    void truncatedArchiveIsABadRequest() throws IOException {
+        byte[] archive = tarGz(Map.of("a.txt", text("a".repeat(40))));
+        byte[] truncated = Arrays.copyOf(archive, archive.length / 2);
+
+        assertThatThrownBy(() -> importService.importArchive(
+                PROJECT_ID, new ByteArrayInputStream(truncated), "tgz", null, owner))
+                .isInstanceOf(InvalidRequestException.class);
+
+        verify(projectService, never()).replaceFileReferences(anyString(), anyList(), any(), any());
+    }
+
+    @Test
+    void accessIsCheckedBeforeTheUploadIsRead() {
+        doThrow(new ProjectAccessDeniedException("Access denied")).when(projectService).checkWriteAccess(PROJECT_ID, owner);
+        InputStream body = mock(InputStream.class);
+
+        assertThatThrownBy(() -> importService.importArchive(PROJECT_ID, body, "zip", null, owner))
+                .isInstanceOf(ProjectAccessDeniedException.class);
+
+        verifyNoInteractions(body);
+    }
+
+    @Test
+    void unsupportedFormatIsRejected() {
+        assertThatThrownBy(() -> importService.importArchive(
+                PROJECT_ID, new ByteArrayInputStream(new byte[0]), "rar", null, owner))
+                .isInstanceOf(InvalidRequestException.class)
+                .hasMessageContaining("rar");
+    }
+
+    private List<ProjectFile> importedReferences() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ProjectFile>> references = ArgumentCaptor.forClass(List.class);
+        verify(projectService).replaceFileReferences(eq(PROJECT_ID), references.capture(), any(), eq(owner));
+        return references.getValue();
+    }
+
+    private static byte[] zip(Map<String, byte[]> entries) throws IOException {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                putEntry(zip, entry.getKey(), entry.getValue());
+            }
+        }
+        return archive.toByteArray();
+    }
+
+    private static void putEntry(ZipOutputStream zip, String name, byte[] content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content);
+        zip.closeEntry();
+    }
+
+    private static byte[] tarGz(Map<String, byte[]> entries) throws IOException {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(archive)) {
+            TarWriter tar = new TarWriter(gzip);
+            for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+                tar.putFile(entry.getKey(), entry.getValue().length, 0, new ByteArrayInputStream(entry.getValue()));
+            }
+            tar.finish();
+        }
+        return archive.toByteArray();
+    }
+
+    private static byte[] text(String content) {
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
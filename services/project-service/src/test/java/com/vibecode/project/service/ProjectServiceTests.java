@@ -0,0 +1,412 @@
+package com.vibecode.project.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.vibecode.project.dto.FileOperation;
+import com.vibecode.project.dto.FileOperationType;
+import com.vibecode.project.dto.PatchProjectFilesRequest;
+import com.vibecode.project.dto.TextEdit;
+import com.vibecode.project.entity.Project;
+import com.vibecode.project.entity.ProjectFile;
+import com.vibecode.project.exception.ProjectConflictException;
+import com.vibecode.project.repository.ProjectFilesView;
+import com.vibecode.project.repository.ProjectMetadataView;
+import com.vibecode.project.repository.ProjectRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ProjectServiceTests {
+
+    private static final String PROJECT_ID = "65f0c0ffee0000000000000a";
+    private static final String PARENT_ID = "65f0c0ffee0000000000000b";
+
+    private final UUID owner = UUID.randomUUID();
+
+    private ProjectRepository projectRepository;
+    private BlobStoreService blobStoreService;
+    private VersionHistoryService versionHistoryService;
+    private ApplicationEventPublisher eventPublisher;
+    private ForkLineageService forkLineageService;
+    private ProjectService projectService;
+
+    @BeforeEach
+    void setUp() {
+        projectRepository = mock(ProjectRepository.class);
+        blobStoreService = mock(BlobStoreService.class);
+        versionHistoryService = mock(VersionHistoryService.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        forkLineageService = mock(ForkLineageService.class);
+        projectService = new ProjectService(
+                projectRepository,
+                blobStoreService,
+                versionHistoryService,
+                eventPublisher,
+                new ProjectFilesCache(new SimpleMeterRegistry(), 1 << 20, 1 << 20, 60_000),
+                forkLineageService);
+        ReflectionTestUtils.setField(projectService, "maxPendingChanges", 3);
+        ReflectionTestUtils.setField(projectService, "maxPendingAgeMs", 60_000L);
+
+        when(blobStoreService.putAll(anyList(), anyList())).thenAnswer(call -> call.<List<String>>getArgument(0)
+                .stream()
+                .map(BlobStoreService::sha256)
+                .toList());
+    }
+
+    @Test
+    void staleRevisionIsRejectedBeforeAnythingIsWritten() {
+        givenMetadata(5L);
+
+        assertThatThrownBy(() -> projectService.updateProjectFiles(
+                PROJECT_ID, List.of(file("a.js", "a")), null, 4L, owner))
+                .isInstanceOf(ProjectConflictException.class);
+
+        verify(blobStoreService, never()).putAll(anyList(), anyList());
+        verify(projectRepository, never()).updateFiles(anyString(), anyList(), any(), any(), any());
+    }
+
+    @Test
+    void revisionChangedDuringUpdateIsAConflict() {
+        givenMetadata(5L);
+        when(projectRepository.updateFiles(eq(PROJECT_ID), anyList(), any(), eq(5L), any())).thenReturn(null);
+
+        assertThatThrownBy(() -> projectService.updateProjectFiles(
+                PROJECT_ID, List.of(file("a.js", "a")), null, 5L, owner))
+                .isInstanceOf(ProjectConflictException.class);
+
+        verify(versionHistoryService, never()).recordVersion(anyString(), any(Integer.class), any(), anyList(), any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void updateAtExpectedRevisionStoresReferencesOnly() {
+        givenMetadata(5L);
+        when(projectRepository.updateFiles(eq(PROJECT_ID), anyList(), any(), eq(5L), any()))
+                .thenReturn(Project.builder().id(PROJECT_ID).revision(6L).currentVersion(3).build());
+
+        Project updated = projectService.updateProjectFiles(
+                PROJECT_ID, List.of(file("a.js", "hello")), "v3", 5L, owner);
+
+        assertThat(updated.getRevision()).isEqualTo(6L);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ProjectFile>> references = ArgumentCaptor.forClass(List.class);
+        verify(projectRepository).updateFiles(eq(PROJECT_ID), references.capture(), any(), eq(5L), any());
+        assertThat(references.getValue()).singleElement().satisfies(reference -> {
+            assertThat(reference.getContent()).isNull();
+            assertThat(reference.getContentHash()).isEqualTo(BlobStoreService.sha256("hello"));
+            assertThat(reference.getSize()).isEqualTo(5L);
+        });
+        verify(versionHistoryService).recordVersion(eq(PROJECT_ID), eq(3), eq("v3"), anyList(), any());
+        verify(eventPublisher).publishEvent(new ProjectChangedEvent(PROJECT_ID));
+    }
+
+    @Test
+    void patchWithExpectedRevisionIsNotRetried() {
+        givenFiles(5L, List.of(reference("a.js", "a")));
+        when(projectRepository.applyFiles(eq(PROJECT_ID), anyList(), any(), anyLong(), any())).thenReturn(null);
+
+        assertThatThrownBy(() -> projectService.patchProjectFiles(PROJECT_ID, patch(5L, add("b.js")), owner))
+                .isInstanceOf(ProjectConflictException.class);
+
+        verify(projectRepository, times(1)).applyFiles(eq(PROJECT_ID), anyList(), any(), anyLong(), any());
+    }
+
+    @Test
+    void patchWithoutExpectedRevisionIsReappliedToTheNewState() {
+        ProjectFilesView before = filesView(5L, List.of(reference("a.js", "a")));
+        ProjectFilesView after = filesView(6L, List.of(reference("a.js", "a"), reference("c.js", "c")));
+        when(projectRepository.findProjectedById(PROJECT_ID, ProjectFilesView.class))
+                .thenReturn(Optional.of(before), Optional.of(after));
+        when(projectRepository.applyFiles(eq(PROJECT_ID), anyList(), any(), eq(5L), any())).thenReturn(null);
+        when(projectRepository.applyFiles(eq(PROJECT_ID), anyList(), any(), eq(6L), any()))
+                .thenReturn(pending(7L, 1));
+
+        Project updated = projectService.patchProjectFiles(PROJECT_ID, patch(null, add("b.js")), owner);
+
+        assertThat(updated.getRevision()).isEqualTo(7L);
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ProjectFile>> files = ArgumentCaptor.forClass(List.class);
+        verify(projectRepository).applyFiles(eq(PROJECT_ID), files.capture(), any(), eq(6L), any());
+        assertThat(files.getValue()).extracting(ProjectFile::getPath).containsExactly("a.js", "c.js", "b.js");
+    }
+
+    @Test
+    void patchGivesUpAfterRepeatedConflicts() {
+        givenFiles(5L, List.of(reference("a.js", "a")));
+        when(projectRepository.applyFiles(eq(PROJECT_ID), anyList(), any(), anyLong(), any())).thenReturn(null);
+
+        assertThatThrownBy(() -> projectService.patchProjectFiles(PROJECT_ID, patch(null, add("b.js")), owner))
+                .isInstanceOf(ProjectConflictException.class);
+
+        verify(projectRepository, times(3)).applyFiles(eq(PROJECT_ID), anyList(), any(), anyLong(), any());
+    }
+
+    @Test
+    void patchBelowThresholdLeavesEditsPending() {
+        givenFiles(5L, List.of(reference("a.js", "a")));
+        when(projectRepository.applyFiles(eq(PROJECT_ID), anyList(), any(), eq(5L), any())).thenReturn(pending(6L, 2));
+
+        Project updated = projectService.patchProjectFiles(PROJECT_ID, patch(null, add("b.js")), owner);
+
+        assertThat(updated.getPendingChanges()).isEqualTo(2);
+        verify(projectRepository, never()).claimPendingVersion(anyString(), any());
+        verify(versionHistoryService, never()).recordVersion(anyString(), any(Integer.class), any(), anyList(), any());
+        verify(eventPublisher).publishEvent(new ProjectChangedEvent(PROJECT_ID));
+    }
+
+    @Test
+    void patchReachingThresholdVersionsPendingEdits() {
+        givenFiles(5L, List.of(reference("a.js", "a")));
+        when(projectRepository.applyFiles(eq(PROJECT_ID), anyList(), any(), eq(5L), any())).thenReturn(pending(6L, 3));
+        Project claimed = Project.builder()
+                .id(PROJECT_ID)
+                .revision(6L)
+                .currentVersion(3)
+                .pendingChanges(0)
+                .files(List.of(reference("a.js", "a"), reference("b.js", "content of b.js")))
+                .build();
+        when(projectRepository.claimPendingVersion(eq(PROJECT_ID), any())).thenReturn(claimed);
+
+        PatchProjectFilesRequest request = patch(null, add("b.js"));
+        request.setVersionMessage("Add b.js");
+        Project updated = projectService.patchProjectFiles(PROJECT_ID, request, owner);
+
+        assertThat(updated.getCurrentVersion()).isEqualTo(3);
+        verify(versionHistoryService).recordVersion(eq(PROJECT_ID), eq(3), eq("Add b.js"), eq(claimed.getFiles()), any());
+    }
+
+    @Test
+    void oldPendingEditsAreVersionedOnTheNextPatch() {
+        givenFiles(5L, List.of(reference("a.js", "a")));
+        Project updated = pending(6L, 1);
+        updated.setLastVersionAt(LocalDateTime.now().minusMinutes(2));
+        when(projectRepository.applyFiles(eq(PROJECT_ID), anyList(), any(), eq(5L), any())).thenReturn(updated);
+
+        projectService.patchProjectFiles(PROJECT_ID, patch(null, add("b.js")), owner);
+
+        verify(projectRepository).claimPendingVersion(eq(PROJECT_ID), any());
+    }
+
+    @Test
+    void versionAlreadyClaimedElsewhereIsNotRecordedTwice() {
+        when(projectRepository.claimPendingVersion(eq(PROJECT_ID), any())).thenReturn(null);
+
+        assertThat(projectService.savePendingVersion(PROJECT_ID, null)).isNull();
+
+        verify(versionHistoryService, never()).recordVersion(anyString(), any(Integer.class), any(), anyList(), any());
+    }
+
+    @Test
+    void editWritesOnlyTheChangedContent() {
+        ProjectFile edited = reference("a.js", "abc");
+        ProjectFile untouched = reference("c.js", "c");
+        givenFiles(5L, List.of(edited, untouched));
+        when(blobStoreService.getContent(edited.getContentHash())).thenReturn("abc");
+        when(projectRepository.applyFiles(eq(PROJECT_ID), anyList(), any(), eq(5L), any())).thenReturn(pending(6L, 1));
+
+        projectService.patchProjectFiles(PROJECT_ID, patch(null, edit("a.js", 1, 2, "B")), owner);
+
+        verify(blobStoreService).putAll(eq(List.of("aBc")), anyList());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ProjectFile>> files = ArgumentCaptor.forClass(List.class);
+        verify(projectRepository).applyFiles(eq(PROJECT_ID), files.capture(), any(), eq(5L), any());
+        assertThat(files.getValue().get(0).getContentHash()).isEqualTo(BlobStoreService.sha256("aBc"));
+        assertThat(files.getValue().get(0).getContent()).isNull();
+        assertThat(files.getValue().get(1)).isSameAs(untouched); // the stats delta skips it
+    }
+
+    @Test
+    void forkCopiesNothingAndPointsAtTheParentVersion() {
+        publicProject(PARENT_ID, 4, null, null);
+        when(projectRepository.save(any(Project.class))).thenAnswer(call -> {
+            Project fork = call.getArgument(0);
+            fork.setId(PROJECT_ID);
+            return fork;
+        });
+
+        Project fork = projectService.forkProject(PARENT_ID, owner);
+
+        assertThat(fork.getFiles()).isNull();
+        assertThat(fork.getOwnerId()).isEqualTo(owner);
+        assertThat(fork.getBaseProjectId()).isEqualTo(PARENT_ID);
+        assertThat(fork.getBaseVersion()).isEqualTo(4);
+        assertThat(fork.getCurrentVersion()).isEqualTo(4);
+        assertThat(fork.getVisibility()).isEqualTo("private");
+        assertThat(fork.getAncestors()).containsExactly(PARENT_ID);
+        verify(projectRepository).recordFork(PARENT_ID, List.of(PARENT_ID));
+        verify(blobStoreService, never()).putAll(anyList(), anyList());
+        verify(versionHistoryService, never()).recordVersion(anyString(), any(Integer.class), any(), anyList(), any());
+    }
+
+    @Test
+    void forkOfAnUntouchedForkSharesItsBase() {
+        publicProject(PARENT_ID, 4, "65f0c0ffee0000000000000c", 4);
+        when(projectRepository.save(any(Project.class))).thenAnswer(call -> call.getArgument(0));
+
+        Project fork = projectService.forkProject(PARENT_ID, owner);
+
+        assertThat(fork.getBaseProjectId()).isEqualTo("65f0c0ffee0000000000000c");
+        assertThat(fork.getParentProjectId()).isEqualTo(PARENT_ID);
+    }
+
+    @Test
+    void forkIncludesTheParentsPendingEdits() {
+        ProjectMetadataView original = publicProject(PARENT_ID, 4, null, null);
+        when(original.getPendingChanges()).thenReturn(2);
+        when(projectRepository.claimPendingVersion(eq(PARENT_ID), any()))
+                .thenReturn(Project.builder().id(PARENT_ID).currentVersion(5).files(List.of()).build());
+        when(projectRepository.save(any(Project.class))).thenAnswer(call -> call.getArgument(0));
+
+        Project fork = projectService.forkProject(PARENT_ID, owner);
+
+        assertThat(fork.getBaseVersion()).isEqualTo(5);
+        verify(versionHistoryService).recordVersion(eq(PARENT_ID), eq(5), any(), anyList(), any());
+    }
+
+    @Test
+    void forkReadsItsParentsFilesUntilItWrites() {
+        List<ProjectFile> parentFiles = List.of(reference("a.js", "a"), reference("b.js", "b"));
+        givenFiles(0L, null);
+        when(versionHistoryService.getSnapshot(PROJECT_ID, 4)).thenReturn(parentFiles);
+
+        assertThat(projectService.getFileReferences(PROJECT_ID, null, owner)).isEqualTo(parentFiles);
+        assertThat(projectService.getFile(PROJECT_ID, "b.js", owner).getContentHash())
+                .isEqualTo(BlobStoreService.sha256("b"));
+    }
+
+    @Test
+    void firstWriteToAForkStartsFromTheParentsFiles() {
+        ProjectFile inherited = reference("a.js", "a");
+        givenFiles(0L, null);
+        when(versionHistoryService.getSnapshot(PROJECT_ID, 4)).thenReturn(List.of(inherited));
+        when(projectRepository.applyFiles(eq(PROJECT_ID), anyList(), any(), eq(0L), any())).thenReturn(pending(1L, 1));
+
+        projectService.patchProjectFiles(PROJECT_ID, patch(null, add("b.js")), owner);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ProjectFile>> files = ArgumentCaptor.forClass(List.class);
+        verify(projectRepository).applyFiles(eq(PROJECT_ID), files.capture(), any(), eq(0L), any());
+        assertThat(files.getValue()).hasSize(2);
+        assertThat(files.getValue().get(0)).isSameAs(inherited);
+    }
+
+    private ProjectMetadataView publicProject(String id, int currentVersion, String baseProjectId, Integer baseVersion) {
+        ProjectMetadataView view = mock(ProjectMetadataView.class);
+        when(view.getId()).thenReturn(id);
+        when(view.getOwnerId()).thenReturn(UUID.randomUUID());
+        when(view.getVisibility()).thenReturn("public");
+        when(view.getName()).thenReturn("Original");
+        when(view.getCurrentVersion()).thenReturn(currentVersion);
+        when(view.getPendingChanges()).thenReturn(0);
+        when(view.getBaseProjectId()).thenReturn(baseProjectId);
+        when(view.getBaseVersion()).thenReturn(baseVersion);
+        when(projectRepository.findProjectedById(id, ProjectMetadataView.class)).thenReturn(Optional.of(view));
+        when(forkLineageService.ancestorsOf(view)).thenReturn(List.of());
+        return view;
+    }
+
+    private void givenMetadata(long revision) {
+        ProjectMetadataView view = mock(ProjectMetadataView.class);
+        when(view.getId()).thenReturn(PROJECT_ID);
+        when(view.getOwnerId()).thenReturn(owner);
+        when(view.getVisibility()).thenReturn("private");
+        when(view.getRevision()).thenReturn(revision);
+        when(projectRepository.findProjectedById(PROJECT_ID, ProjectMetadataView.class)).thenReturn(Optional.of(view));
+    }
+
+    private void givenFiles(long revision, List<ProjectFile> files) {
+        ProjectFilesView view = filesView(revision, files);
+        when(projectRepository.findProjectedById(PROJECT_ID, ProjectFilesView.class)).thenReturn(Optional.of(view));
+    }
+
+    private ProjectFilesView filesView(long revision, List<ProjectFile> files) {
+        ProjectFilesView view = mock(ProjectFilesView.class);
+        when(view.getId()).thenReturn(PROJECT_ID);
+        when(view.getOwnerId()).thenReturn(owner);
+        when(view.getVisibility()).thenReturn("private");
+        when(view.getRevision()).thenReturn(revision);
+        when(view.getFiles()).thenReturn(files);
+        when(view.getCurrentVersion()).thenReturn(4);
+        return view;
+    }
+
+    private static Project pending(long revision, int pendingChanges) {
+        return Project.builder()
+                .id(PROJECT_ID)
+                .revision(revision)
+                .currentVersion(2)
+                .pendingChanges(pendingChanges)
+                .lastVersionAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static PatchProjectFilesRequest patch(Long expectedRevision, FileOperation... operations) {
+        PatchProjectFilesRequest request = new PatchProjectFilesRequest();
+        request.setOperations(List.of(operations));
+        request.setExpectedRevision(expectedRevision);
+        return request;
+    }
+
+    private static FileOperation add(String path) {
+        FileOperation operation = new FileOperation();
+        operation.setOp(FileOperationType.ADD);
+        operation.setPath(path);
+        operation.setContent("content of " + path);
+        return operation;
+    }
+
+    private static FileOperation edit(String path, int start, int end, String text) {
+        TextEdit edit = new TextEdit();
+        edit.setStart(start);
+        edit.setEnd(end);
+        edit.setText(text);
+        FileOperation operation = new FileOperation();
+        operation.setOp(FileOperationType.EDIT);
+        operation.setPath(path);
+        operation.setEdits(List.of(edit));
+        return operation;
+    }
+
+    private static ProjectFile file(String path, String content) {
+        return ProjectFile.builder()
+                .path(path)
+                .filename(path)
+                .language("javascript")
+                .content(content)
+                .build();
+    }
+
+    private static ProjectFile reference(String path, String content) {
+        LocalDateTime createdAt = LocalDateTime.of(2026, 1, 1, 0, 0);
+        return ProjectFile.builder()
+                .path(path)
+                .filename(path)
+                .language("javascript")
+                .contentHash(BlobStoreService.sha256(content))
+                .size((long) content.length())
+                .createdAt(createdAt)
+                .updatedAt(createdAt)
+                .build();
+    }
+}
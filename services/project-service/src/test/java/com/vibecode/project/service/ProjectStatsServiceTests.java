@@ -0,0 +1,85 @@
+package com.vibecode.project.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.vibecode.project.entity.ProjectFile;
+import com.vibecode.project.entity.ProjectStats;
+
+class ProjectStatsServiceTests {
+
+    @Test
+    void totalsOfFileList() {
+        ProjectStats stats = ProjectStatsService.of(List.of(
+                file("a.js", "JavaScript", 100),
+                file("b.js", "javascript", 50),
+                file("README", null, 10)));
+
+        assertThat(stats.getFileCount()).isEqualTo(3);
+        assertThat(stats.getTotalBytes()).isEqualTo(160);
+        assertThat(stats.getLanguageBytes()).containsOnly(
+                entry("javascript", 150L),
+                entry("other", 10L));
+    }
+
+    @Test
+    void unchangedInstancesCostNothing() {
+        ProjectFile kept = file("a.js", "javascript", 100);
+        ProjectFile replaced = file("b.py", "python", 40);
+        ProjectFile removed = file("c.css", "css", 30);
+        ProjectFile replacement = file("b.py", "python", 70);
+        ProjectFile added = file("d.js", "javascript", 5);
+
+        ProjectStats delta = ProjectStatsService.delta(
+                List.of(kept, replaced, removed),
+                List.of(kept, replacement, added));
+
+        assertThat(delta.getFileCount()).isEqualTo(0);
+        assertThat(delta.getTotalBytes()).isEqualTo(70 - 40 - 30 + 5);
+        assertThat(delta.getLanguageBytes()).containsOnly(
+                entry("python", 30L),
+                entry("css", -30L),
+                entry("javascript", 5L));
+    }
+
+    @Test
+    void deltaAppliedToTotalsGivesNewTotals() {
+        ProjectFile kept = file("a.js", "javascript", 100);
+        List<ProjectFile> before = List.of(kept, file("b.py", "python", 40));
+        List<ProjectFile> after = List.of(kept, file("c.go", "go", 12), file("d.go", "go", 8));
+
+        ProjectStats old = ProjectStatsService.of(before);
+        ProjectStats delta = ProjectStatsService.delta(before, after);
+        ProjectStats expected = ProjectStatsService.of(after);
+
+        assertThat(old.getFileCount() + delta.getFileCount()).isEqualTo(expected.getFileCount());
+        assertThat(old.getTotalBytes() + delta.getTotalBytes()).isEqualTo(expected.getTotalBytes());
+    }
+
+    @Test
+    void languageKeysAreSafeFieldNames() {
+        assertThat(ProjectStatsService.languageKey(" TypeScript ")).isEqualTo("typescript");
+        assertThat(ProjectStatsService.languageKey("c.sharp")).isEqualTo("c_sharp");
+        assertThat(ProjectStatsService.languageKey("$where")).isEqualTo("_where");
+        assertThat(ProjectStatsService.languageKey(" ")).isEqualTo("other");
+    }
+
+    @Test
+    void utf8LengthCountsBytes() {
+        assertThat(ProjectStatsService.utf8Length("abc")).isEqualTo(3);
+        assertThat(ProjectStatsService.utf8Length("ü€")).isEqualTo(5);
+        assertThat(ProjectStatsService.utf8Length(null)).isZero();
+    }
+
+    private static ProjectFile file(String path, String language, long size) {
+        return ProjectFile.builder()
+                .path(path)
+                .language(language)
+                .size(size)
+                .build();
+    }
+}
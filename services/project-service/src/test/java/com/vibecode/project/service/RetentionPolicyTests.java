@@ -0,0 +1,84 @@
+package com.vibecode.project.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import com.vibecode.project.entity.ProjectVersion;
+
+class RetentionPolicyTests {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 6, 30, 12, 0);
+
+    @Test
+    void parsesPlansByUpperCaseName() {
+        Map<String, RetentionPolicy> policies = RetentionPolicy.parse("FREE=50/7/90, pro = 200/30/0");
+
+        assertThat(policies).containsOnlyKeys("FREE", "PRO");
+        assertThat(policies.get("FREE")).isEqualTo(new RetentionPolicy(50, 7, 90));
+        assertThat(policies.get("PRO")).isEqualTo(new RetentionPolicy(200, 30, 0));
+    }
+
+    @Test
+    void rejectsInvalidPlans() {
+        assertThatThrownBy(() -> RetentionPolicy.parse("FREE=50/7")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RetentionPolicy.parse("FREE")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> RetentionPolicy.parse("FREE=0/7/90")).isInstanceOf(IllegalArgumentException.class);
+        // checkpoints must reach at least as far back as the full history
+        assertThatThrownBy(() -> RetentionPolicy.parse("FREE=50/30/7")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void keepsRecentVersionsAndDailyCheckpoints() {
+        List<ProjectVersion> versions = versions(
+                NOW.minusDays(60),
+                NOW.minusDays(20).withHour(9),
+                NOW.minusDays(20).withHour(18),
+                NOW.minusDays(10),
+                NOW.minusDays(3).withHour(1),
+                NOW.minusDays(3).withHour(2),
+                NOW.minusHours(1),
+                NOW);
+
+        // 1 is past the checkpoints, 2 is not the last of its day
+        assertThat(new RetentionPolicy(2, 7, 30).retained(versions, NOW)).containsExactlyInAnyOrder(3, 4, 5, 6, 7, 8);
+    }
+
+    @Test
+    void keepsLastVersionsRegardlessOfAge() {
+        List<ProjectVersion> versions = versions(
+                NOW.minusDays(400),
+                NOW.minusDays(100).withHour(10),
+                NOW.minusDays(100).withHour(11),
+                NOW.minusDays(100).withHour(12),
+                NOW.minusDays(100).withHour(13),
+                NOW.minusDays(100).withHour(14));
+
+        // no checkpoint limit, so the oldest day survives too
+        assertThat(new RetentionPolicy(3, 0, 0).retained(versions, NOW)).containsExactlyInAnyOrder(1, 4, 5, 6);
+    }
+
+    @Test
+    void keepsVersionsWithoutCreationTime() {
+        List<ProjectVersion> versions = versions(null, NOW.minusDays(100), NOW);
+
+        assertThat(new RetentionPolicy(1, 0, 30).retained(versions, NOW)).containsExactlyInAnyOrder(1, 3);
+    }
+
+    private static List<ProjectVersion> versions(LocalDateTime... createdAt) {
+        List<ProjectVersion> versions = new ArrayList<>();
+        for (int i = 0; i < createdAt.length; i++) {
+            versions.add(ProjectVersion.builder()
+                    .versionNumber(i + 1)
+                    .createdAt(createdAt[i])
+                    .build());
+        }
+        return versions;
+    }
+}
@@ -0,0 +1,81 @@
+package com.vibecode.project.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+class TarRoundTripTests {
+
+    @Test
+    void readsBackWhatWasWritten() throws IOException {
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        files.put("README.md", "# Demo\n".getBytes(StandardCharsets.UTF_8));
+        files.put("src/main.js", "console.log('hi');\n".getBytes(StandardCharsets.UTF_8));
+        files.put("empty.txt", new byte[0]);
+        files.put("block.bin", new byte[512]);
+        files.put("large.bin", new byte[40_000]); // larger than the copy buffer
+
+        assertThat(roundTrip(files)).containsExactlyEntriesOf(files);
+    }
+
+    @Test
+    void keepsLongAndNonAsciiPathsThroughPaxHeaders() throws IOException {
+        Map<String, byte[]> files = new LinkedHashMap<>();
+        files.put("src/" + "deeply/nested/".repeat(10) + "component.tsx", "export {}\n".getBytes(StandardCharsets.UTF_8));
+        files.put("docs/überblick.md", "Ü\n".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(roundTrip(files)).containsExactlyEntriesOf(files);
+    }
+
+    @Test
+    void unreadContentIsSkipped() throws IOException {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        TarWriter writer = new TarWriter(archive);
+        writer.putFile("a.txt", 3, 0, new ByteArrayInputStream("aaa".getBytes(StandardCharsets.US_ASCII)));
+        writer.putFile("b.txt", 3, 0, new ByteArrayInputStream("bbb".getBytes(StandardCharsets.US_ASCII)));
+        writer.finish();
+
+        TarReader reader = new TarReader(new ByteArrayInputStream(archive.toByteArray()));
+        assertThat(reader.next()).isEqualTo(new TarReader.Entry("a.txt", 3));
+        assertThat(reader.next()).isEqualTo(new TarReader.Entry("b.txt", 3));
+        assertThat(new String(reader.content().readAllBytes(), StandardCharsets.US_ASCII)).isEqualTo("bbb");
+        assertThat(reader.next()).isNull();
+    }
+
+    @Test
+    void writerRejectsContentOfTheWrongSize() {
+        TarWriter writer = new TarWriter(new ByteArrayOutputStream());
+
+        assertThatThrownBy(() -> writer.putFile("a.txt", 5, 0, new ByteArrayInputStream(new byte[3])))
+                .isInstanceOf(IOException.class);
+        assertThatThrownBy(() -> writer.putFile("b.txt", 2, 0, new ByteArrayInputStream(new byte[3])))
+                .isInstanceOf(IOException.class);
+    }
+
+    private static Map<String, byte[]> roundTrip(Map<String, byte[]> files) throws IOException {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        TarWriter writer = new TarWriter(archive);
+        for (Map.Entry<String, byte[]> file : files.entrySet()) {
+            writer.putFile(file.getKey(), file.getValue().length, 1_700_000_000L,
+                    new ByteArrayInputStream(file.getValue()));
+        }
+        writer.finish();
+
+        Map<String, byte[]> read = new LinkedHashMap<>();
+        TarReader reader = new TarReader(new ByteArrayInputStream(archive.toByteArray()));
+        for (TarReader.Entry entry = reader.next(); entry != null; entry = reader.next()) {
+            byte[] content = reader.content().readAllBytes();
+            assertThat(content).hasSize((int) entry.size());
+            read.put(entry.path(), content);
+        }
+        return read;
+    }
+}
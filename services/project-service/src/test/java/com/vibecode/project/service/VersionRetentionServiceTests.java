@@ -0,0 +1,156 @@
+package com.vibecode.project.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.vibecode.project.entity.OwnerPlan;
+import com.vibecode.project.entity.Project;
+import com.vibecode.project.entity.ProjectVersion;
+import com.vibecode.project.exception.InvalidRequestException;
+import com.vibecode.project.repository.ProjectRepository;
+
+class VersionRetentionServiceTests {
+
+    private static final String PROJECT_ID = "65f0c0ffee0000000000000a";
+
+    private final UUID owner = UUID.randomUUID();
+
+    private MongoTemplate mongoTemplate;
+    private ProjectRepository projectRepository;
+    private VersionHistoryService versionHistoryService;
+    private VersionRetentionService retentionService;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        projectRepository = mock(ProjectRepository.class);
+        versionHistoryService = mock(VersionHistoryService.class);
+        retentionService = new VersionRetentionService(mongoTemplate, projectRepository, versionHistoryService);
+        // keeps the last two versions and no older checkpoints past a day
+        ReflectionTestUtils.setField(retentionService, "planSpec", "FREE=2/0/1,PRO=200/30/365");
+        ReflectionTestUtils.setField(retentionService, "defaultPlan", "");
+        ReflectionTestUtils.setField(retentionService, "keyframeInterval", 20);
+        ReflectionTestUtils.setField(retentionService, "pauseMs", 0L);
+        retentionService.parsePolicies();
+
+        when(versionHistoryService.deleteVersions(eq(PROJECT_ID), any()))
+                .thenAnswer(call -> (long) call.<Set<Integer>>getArgument(1).size());
+    }
+
+    @Test
+    void forkPointIsKeptAndVersionsAfterItAreRebased() {
+        givenPlan("FREE");
+        // one delta chain 1 <- 2 <- ... <- 6
+        givenVersions(null, 1, 2, 3, 4, 5);
+        when(projectRepository.findForkPoints(PROJECT_ID)).thenReturn(List.of(3));
+
+        VersionRetentionService.Compaction compaction = retentionService.compact(project());
+
+        assertThat(compaction).isEqualTo(new VersionRetentionService.Compaction(3, 2));
+        verify(versionHistoryService).deleteVersions(PROJECT_ID, Set.of(1, 2, 4));
+        // the fork point becomes a keyframe holding the two versions folded into it
+        verify(versionHistoryService).rebase(PROJECT_ID, 3, null, 2);
+        verify(versionHistoryService).rebase(PROJECT_ID, 5, 3, 1);
+        verify(versionHistoryService, never()).rebase(eq(PROJECT_ID), eq(6), any(), any());
+        verify(projectRepository).incrementVersionCount(PROJECT_ID, -3);
+    }
+
+    @Test
+    void forkIsRebasedOntoItsForkPointInTheParent() {
+        givenPlan("FREE");
+        givenVersions(null, null, 2, 3);
+        when(projectRepository.findForkPoints(PROJECT_ID)).thenReturn(List.of());
+        when(versionHistoryService.chainDepth(PROJECT_ID, 7)).thenReturn(4);
+        Project fork = project();
+        fork.setBaseVersion(7);
+
+        retentionService.compact(fork);
+
+        // versions 1 and 2 go, so 3 is rebuilt on the fork point it came from
+        verify(versionHistoryService).deleteVersions(PROJECT_ID, Set.of(1, 2));
+        verify(versionHistoryService).rebase(PROJECT_ID, 3, 7, 2);
+    }
+
+    @Test
+    void ownerWithoutAPlanKeepsEverything() {
+        VersionRetentionService.Compaction compaction = retentionService.compact(project());
+
+        assertThat(compaction).isEqualTo(new VersionRetentionService.Compaction(0, 0));
+        verify(mongoTemplate, never()).find(any(Query.class), eq(ProjectVersion.class));
+        verify(versionHistoryService, never()).deleteVersions(anyString(), any());
+    }
+
+    @Test
+    void defaultPlanAppliesToOwnersWithoutOne() {
+        ReflectionTestUtils.setField(retentionService, "defaultPlan", "free");
+        givenVersions(null, 1, 2);
+        when(projectRepository.findForkPoints(PROJECT_ID)).thenReturn(List.of());
+
+        retentionService.compact(project());
+
+        verify(versionHistoryService).deleteVersions(PROJECT_ID, Set.of(1));
+    }
+
+    @Test
+    void historyWithinTheAllowanceIsLeftAlone() {
+        givenPlan("FREE");
+        givenVersions(null, 1);
+
+        retentionService.compact(project());
+
+        verify(projectRepository, never()).findForkPoints(anyString());
+        verify(versionHistoryService, never()).rebase(anyString(), anyInt(), any(), any());
+    }
+
+    @Test
+    void unknownPlanIsRejected() {
+        assertThatThrownBy(() -> retentionService.setOwnerPlan(owner, "gold"))
+                .isInstanceOf(InvalidRequestException.class);
+
+        verify(mongoTemplate, never()).save(any(OwnerPlan.class));
+    }
+
+    private Project project() {
+        return Project.builder().id(PROJECT_ID).ownerId(owner).build();
+    }
+
+    private void givenPlan(String plan) {
+        when(mongoTemplate.findById(owner, OwnerPlan.class))
+                .thenReturn(OwnerPlan.builder().ownerId(owner).plan(plan).build());
+    }
+
+    // Versions numbered from 1, a week old, each based on the given version
+    private void givenVersions(Integer... bases) {
+        LocalDateTime weekAgo = LocalDateTime.now().minusDays(7);
+        List<ProjectVersion> versions = new ArrayList<>();
+        for (int i = 0; i < bases.length; i++) {
+            versions.add(ProjectVersion.builder()
+                    .projectId(PROJECT_ID)
+                    .versionNumber(i + 1)
+                    .baseVersionNumber(bases[i])
+                    .createdAt(weekAgo.plusMinutes(i))
+                    .build());
+        }
+        when(mongoTemplate.find(any(Query.class), eq(ProjectVersion.class))).thenReturn(versions);
+    }
+}
@@ -0,0 +1,56 @@
+package com.vibecode.auth.services;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vibecode.benchmarks.BenchmarkSupport;
+
+/** Token issuing on login/refresh and the validation done by auth-service's own filter. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AuthJwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private UUID userId;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        BenchmarkSupport.setField(jwtService, "secretKey", BenchmarkSupport.JWT_SECRET);
+        BenchmarkSupport.setField(jwtService, "accessTokenExpiration", BenchmarkSupport.JWT_EXPIRATION_MS);
+
+        userId = UUID.randomUUID();
+        token = jwtService.generateToken(userId, "bench@vibecode.test");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(userId, "bench@vibecode.test");
+    }
+
+    @Benchmark
+    public boolean isTokenValid() {
+        return jwtService.isTokenValid(token);
+    }
+
+    @Benchmark
+    public UUID extractUserId() {
+        return jwtService.extractUserId(token);
+    }
+}
@@ -0,0 +1,40 @@
+package com.vibecode.auth.services;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** {@code AuthService.hash}, run on every login, refresh and logout. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RefreshTokenHashBenchmark {
+
+    private AuthService authService;
+    private String refreshToken;
+
+    @Setup
+    public void setUp() {
+        // hash() uses none of the injected collaborators
+        authService = new AuthService(null, null, null, null);
+        refreshToken = UUID.randomUUID().toString();
+    }
+
+    @Benchmark
+    public String hash() {
+        return authService.hash(refreshToken);
+    }
+}
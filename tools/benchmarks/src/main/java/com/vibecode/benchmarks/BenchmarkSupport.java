@@ -0,0 +1,82 @@
+package com.vibecode.benchmarks;
+
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.vibecode.project.entity.ProjectFile;
+
+/**
+ * Fixtures shared by the benchmarks. Services are created without Spring, so
+ * their {@code @Value} fields are filled in by reflection.
+ */
+public final class BenchmarkSupport {
+
+    /** Same secret as the services' application.yaml, so key sizes match production. */
+    public static final String JWT_SECRET = "your_jwt_secret_key_should_be_long_and_secure_here_change_this_in_production";
+
+    public static final long JWT_EXPIRATION_MS = 3_600_000L;
+
+    private BenchmarkSupport() {
+    }
+
+    public static void setField(Object target, String name, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(name);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot set " + name + " on " + target.getClass(), e);
+        }
+    }
+
+    /** Mirrors the ObjectMapper Spring Boot configures for the services. */
+    public static ObjectMapper objectMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /** Deterministic source-like files of roughly {@code fileSize} characters each. */
+    public static List<ProjectFile> projectFiles(int count, int fileSize) {
+        Random random = new Random(42);
+        LocalDateTime now = LocalDateTime.now();
+        List<ProjectFile> files = new ArrayList<>(count);
+
+        for (int i = 0; i < count; i++) {
+            String content = sourceText(random, fileSize);
+            files.add(ProjectFile.builder()
+                    .path("src/module" + (i % 20) + "/File" + i + ".js")
+                    .filename("File" + i + ".js")
+                    .language("javascript")
+                    .content(content)
+                    .size((long) content.length())
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+        return files;
+    }
+
+    private static String sourceText(Random random, int size) {
+        String[] lines = {
+            "import { useState } from 'react';\n",
+            "export function handler(event) {\n",
+            "    const value = event.target.value;\n",
+            "    if (!value) { return null; }\n",
+            "    return items.filter(item => item.id !== value);\n",
+            "}\n",
+            "// TODO: extract into a shared hook\n"
+        };
+        StringBuilder sb = new StringBuilder(size + 64);
+        while (sb.length() < size) {
+            sb.append(lines[random.nextInt(lines.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package com.vibecode.gateway.security;
+
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vibecode.benchmarks.BenchmarkSupport;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+
+/** Per-request JWT verification done by {@code JwtAuthFilter} in api-gateway. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GatewayJwtServiceBenchmark {
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        BenchmarkSupport.setField(jwtService, "secret", BenchmarkSupport.JWT_SECRET);
+
+        token = Jwts.builder()
+                .setSubject(UUID.randomUUID().toString())
+                .claim("email", "bench@vibecode.test")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + BenchmarkSupport.JWT_EXPIRATION_MS))
+                .signWith(Keys.hmacShaKeyFor(BenchmarkSupport.JWT_SECRET.getBytes()), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public Claims validateAndExtract() {
+        return jwtService.validateAndExtract(token);
+    }
+}
@@ -0,0 +1,72 @@
+package com.vibecode.project.dto;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibecode.benchmarks.BenchmarkSupport;
+import com.vibecode.project.entity.ProjectFile;
+
+/**
+ * Jackson cost of large file payloads: writing the {@code GET /files} response
+ * and reading the same file list as a {@code PUT /files} request body.
+ * {@link ProjectFilesResponse} has no creator, so the read side uses
+ * {@link UpdateProjectFilesRequest}, which is what the service deserializes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProjectFilesJsonBenchmark {
+
+    @Param({"100", "1000"})
+    private int fileCount;
+
+    @Param({"1024", "16384"})
+    private int fileSize;
+
+    private ObjectMapper objectMapper;
+    private ProjectFilesResponse response;
+    private byte[] requestJson;
+
+    @Setup
+    public void setUp() throws IOException {
+        objectMapper = BenchmarkSupport.objectMapper();
+        List<ProjectFile> files = BenchmarkSupport.projectFiles(fileCount, fileSize);
+
+        response = ProjectFilesResponse.builder()
+                .projectId("65f1c0ffee0000000000beef")
+                .files(files)
+                .build();
+
+        UpdateProjectFilesRequest request = new UpdateProjectFilesRequest();
+        request.setFiles(files);
+        request.setVersionMessage("benchmark");
+        requestJson = objectMapper.writeValueAsBytes(request);
+    }
+
+    @Benchmark
+    public byte[] serializeResponse() throws IOException {
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    public UpdateProjectFilesRequest deserializeRequest() throws IOException {
+        return objectMapper.readValue(requestJson, UpdateProjectFilesRequest.class);
+    }
+}
@@ -0,0 +1,47 @@
+package com.vibecode.project.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.vibecode.benchmarks.BenchmarkSupport;
+import com.vibecode.project.entity.ProjectFile;
+
+/** File list copy performed by {@code updateProjectFiles}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProjectFileCopyBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int fileCount;
+
+    private List<ProjectFile> files;
+    private LocalDateTime now;
+
+    @Setup
+    public void setUp() {
+        files = BenchmarkSupport.projectFiles(fileCount, 4096);
+        now = LocalDateTime.now();
+    }
+
+    @Benchmark
+    public List<ProjectFile> copyFiles() {
+        return ProjectService.copyFiles(files, now);
+    }
+}
@@ -0,0 +1,18 @@
+package com.vibecode.loadtest;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+
+@SpringBootApplication
+@ConfigurationPropertiesScan
+public class LoadTestApplication {
+
+	public static void main(String[] args) {
+		SpringApplication app = new SpringApplication(LoadTestApplication.class);
+		app.setWebApplicationType(WebApplicationType.NONE);
+		System.exit(SpringApplication.exit(app.run(args)));
+	}
+
+}
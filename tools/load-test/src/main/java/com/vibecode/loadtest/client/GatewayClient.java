@@ -0,0 +1,116 @@
+package com.vibecode.loadtest.client;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibecode.loadtest.config.LoadTestProperties;
+
+/**
+ * Thin async client for the endpoints exercised by the load test. Every call
+ * goes through api-gateway, the same as a browser would.
+ */
+@Component
+public class GatewayClient {
+
+    private final LoadTestProperties properties;
+    private final ObjectMapper objectMapper;
+    private final HttpClient httpClient;
+
+    public GatewayClient(LoadTestProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    public CompletableFuture<HttpResponse<String>> register(String email) {
+        return post("/auth/register", Map.of("email", email, "password", properties.getPassword()), null);
+    }
+
+    public CompletableFuture<HttpResponse<String>> login(String email) {
+        return post("/auth/login", Map.of("email", email, "password", properties.getPassword()), null);
+    }
+
+    public CompletableFuture<HttpResponse<String>> createProfile(UUID userId, String authHeader) {
+        return post("/users/", Map.of("id", userId.toString(), "fullName", "Load Test"), authHeader);
+    }
+
+    public CompletableFuture<HttpResponse<String>> updatePlan(UUID userId, String planType, String authHeader) {
+        return send(request("/users/" + userId + "/plan", authHeader)
+                .PUT(json(Map.of("planType", planType)))
+                .build());
+    }
+
+    public CompletableFuture<HttpResponse<String>> createProject(String name, String authHeader) {
+        return post("/projects/", Map.of("name", name, "visibility", "private"), authHeader);
+    }
+
+    public CompletableFuture<HttpResponse<String>> generate(String projectId, String prompt, String authHeader) {
+        return post("/ai/generate", Map.of("projectId", projectId, "prompt", prompt), authHeader);
+    }
+
+    public CompletableFuture<HttpResponse<String>> get(String path, String authHeader) {
+        return send(request(path, authHeader).GET().build());
+    }
+
+    public JsonNode readTree(HttpResponse<String> response) {
+        try {
+            return objectMapper.readTree(response.body());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unexpected response body: " + response.body(), e);
+        }
+    }
+
+    /** Reads the subject claim without verifying the signature; the gateway already trusts it. */
+    public UUID subjectOf(String jwt) {
+        String payload = jwt.split("\\.")[1];
+        byte[] json = Base64.getUrlDecoder().decode(payload);
+        try {
+            return UUID.fromString(objectMapper.readTree(json).get("sub").asText());
+        } catch (java.io.IOException e) {
+            throw new IllegalStateException("Malformed access token", e);
+        }
+    }
+
+    private CompletableFuture<HttpResponse<String>> post(String path, Object body, String authHeader) {
+        return send(request(path, authHeader).POST(json(body)).build());
+    }
+
+    private HttpRequest.Builder request(String path, String authHeader) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(properties.getGatewayUrl() + path))
+                .timeout(Duration.ofSeconds(properties.getRequestTimeoutSeconds()))
+                .header("Content-Type", "application/json");
+        if (authHeader != null) {
+            builder.header("Authorization", authHeader);
+        }
+        return builder;
+    }
+
+    private HttpRequest.BodyPublisher json(Object body) {
+        try {
+            return HttpRequest.BodyPublishers.ofString(objectMapper.writeValueAsString(body), StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private CompletableFuture<HttpResponse<String>> send(HttpRequest request) {
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
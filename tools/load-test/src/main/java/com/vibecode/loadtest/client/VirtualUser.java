@@ -0,0 +1,10 @@
+package com.vibecode.loadtest.client;
+
+import java.util.UUID;
+
+public record VirtualUser(String email, UUID userId, String accessToken, String projectId) {
+
+    public String authHeader() {
+        return "Bearer " + accessToken;
+    }
+}
@@ -0,0 +1,56 @@
+package com.vibecode.loadtest.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "loadtest")
+public class LoadTestProperties {
+
+    private String gatewayUrl = "http://localhost:8080";
+
+    /** Virtual users registered (or reused) during setup. */
+    private int users = 20;
+    private String emailPrefix = "loadtest-user-";
+    private String emailDomain = "vibecode.test";
+    private String password = "LoadTest123!";
+
+    /** Plan assigned to every virtual user so quota does not cap the run. */
+    private String userPlan = "ENTERPRISE";
+
+    private int warmupSeconds = 10;
+    private int durationSeconds = 60;
+    private int requestTimeoutSeconds = 60;
+
+    /** Requests above this many in flight are counted as dropped, not sent. */
+    private int maxInFlight = 2000;
+
+    /** Where the JSON report is written; empty to skip. */
+    private String reportFile = "target/loadtest-report.json";
+
+    private Scenario login = new Scenario();
+    private Scenario createProject = new Scenario();
+    private Generate generate = new Generate();
+
+    // Read paths of project-service
+    private Scenario listFiles = new Scenario();
+    private Scenario listVersions = new Scenario();
+
+    @Getter
+    @Setter
+    public static class Scenario {
+
+        /** Arrivals per second (open model); 0 disables the scenario. */
+        private double rate = 0;
+    }
+
+    @Getter
+    @Setter
+    public static class Generate extends Scenario {
+
+        private String prompt = "Build a todo list component with add and remove buttons";
+    }
+}
@@ -0,0 +1,65 @@
+package com.vibecode.loadtest.metrics;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects per-request latencies for one scenario. Latencies are measured
+ * from the intended send time rather than the actual one, so a saturated
+ * system cannot hide queueing delay (coordinated omission).
+ */
+public class LatencyRecorder {
+
+    private final String name;
+    private final AtomicLong errors = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private long[] micros = new long[1024];
+    private int count;
+
+    public LatencyRecorder(String name) {
+        this.name = name;
+    }
+
+    public synchronized void recordSuccess(long latencyNanos) {
+        if (count == micros.length) {
+            micros = Arrays.copyOf(micros, count * 2);
+        }
+        micros[count++] = latencyNanos / 1_000;
+    }
+
+    public void recordError() {
+        errors.incrementAndGet();
+    }
+
+    public void recordDropped() {
+        dropped.incrementAndGet();
+    }
+
+    public synchronized ScenarioReport report(double elapsedSeconds, double targetRate) {
+        long[] sorted = Arrays.copyOf(micros, count);
+        Arrays.sort(sorted);
+
+        return new ScenarioReport(
+                name,
+                targetRate,
+                count,
+                errors.get(),
+                dropped.get(),
+                elapsedSeconds > 0 ? count / elapsedSeconds : 0,
+                percentileMillis(sorted, 50),
+                percentileMillis(sorted, 90),
+                percentileMillis(sorted, 99),
+                percentileMillis(sorted, 99.9),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1000.0
+        );
+    }
+
+    private static double percentileMillis(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1000.0;
+    }
+}
@@ -0,0 +1,15 @@
+package com.vibecode.loadtest.metrics;
+
+public record ScenarioReport(
+        String scenario,
+        double targetRate,
+        long succeeded,
+        long failed,
+        long dropped,
+        double throughput,
+        double p50Ms,
+        double p90Ms,
+        double p99Ms,
+        double p999Ms,
+        double maxMs) {
+}
@@ -0,0 +1,223 @@
+package com.vibecode.loadtest.runner;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibecode.loadtest.client.GatewayClient;
+import com.vibecode.loadtest.client.VirtualUser;
+import com.vibecode.loadtest.config.LoadTestProperties;
+import com.vibecode.loadtest.metrics.LatencyRecorder;
+import com.vibecode.loadtest.metrics.ScenarioReport;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sets up virtual users, then drives every enabled scenario at its configured
+ * arrival rate for the warmup plus measurement window. Arrivals follow an open
+ * model: requests are issued on schedule whether or not earlier ones finished.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LoadTestRunner implements ApplicationRunner {
+
+    private final LoadTestProperties properties;
+    private final GatewayClient client;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        List<VirtualUser> users = setUpUsers();
+        log.info("Set up {} virtual users against {}", users.size(), properties.getGatewayUrl());
+
+        AtomicInteger cursor = new AtomicInteger();
+        Supplier<VirtualUser> nextUser = () -> users.get(Math.floorMod(cursor.getAndIncrement(), users.size()));
+
+        List<Scenario> scenarios = new ArrayList<>();
+        scenarios.add(new Scenario("login", properties.getLogin().getRate(),
+                () -> client.login(nextUser.get().email())));
+        scenarios.add(new Scenario("create-project", properties.getCreateProject().getRate(),
+                () -> {
+                    VirtualUser user = nextUser.get();
+                    return client.createProject("load-" + UUID.randomUUID(), user.authHeader());
+                }));
+        scenarios.add(new Scenario("ai-generate", properties.getGenerate().getRate(),
+                () -> {
+                    VirtualUser user = nextUser.get();
+                    return client.generate(user.projectId(), properties.getGenerate().getPrompt(), user.authHeader());
+                }));
+        scenarios.add(new Scenario("list-files", properties.getListFiles().getRate(),
+                () -> read(nextUser.get(), "/files?view=metadata")));
+        scenarios.add(new Scenario("list-versions", properties.getListVersions().getRate(),
+                () -> read(nextUser.get(), "/versions?size=100")));
+        scenarios.removeIf(scenario -> scenario.rate() <= 0);
+
+        long start = System.nanoTime();
+        long measureFrom = start + properties.getWarmupSeconds() * 1_000_000_000L;
+        long end = measureFrom + properties.getDurationSeconds() * 1_000_000_000L;
+        Semaphore inFlight = new Semaphore(properties.getMaxInFlight());
+
+        List<Thread> drivers = new ArrayList<>();
+        for (Scenario scenario : scenarios) {
+            drivers.add(Thread.ofPlatform().name("driver-" + scenario.name())
+                    .start(() -> drive(scenario, start, measureFrom, end, inFlight)));
+        }
+        for (Thread driver : drivers) {
+            driver.join();
+        }
+
+        // let in-flight requests finish before reporting
+        inFlight.tryAcquire(properties.getMaxInFlight(), properties.getRequestTimeoutSeconds(),
+                TimeUnit.SECONDS);
+
+        List<ScenarioReport> reports = scenarios.stream()
+                .map(s -> s.recorder().report(properties.getDurationSeconds(), s.rate()))
+                .toList();
+        print(reports);
+        write(reports);
+    }
+
+    private void drive(Scenario scenario, long start, long measureFrom, long end, Semaphore inFlight) {
+        long period = (long) (1_000_000_000L / scenario.rate());
+
+        for (long k = 0;; k++) {
+            long intended = start + k * period;
+            if (intended >= end) {
+                return;
+            }
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+
+            boolean measured = intended >= measureFrom;
+            if (!inFlight.tryAcquire()) {
+                if (measured) {
+                    scenario.recorder().recordDropped();
+                }
+                continue;
+            }
+
+            CompletableFuture<HttpResponse<String>> call;
+            try {
+                call = scenario.call().get();
+            } catch (RuntimeException e) {
+                inFlight.release();
+                if (measured) {
+                    scenario.recorder().recordError();
+                }
+                continue;
+            }
+
+            call.whenComplete((response, error) -> {
+                inFlight.release();
+                if (!measured) {
+                    return;
+                }
+                if (error == null && response.statusCode() / 100 == 2) {
+                    scenario.recorder().recordSuccess(System.nanoTime() - intended);
+                } else {
+                    scenario.recorder().recordError();
+                }
+            });
+        }
+    }
+
+    private CompletableFuture<HttpResponse<String>> read(VirtualUser user, String path) {
+        return client.get("/projects/" + user.projectId() + path, user.authHeader());
+    }
+
+    private List<VirtualUser> setUpUsers() {
+        List<CompletableFuture<VirtualUser>> futures = new ArrayList<>();
+        for (int i = 0; i < properties.getUsers(); i++) {
+            String email = properties.getEmailPrefix() + i + "@" + properties.getEmailDomain();
+            futures.add(setUpUser(email));
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    private CompletableFuture<VirtualUser> setUpUser(String email) {
+        // register fails with 400 when the user already exists, which is fine
+        return client.register(email)
+                .thenCompose(ignored -> client.login(email))
+                .thenCompose(login -> {
+                    if (login.statusCode() != 200) {
+                        throw new IllegalStateException("Login failed for " + email + ": " + login.body());
+                    }
+                    String token = client.readTree(login).get("token").asText();
+                    UUID userId = client.subjectOf(token);
+                    String auth = "Bearer " + token;
+                    return client.createProfile(userId, auth)
+                            .thenCompose(ignored -> client.updatePlan(userId, properties.getUserPlan(), auth))
+                            .thenCompose(ignored -> client.createProject("load-" + userId, auth))
+                            .thenApply(project -> {
+                                if (project.statusCode() != 200) {
+                                    throw new IllegalStateException("Project creation failed for " + email + ": " + project.body());
+                                }
+                                String projectId = client.readTree(project).get("id").asText();
+                                return new VirtualUser(email, userId, token, projectId);
+                            });
+                });
+    }
+
+    private void print(List<ScenarioReport> reports) {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%n%-16s %8s %9s %7s %7s %9s %9s %9s %9s %9s %9s%n",
+                "scenario", "rate", "ok", "failed", "dropped", "req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (ScenarioReport r : reports) {
+            out.append(String.format("%-16s %8.1f %9d %7d %7d %9.1f %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    r.scenario(), r.targetRate(), r.succeeded(), r.failed(), r.dropped(), r.throughput(),
+                    r.p50Ms(), r.p90Ms(), r.p99Ms(), r.p999Ms(), r.maxMs()));
+        }
+        log.info(out.toString());
+    }
+
+    private void write(List<ScenarioReport> reports) throws IOException {
+        if (properties.getReportFile() == null || properties.getReportFile().isBlank()) {
+            return;
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("gatewayUrl", properties.getGatewayUrl());
+        report.put("users", properties.getUsers());
+        report.put("warmupSeconds", properties.getWarmupSeconds());
+        report.put("durationSeconds", properties.getDurationSeconds());
+        report.put("scenarios", reports);
+
+        Path path = Path.of(properties.getReportFile());
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(path.toFile(), report);
+        log.info("Report written to {}", path.toAbsolutePath());
+    }
+
+    private record Scenario(
+            String name,
+            double rate,
+            Supplier<CompletableFuture<HttpResponse<String>>> call,
+            LatencyRecorder recorder) {
+
+        Scenario(String name, double rate, Supplier<CompletableFuture<HttpResponse<String>>> call) {
+            this(name, rate, call, new LatencyRecorder(name));
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.vibecode.ollamastub;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
+
+@SpringBootApplication
+@ConfigurationPropertiesScan
+public class OllamaStubApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(OllamaStubApplication.class, args);
+	}
+
+}
@@ -0,0 +1,73 @@
+package com.vibecode.ollamastub.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Behaviour of the stub. Bound from the {@code stub.*} properties at startup
+ * and patchable at runtime through {@code PUT /stub/config}, so a running load
+ * test can change latency or inject failures without a restart.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "stub")
+public class StubProperties {
+
+    /** Seed for every random draw; the same seed replays the same sequence. */
+    private long seed = 42L;
+
+    private Latency latency = new Latency();
+    private Tokens tokens = new Tokens();
+    private Failure failure = new Failure();
+
+    public enum Distribution {
+        FIXED,
+        UNIFORM,
+        NORMAL,
+        LOGNORMAL,
+        EXPONENTIAL
+    }
+
+    /** Time to first token (prompt evaluation), in milliseconds. */
+    @Getter
+    @Setter
+    public static class Latency {
+
+        private Distribution distribution = Distribution.LOGNORMAL;
+        private double meanMs = 400;
+        private double stddevMs = 150;
+        private double minMs = 0;
+        private double maxMs = 30_000;
+    }
+
+    /** Size of the generated response and how fast it is emitted. */
+    @Getter
+    @Setter
+    public static class Tokens {
+
+        private int mean = 250;
+        private int stddev = 80;
+        private int min = 1;
+        private int max = 4096;
+        private double perSecond = 40;
+    }
+
+    /** Probabilities are per request and independent of each other. */
+    @Getter
+    @Setter
+    public static class Failure {
+
+        /** Respond with {@code errorStatus} after the first-token latency. */
+        private double errorRate = 0.0;
+        private int errorStatus = 500;
+
+        /** Hold the connection for {@code hangMs} and then respond 503. */
+        private double hangRate = 0.0;
+        private long hangMs = 60_000;
+
+        /** Streaming only: close the stream halfway without a final "done" chunk. */
+        private double dropStreamRate = 0.0;
+    }
+}
@@ -0,0 +1,142 @@
+package com.vibecode.ollamastub.controller;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibecode.ollamastub.service.GenerationPlan;
+import com.vibecode.ollamastub.service.StubGenerationService;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Implements the subset of the Ollama API used by ai-generation-service:
+ * {@code POST /api/generate} with and without streaming, plus {@code /api/tags}.
+ */
+@RestController
+@RequiredArgsConstructor
+public class GenerateController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final StubGenerationService generationService;
+    private final ObjectMapper objectMapper;
+
+    @GetMapping("/api/tags")
+    public Map<String, Object> tags() {
+        return Map.of("models", List.of(Map.of("name", "stub:latest", "model", "stub:latest")));
+    }
+
+    @PostMapping("/api/generate")
+    public ResponseEntity<?> generate(@RequestBody Map<String, Object> request) {
+        String model = String.valueOf(request.getOrDefault("model", "stub"));
+        String prompt = String.valueOf(request.getOrDefault("prompt", ""));
+        boolean stream = !Boolean.FALSE.equals(request.get("stream")); // Ollama streams by default
+
+        GenerationPlan plan = generationService.plan(prompt);
+        long start = System.nanoTime();
+
+        switch (plan.outcome()) {
+            case HANG -> {
+                sleepMillis(plan.hangMs());
+                return error(HttpStatus.SERVICE_UNAVAILABLE, "injected hang");
+            }
+            case ERROR -> {
+                sleepMillis(plan.firstTokenDelayMs());
+                return error(HttpStatus.valueOf(plan.errorStatus()), "injected failure");
+            }
+            default -> {
+            }
+        }
+
+        if (stream) {
+            StreamingResponseBody body = out -> streamTokens(out, model, plan, start);
+            return ResponseEntity.ok().contentType(NDJSON).body(body);
+        }
+
+        sleepMillis(plan.firstTokenDelayMs());
+        long interval = plan.tokenIntervalNanos();
+        sleepNanos(interval * plan.tokens().size());
+
+        Map<String, Object> response = chunk(model, String.join("", plan.tokens()), true);
+        response.putAll(stats(plan, start));
+        return ResponseEntity.ok(response);
+    }
+
+    private void streamTokens(OutputStream out, String model, GenerationPlan plan, long start) throws IOException {
+        sleepMillis(plan.firstTokenDelayMs());
+
+        List<String> tokens = plan.tokens();
+        int limit = plan.outcome() == GenerationPlan.Outcome.DROP_STREAM ? tokens.size() / 2 : tokens.size();
+        long interval = plan.tokenIntervalNanos();
+        long next = System.nanoTime();
+
+        for (int i = 0; i < limit; i++) {
+            next += interval;
+            sleepNanos(next - System.nanoTime());
+            writeLine(out, chunk(model, tokens.get(i), false));
+        }
+
+        if (plan.outcome() == GenerationPlan.Outcome.DROP_STREAM) {
+            throw new IOException("injected stream drop");
+        }
+
+        Map<String, Object> done = chunk(model, "", true);
+        done.putAll(stats(plan, start));
+        writeLine(out, done);
+    }
+
+    private void writeLine(OutputStream out, Map<String, Object> line) throws IOException {
+        out.write(objectMapper.writeValueAsBytes(line));
+        out.write('\n');
+        out.flush();
+    }
+
+    private Map<String, Object> chunk(String model, String response, boolean done) {
+        Map<String, Object> chunk = new LinkedHashMap<>();
+        chunk.put("model", model);
+        chunk.put("created_at", Instant.now().toString());
+        chunk.put("response", response);
+        chunk.put("done", done);
+        return chunk;
+    }
+
+    private Map<String, Object> stats(GenerationPlan plan, long start) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("done_reason", "stop");
+        stats.put("total_duration", System.nanoTime() - start);
+        stats.put("prompt_eval_duration", plan.firstTokenDelayMs() * 1_000_000);
+        stats.put("eval_count", plan.tokens().size());
+        stats.put("eval_duration", plan.tokenIntervalNanos() * plan.tokens().size());
+        return stats;
+    }
+
+    private ResponseEntity<Map<String, Object>> error(HttpStatus status, String message) {
+        return ResponseEntity.status(status).body(Map.of("error", message));
+    }
+
+    private static void sleepMillis(long millis) {
+        sleepNanos(millis * 1_000_000);
+    }
+
+    private static void sleepNanos(long nanos) {
+        if (nanos > 0) {
+            LockSupport.parkNanos(nanos);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.vibecode.ollamastub.controller;
+
+import java.io.IOException;
+
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vibecode.ollamastub.config.StubProperties;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Reads and patches the live {@link StubProperties}. A partial body such as
+ * {@code {"failure": {"errorRate": 0.2}}} only changes the given fields.
+ */
+@RestController
+@RequestMapping("/stub/config")
+@RequiredArgsConstructor
+public class StubConfigController {
+
+    private final StubProperties properties;
+    private final ObjectMapper objectMapper;
+
+    @GetMapping
+    public StubProperties get() {
+        return properties;
+    }
+
+    @PutMapping
+    public StubProperties update(@RequestBody String patch) throws IOException {
+        synchronized (properties) {
+            objectMapper.readerForUpdating(properties).readValue(patch);
+        }
+        return properties;
+    }
+}
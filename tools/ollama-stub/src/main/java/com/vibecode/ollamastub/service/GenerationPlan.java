@@ -0,0 +1,27 @@
+package com.vibecode.ollamastub.service;
+
+import java.util.List;
+
+/**
+ * Everything the controller needs to play back one request: the outcome, the
+ * delay before the first token and the tokens to emit.
+ */
+public record GenerationPlan(
+        Outcome outcome,
+        long firstTokenDelayMs,
+        List<String> tokens,
+        double tokensPerSecond,
+        int errorStatus,
+        long hangMs) {
+
+    public enum Outcome {
+        SUCCESS,
+        ERROR,
+        HANG,
+        DROP_STREAM
+    }
+
+    public long tokenIntervalNanos() {
+        return tokensPerSecond <= 0 ? 0 : (long) (1_000_000_000L / tokensPerSecond);
+    }
+}
@@ -0,0 +1,51 @@
+package com.vibecode.ollamastub.service;
+
+import java.util.Random;
+
+import com.vibecode.ollamastub.config.StubProperties;
+
+/**
+ * Samples values from the distributions configurable in {@link StubProperties}.
+ * All draws go through the supplied {@link Random} so results are reproducible.
+ */
+public final class LatencyModel {
+
+    private LatencyModel() {
+    }
+
+    public static long sampleMillis(StubProperties.Latency latency, Random random) {
+        double value = sample(latency.getDistribution(), latency.getMeanMs(), latency.getStddevMs(), random);
+        return Math.round(clamp(value, latency.getMinMs(), latency.getMaxMs()));
+    }
+
+    public static int sampleTokens(StubProperties.Tokens tokens, Random random) {
+        double value = sample(StubProperties.Distribution.NORMAL, tokens.getMean(), tokens.getStddev(), random);
+        return (int) Math.round(clamp(value, tokens.getMin(), tokens.getMax()));
+    }
+
+    static double sample(StubProperties.Distribution distribution, double mean, double stddev, Random random) {
+        return switch (distribution) {
+            case FIXED ->
+                mean;
+            case UNIFORM ->
+                // uniform over [mean - sqrt(3)·sd, mean + sqrt(3)·sd] has the requested sd
+                mean + (random.nextDouble() * 2 - 1) * Math.sqrt(3) * stddev;
+            case NORMAL ->
+                mean + random.nextGaussian() * stddev;
+            case LOGNORMAL -> {
+                if (mean <= 0) {
+                    yield 0;
+                }
+                double sigma2 = Math.log(1 + (stddev * stddev) / (mean * mean));
+                double mu = Math.log(mean) - sigma2 / 2;
+                yield Math.exp(mu + Math.sqrt(sigma2) * random.nextGaussian());
+            }
+            case EXPONENTIAL ->
+                -mean * Math.log(1 - random.nextDouble());
+        };
+    }
+
+    private static double clamp(double value, double min, double max) {
+        return Math.max(min, Math.min(max, value));
+    }
+}
@@ -0,0 +1,80 @@
+package com.vibecode.ollamastub.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.stereotype.Service;
+
+import com.vibecode.ollamastub.config.StubProperties;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Builds a {@link GenerationPlan} per request. The n-th request after startup
+ * always draws from the same random stream for a given seed, and the response
+ * text depends only on the prompt and the sampled token count.
+ */
+@Service
+@RequiredArgsConstructor
+public class StubGenerationService {
+
+    private static final String[] TEMPLATE = """
+            // Generated by ollama-stub
+            import React, { useState } from 'react';
+
+            export default function Generated() {
+                const [items, setItems] = useState([]);
+                const add = (value) => setItems([...items, value]);
+                return (
+                    <div className="generated">
+                        <h1>%s</h1>
+                        <ul>{items.map((item, i) => <li key={i}>{item}</li>)}</ul>
+                        <button onClick={() => add(items.length)}>Add</button>
+                    </div>
+                );
+            }
+            """.split("(?<=\\s)");
+
+    private final StubProperties properties;
+    private final AtomicLong sequence = new AtomicLong();
+
+    public GenerationPlan plan(String prompt) {
+        long n = sequence.getAndIncrement();
+        Random random = new Random(properties.getSeed() ^ (n * 0x9E3779B97F4A7C15L));
+
+        StubProperties.Failure failure = properties.getFailure();
+        long firstTokenDelay = LatencyModel.sampleMillis(properties.getLatency(), random);
+        int tokenCount = LatencyModel.sampleTokens(properties.getTokens(), random);
+
+        GenerationPlan.Outcome outcome = GenerationPlan.Outcome.SUCCESS;
+        double roll = random.nextDouble();
+        if (roll < failure.getHangRate()) {
+            outcome = GenerationPlan.Outcome.HANG;
+        } else if (roll < failure.getHangRate() + failure.getErrorRate()) {
+            outcome = GenerationPlan.Outcome.ERROR;
+        } else if (roll < failure.getHangRate() + failure.getErrorRate() + failure.getDropStreamRate()) {
+            outcome = GenerationPlan.Outcome.DROP_STREAM;
+        }
+
+        return new GenerationPlan(
+                outcome,
+                firstTokenDelay,
+                tokens(prompt, tokenCount),
+                properties.getTokens().getPerSecond(),
+                failure.getErrorStatus(),
+                failure.getHangMs()
+        );
+    }
+
+    private List<String> tokens(String prompt, int count) {
+        String title = prompt == null ? "" : prompt.replaceAll("\\s+", " ").trim();
+        List<String> tokens = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String token = TEMPLATE[i % TEMPLATE.length];
+            tokens.add(token.contains("%s") ? token.formatted(title) : token);
+        }
+        return tokens;
+    }
+}
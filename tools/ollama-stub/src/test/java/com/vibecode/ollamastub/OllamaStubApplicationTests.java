@@ -0,0 +1,13 @@
+package com.vibecode.ollamastub;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest
+class OllamaStubApplicationTests {
+
+	@Test
+	void contextLoads() {
+	}
+
+}